@@ -0,0 +1,120 @@
+package com.wassimlagnaoui.RestaurantOrder.Jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks under the GC profiler, with the iterations set on each class, writes the results to
+ * target/jmh-result.json and compares them with the committed baseline in baseline/jmh-result.json. Exits with 1 when a benchmark got slower than
+ * {@code jmh.max-slowdown} or allocates more per operation than {@code jmh.max-extra-allocation} allows,
+ * so the build stops before the image is pushed.
+ * <p>
+ * Times depend on the machine, allocations do not: refresh the baseline with {@code -Djmh.update-baseline=true}
+ * on the build agent after an intended change, and commit it.
+ */
+public final class BenchmarkRunner {
+
+    private static final Path RESULT = Path.of("target", "jmh-result.json");
+    private static final Path BASELINE = Path.of("baseline", "jmh-result.json");
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    // a few objects more or less per call is below what the profiler resolves reliably
+    private static final double ALLOCATION_SLACK_BYTES = 64;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Files.createDirectories(RESULT.getParent());
+        Options options = new OptionsBuilder()
+                .include(System.getProperty("jmh.include", ".*"))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT.toString())
+                .build();
+        new Runner(options).run();
+
+        if (Boolean.getBoolean("jmh.update-baseline")) {
+            Files.createDirectories(BASELINE.getParent());
+            Files.copy(RESULT, BASELINE, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + BASELINE);
+            return;
+        }
+        if (!Files.exists(BASELINE)) {
+            System.out.println("No baseline at " + BASELINE + ", nothing to compare");
+            return;
+        }
+
+        List<String> regressions = compare(read(BASELINE), read(RESULT),
+                Double.parseDouble(System.getProperty("jmh.max-slowdown", "0.25")),
+                Double.parseDouble(System.getProperty("jmh.max-extra-allocation", "0.10")));
+        if (!regressions.isEmpty()) {
+            System.out.println("Regressions against " + BASELINE + ":");
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.println("No regressions against " + BASELINE);
+    }
+
+    static List<String> compare(Map<String, JsonNode> baseline, Map<String, JsonNode> current,
+                                double maxSlowdown, double maxExtraAllocation) {
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-60s %14s %14s %12s %12s%n", "Benchmark", "baseline", "current", "B/op before", "B/op now");
+        current.forEach((name, result) -> {
+            JsonNode before = baseline.get(name);
+            if (before == null) {
+                System.out.printf("%-60s %14s%n", name, "new");
+                return;
+            }
+            // every benchmark here measures average time per operation, so lower is better
+            JsonNode primaryBefore = before.path("primaryMetric");
+            JsonNode primary = result.path("primaryMetric");
+            double scoreBefore = primaryBefore.path("score").asDouble();
+            double score = primary.path("score").asDouble();
+            String unit = primary.path("scoreUnit").asText();
+            double allocatedBefore = allocation(before);
+            double allocated = allocation(result);
+            System.out.printf("%-60s %14.3f %14.3f %12.0f %12.0f  %s%n", name, scoreBefore, score, allocatedBefore, allocated, unit);
+
+            // a slowdown only counts when the confidence intervals of the two runs do not overlap either
+            boolean significant = score - primary.path("scoreError").asDouble(0) > scoreBefore + primaryBefore.path("scoreError").asDouble(0);
+            if (score > scoreBefore * (1 + maxSlowdown) && significant) {
+                regressions.add(String.format("%s: %.3f %s, was %.3f (+%.0f%%)", name, score, unit, scoreBefore,
+                        (score / scoreBefore - 1) * 100));
+            }
+            if (allocated > allocatedBefore * (1 + maxExtraAllocation) + ALLOCATION_SLACK_BYTES) {
+                regressions.add(String.format("%s: allocates %.0f B/op, was %.0f B/op", name, allocated, allocatedBefore));
+            }
+        });
+        return regressions;
+    }
+
+    private static double allocation(JsonNode result) {
+        return result.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble();
+    }
+
+    // results keyed by benchmark method and parameters
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            String name = result.path("benchmark").asText().replace(BenchmarkRunner.class.getPackageName() + ".", "");
+            JsonNode params = result.path("params");
+            results.put(params.isMissingNode() ? name : name + params, result);
+        }
+        return results;
+    }
+}
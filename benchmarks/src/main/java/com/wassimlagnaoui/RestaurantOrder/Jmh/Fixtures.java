@@ -0,0 +1,141 @@
+package com.wassimlagnaoui.RestaurantOrder.Jmh;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.ItemSummaryDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.OrderItemRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.PlaceOrderRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.OrderItemResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.PlaceOrderResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.SessionSummary;
+import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderItemMapper;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import com.wassimlagnaoui.RestaurantOrder.model.Order;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
+import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory entities and responses shaped like a typical table: two orders of three items,
+ * and a kitchen queue of a dinner rush. Fixed dates and ids, so every run works on the same data.
+ */
+final class Fixtures {
+
+    static final int MENU_ITEMS = 40;
+    static final int ITEMS_PER_ORDER = 3;
+    static final int ORDERS_PER_SESSION = 2;
+    static final int KITCHEN_QUEUE_DEPTH = 60;
+
+    private static final LocalDateTime SEATED_AT = LocalDateTime.of(2025, 6, 6, 19, 30);
+
+    private Fixtures() {
+    }
+
+    static List<MenuItem> menu() {
+        List<MenuItem> menu = new ArrayList<>();
+        for (long id = 1; id <= MENU_ITEMS; id++) {
+            menu.add(MenuItem.builder()
+                    .id(id)
+                    .name("Item " + id)
+                    .description("Benchmark item " + id)
+                    .price(5.0 + id)
+                    .imageUrl("item.jpg")
+                    .category("Category " + (id % 5))
+                    .available(true)
+                    .build());
+        }
+        return menu;
+    }
+
+    static TableSession session() {
+        List<MenuItem> menu = menu();
+        TableSession session = TableSession.builder()
+                .id(1L)
+                .tableNumber("T7")
+                .sessionStart(SEATED_AT)
+                .orders(new ArrayList<>())
+                .build();
+        long itemId = 0;
+        for (long orderId = 1; orderId <= ORDERS_PER_SESSION; orderId++) {
+            Order order = Order.builder()
+                    .id(orderId)
+                    .orderDate(SEATED_AT.plusMinutes(10 * orderId))
+                    .status(OrderStatus.PLACED)
+                    .tableSession(session)
+                    .items(new ArrayList<>())
+                    .build();
+            double total = 0;
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                MenuItem menuItem = menu.get((int) ((orderId * 7 + i * 3) % MENU_ITEMS));
+                int quantity = i + 1;
+                OrderItem item = OrderItem.builder()
+                        .id(++itemId)
+                        .quantity(quantity)
+                        .served(false)
+                        .unitPrice(menuItem.getPrice())
+                        .lineTotal(quantity * menuItem.getPrice())
+                        .menuItem(menuItem)
+                        .order(order)
+                        .build();
+                order.getItems().add(item);
+                total += item.getLineTotal();
+            }
+            order.setTotal(total);
+            session.getOrders().add(order);
+        }
+        return session;
+    }
+
+    static PlaceOrderRequest placeOrderRequest(long sessionId) {
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setTableSessionId(sessionId);
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            items.add(new OrderItemRequest(i + 1, (long) (i * 11 % MENU_ITEMS + 1)));
+        }
+        request.setItems(items);
+        return request;
+    }
+
+    static PlaceOrderResponse placeOrderResponse() {
+        Order order = session().getOrders().get(0);
+        List<OrderItemResponse> items = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            items.add(new OrderItemResponse(item.getId(), item.getQuantity(), item.getMenuItem().getId(),
+                    item.getMenuItem().getName(), item.getLineTotal(), item.getUnitPrice(), item.getServed()));
+        }
+        return new PlaceOrderResponse(order.getId(), 1L, order.getStatus().name(), order.getOrderDate(), items);
+    }
+
+    static SessionSummary sessionSummary() {
+        TableSession session = session();
+        List<ItemSummaryDTO> items = new ArrayList<>();
+        double total = 0;
+        for (Order order : session.getOrders()) {
+            for (OrderItem item : order.getItems()) {
+                items.add(new ItemSummaryDTO(order.getId(), item.getId(), item.getMenuItem().getName(),
+                        item.getQuantity(), item.getServed(), item.getLineTotal()));
+            }
+            total += order.getTotal();
+        }
+        return new SessionSummary(session.getId(), session.getTableNumber(), (long) session.getOrders().size(),
+                (long) items.size(), total, items);
+    }
+
+    static List<KitchenOrderQueueResponse> kitchenQueue() {
+        List<KitchenOrderQueueResponse> queue = new ArrayList<>();
+        while (queue.size() < KITCHEN_QUEUE_DEPTH) {
+            for (Order order : session().getOrders()) {
+                for (OrderItem item : order.getItems()) {
+                    KitchenOrderQueueResponse entry = OrderItemMapper.toKitchenQueueResponse(item);
+                    entry.setOrderItemId(queue.size() + 1);
+                    queue.add(entry);
+                }
+            }
+        }
+        return queue.subList(0, KITCHEN_QUEUE_DEPTH);
+    }
+}
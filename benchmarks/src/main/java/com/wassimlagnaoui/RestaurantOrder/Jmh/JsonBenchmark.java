@@ -0,0 +1,65 @@
+package com.wassimlagnaoui.RestaurantOrder.Jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.PlaceOrderResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.SessionSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the responses of placing an order, checking out and reading the kitchen queue,
+ * with an ObjectMapper configured like the one Spring Boot gives the controllers.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private PlaceOrderResponse placeOrderResponse;
+    private SessionSummary sessionSummary;
+    private List<KitchenOrderQueueResponse> kitchenQueue;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        placeOrderResponse = Fixtures.placeOrderResponse();
+        sessionSummary = Fixtures.sessionSummary();
+        kitchenQueue = Fixtures.kitchenQueue();
+    }
+
+    @Benchmark
+    public byte[] placeOrderResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(placeOrderResponse);
+    }
+
+    @Benchmark
+    public byte[] sessionSummary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(sessionSummary);
+    }
+
+    @Benchmark
+    public byte[] kitchenQueue() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(kitchenQueue);
+    }
+}
@@ -0,0 +1,80 @@
+package com.wassimlagnaoui.RestaurantOrder.Jmh;
+
+import com.wassimlagnaoui.RestaurantOrder.Security.JwtService;
+import com.wassimlagnaoui.RestaurantOrder.Security.TokenDenyList;
+import com.wassimlagnaoui.RestaurantOrder.Security.VerifiedToken;
+import com.wassimlagnaoui.RestaurantOrder.model.Role;
+import com.wassimlagnaoui.RestaurantOrder.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login, and verification on every authenticated request: from the cache of verified tokens,
+ * and with the signature checked each time. For the latter the cache has size zero and the calls cycle through
+ * many tokens, since a size-zero cache still answers for a token until its eviction has run in the background.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-benchmark-secret-key";
+    private static final long EXPIRATION_MS = 86_400_000L;
+    private static final int UNCACHED_TOKENS = 4096;
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private User user;
+    private String token;
+    private String[] uncachedTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, EXPIRATION_MS, 10_000, Duration.ofMinutes(5), new TokenDenyList());
+        uncachedJwtService = new JwtService(SECRET, EXPIRATION_MS, 0, Duration.ofMinutes(5), new TokenDenyList());
+        user = User.builder()
+                .id(1L)
+                .name("Benchmark Waiter")
+                .email("waiter@benchmark.io")
+                .password("unused")
+                .role(Role.ROLE_USER)
+                .build();
+        token = jwtService.generateToken(user);
+        uncachedTokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < UNCACHED_TOKENS; i++) {
+            uncachedTokens[i] = jwtService.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCached() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyUncached() {
+        next = (next + 1) % UNCACHED_TOKENS;
+        return uncachedJwtService.verify(uncachedTokens[next]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.wassimlagnaoui.RestaurantOrder.Jmh;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.OrderItemRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.OrderResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.TableSessionResponse;
+import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderItemMapper;
+import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderMapper;
+import com.wassimlagnaoui.RestaurantOrder.Mapper.TableSessionMapper;
+import com.wassimlagnaoui.RestaurantOrder.model.Order;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mappings on the order, kitchen and session paths.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private TableSession session;
+    private Order order;
+    private OrderItem orderItem;
+    private OrderItemRequest orderItemRequest;
+
+    @Setup
+    public void setUp() {
+        session = Fixtures.session();
+        order = session.getOrders().get(0);
+        orderItem = order.getItems().get(0);
+        orderItemRequest = Fixtures.placeOrderRequest(session.getId()).getItems().get(0);
+    }
+
+    @Benchmark
+    public OrderResponse orderMapperFromOrder() {
+        return OrderMapper.fromOrder(order);
+    }
+
+    @Benchmark
+    public KitchenOrderQueueResponse orderItemMapperToKitchenQueueResponse() {
+        return OrderItemMapper.toKitchenQueueResponse(orderItem);
+    }
+
+    @Benchmark
+    public OrderItem orderItemMapperToOrderItem() {
+        return OrderItemMapper.toOrderItem(orderItemRequest, orderItem.getMenuItem(), order);
+    }
+
+    @Benchmark
+    public TableSessionResponse tableSessionMapperFromTableSession() {
+        return TableSessionMapper.fromTableSession(session);
+    }
+}
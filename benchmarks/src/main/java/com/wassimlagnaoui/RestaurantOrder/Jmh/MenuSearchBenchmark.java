@@ -0,0 +1,86 @@
+package com.wassimlagnaoui.RestaurantOrder.Jmh;
+
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuCatalog;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuSearchIndex;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code MenuSearchIndex} over a menu far larger than any restaurant's: searches as they are typed, with a typo,
+ * and the first search after a write, which re-indexes the changed item.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MenuSearchBenchmark {
+
+    private static final int MENU_ITEMS = 2000;
+    private static final String[] DISHES = {"Burger", "Pizza", "Salad", "Risotto", "Lasagna", "Curry", "Taco", "Ramen",
+            "Steak", "Sandwich", "Soup", "Pasta", "Burrito", "Omelette", "Crème Brûlée", "Tiramisu", "Cheesecake"};
+    private static final String[] STYLES = {"Classic", "Spicy", "Smoked", "Grilled", "Vegan", "Truffle", "Chef's",
+            "Garden", "Margherita", "Caesar", "Double", "Mushroom", "Seafood"};
+    private static final String[] CATEGORIES = {"Mains", "Starters", "Desserts", "Sides", "Specials"};
+
+    private MenuCatalog menuCatalog;
+    private MenuSearchIndex menuSearchIndex;
+    private MenuItem edited;
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        // the catalog is filled through publish, so it never reaches for its repository
+        menuCatalog = new MenuCatalog(null);
+        for (long id = 1; id <= MENU_ITEMS; id++) {
+            menuCatalog.publish(menuItem(id));
+        }
+        menuSearchIndex = new MenuSearchIndex(menuCatalog);
+        menuSearchIndex.search("warm up", 1, true);
+        edited = menuItem(MENU_ITEMS / 2);
+    }
+
+    @Benchmark
+    public List<MenuItem> prefix() {
+        return menuSearchIndex.search("spicy bur", 10, true);
+    }
+
+    @Benchmark
+    public List<MenuItem> typo() {
+        return menuSearchIndex.search("margarita piza", 10, true);
+    }
+
+    @Benchmark
+    public List<MenuItem> afterWrite() {
+        toggle = !toggle;
+        edited.setAvailable(toggle);
+        menuCatalog.publish(edited);
+        return menuSearchIndex.search("truffle risotto", 10, true);
+    }
+
+    private static MenuItem menuItem(long id) {
+        String style = STYLES[(int) (id % STYLES.length)];
+        String dish = DISHES[(int) (id / STYLES.length % DISHES.length)];
+        return MenuItem.builder()
+                .id(id)
+                .name(style + " " + dish + " " + id)
+                .description("House " + dish.toLowerCase() + " with " + STYLES[(int) (id * 7 % STYLES.length)].toLowerCase() + " sauce")
+                .price(5.0 + id % 30)
+                .category(CATEGORIES[(int) (id % CATEGORIES.length)])
+                .available(id % 10 != 0)
+                .build();
+    }
+}
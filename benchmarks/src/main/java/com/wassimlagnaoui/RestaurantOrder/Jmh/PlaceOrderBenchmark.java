@@ -0,0 +1,80 @@
+package com.wassimlagnaoui.RestaurantOrder.Jmh;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.PlaceOrderRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.StartSessionDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.PlaceOrderResponse;
+import com.wassimlagnaoui.RestaurantOrder.Load.EmbeddedApplication;
+import com.wassimlagnaoui.RestaurantOrder.Service.KitchenQueueIndex;
+import com.wassimlagnaoui.RestaurantOrder.Service.OrderService;
+import com.wassimlagnaoui.RestaurantOrder.Service.TableSessionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code OrderService.placeOrder} end to end on an in-memory H2 database: the session and menu lookups,
+ * the line and order totals, the insert of the order and its items, the revenue rollup and the kitchen event.
+ * The application runs without its web server; the orders are deleted after every iteration so the tables
+ * and the kitchen queue stay the size of a dinner rush.
+ */
+// Hibernate's and Spring's code paths take a while to be compiled, on a small build agent most of a minute
+@Warmup(iterations = 6, time = 10)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlaceOrderBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private KitchenQueueIndex kitchenQueueIndex;
+    private OrderService orderService;
+    private PlaceOrderRequest request;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = EmbeddedApplication.start(WebApplicationType.NONE);
+        EmbeddedApplication.seedMenu(context, Fixtures.MENU_ITEMS);
+        StartSessionDTO startSession = new StartSessionDTO();
+        startSession.setTableNumber("T7");
+        long sessionId = context.getBean(TableSessionService.class).startSession(startSession).getId();
+
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        kitchenQueueIndex = context.getBean(KitchenQueueIndex.class);
+        orderService = context.getBean(OrderService.class);
+        request = Fixtures.placeOrderRequest(sessionId);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOrders() {
+        for (String table : new String[]{"menu_item_daily_revenue", "daily_revenue", "order_item", "orders"}) {
+            jdbcTemplate.execute("DELETE FROM " + table);
+        }
+        kitchenQueueIndex.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public PlaceOrderResponse placeOrder() {
+        return orderService.placeOrder(request);
+    }
+}
@@ -0,0 +1,200 @@
+package com.wassimlagnaoui.RestaurantOrder.Load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.wassimlagnaoui.RestaurantOrder.Repository.UserRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.Role;
+import com.wassimlagnaoui.RestaurantOrder.model.User;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the REST API of the application, running on an in-memory H2 database, with a dinner rush:
+ * every table is seated, orders a few times, asks for the bill until everything it ordered has been served,
+ * leaves and is seated again; kitchen stations poll the queue and serve the oldest items.
+ * After a warm-up, the throughput and latency percentiles of each endpoint are printed and written to
+ * target/load-report.json, and compared with an earlier report if one is given.
+ * <p>
+ * Run with: ./mvnw -f benchmarks/pom.xml package exec:exec@load -Dload.tables=200 -Dload.baseline=previous-report.json
+ * The settings and their defaults are the load.* properties of benchmarks/pom.xml. Times are compressed:
+ * a table orders every few seconds instead of every few minutes, so a short run sees many sittings.
+ */
+public final class DinnerRushSimulator {
+
+    private static final String EMAIL = "load@restaurant.io";
+    private static final String PASSWORD = "load-password";
+
+    private final boolean virtualThreads = Boolean.getBoolean("load.virtual-threads");
+    private final int tables = Integer.getInteger("load.tables", 200);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 30);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 120);
+    private final int ordersPerSession = Integer.getInteger("load.orders-per-session", 3);
+    private final int itemsPerOrder = Integer.getInteger("load.items-per-order", 3);
+    private final int orderIntervalMs = Integer.getInteger("load.order-interval-ms", 10_000);
+    private final int kitchenStations = Integer.getInteger("load.kitchen-stations", 4);
+    private final int kitchenPollMs = Integer.getInteger("load.kitchen-poll-ms", 1_000);
+    private final int servesPerPoll = Integer.getInteger("load.serves-per-poll", 20);
+    private final int menuItems = Integer.getInteger("load.menu-items", 40);
+    private final Path reportFile = Path.of(System.getProperty("load.report", "target/load-report.json"));
+    private final String baselineFile = System.getProperty("load.baseline", "");
+
+    private final LatencyReport report = new LatencyReport();
+    private volatile boolean running = true;
+    private RestaurantClient client;
+
+    public static void main(String[] args) throws Exception {
+        new DinnerRushSimulator().run();
+    }
+
+    private void run() throws Exception {
+        ConfigurableApplicationContext context = EmbeddedApplication.start(WebApplicationType.SERVLET, "--server.port=0", "--management.server.port=-1",
+                "--spring.threads.virtual.enabled=" + virtualThreads);
+        try {
+            EmbeddedApplication.seedMenu(context, menuItems);
+            context.getBean(UserRepository.class).save(User.builder()
+                    .name("Load Simulator")
+                    .email(EMAIL)
+                    .password(context.getBean(PasswordEncoder.class).encode(PASSWORD))
+                    .role(Role.ROLE_USER)
+                    .build());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            client = new RestaurantClient("http://localhost:" + port, report);
+            client.login(EMAIL, PASSWORD);
+
+            ObjectNode results = simulate();
+
+            JsonNode baseline = baselineFile.isEmpty() ? null : LatencyReport.read(Path.of(baselineFile));
+            LatencyReport.print(results, baseline);
+            LatencyReport.write(results, reportFile);
+            System.out.println("\nReport written to " + reportFile);
+        } finally {
+            context.close();
+        }
+    }
+
+    private ObjectNode simulate() throws InterruptedException {
+        System.out.printf("Simulating %d tables and %d kitchen stations on %s threads: %ds warm-up, %ds measured%n",
+                tables, kitchenStations, virtualThreads ? "virtual" : "platform", warmupSeconds, durationSeconds);
+
+        ExecutorService diners = Executors.newFixedThreadPool(tables);
+        for (int table = 1; table <= tables; table++) {
+            String tableNumber = "T" + table;
+            diners.execute(() -> seat(tableNumber));
+        }
+        ScheduledExecutorService kitchen = Executors.newScheduledThreadPool(kitchenStations);
+        for (int station = 0; station < kitchenStations; station++) {
+            int stationIndex = station;
+            kitchen.scheduleAtFixedRate(() -> cook(stationIndex), kitchenPollMs * station / kitchenStations, kitchenPollMs, TimeUnit.MILLISECONDS);
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        report.reset();
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        ObjectNode results = report.snapshot((System.nanoTime() - start) / 1e9, settings());
+
+        running = false;
+        kitchen.shutdownNow();
+        diners.shutdownNow();
+        diners.awaitTermination(30, TimeUnit.SECONDS);
+        kitchen.awaitTermination(30, TimeUnit.SECONDS);
+        return results;
+    }
+
+    // one party after another at the same table
+    private void seat(String tableNumber) {
+        pause(ThreadLocalRandom.current().nextLong(orderIntervalMs)); // the tables do not all sit down at once
+        while (running) {
+            Optional<Long> sessionId = client.startSession(tableNumber);
+            if (sessionId.isEmpty()) {
+                pause(orderIntervalMs);
+                continue;
+            }
+            for (int order = 0; order < ordersPerSession && running; order++) {
+                pause(thinkTime());
+                client.placeOrder(sessionId.get(), randomItems());
+            }
+            // ask for the bill until everything has been served
+            boolean served = false;
+            while (running && !served) {
+                pause(thinkTime());
+                served = client.checkoutSummary(sessionId.get())
+                        .map(summary -> summary.path("items").findValues("served").stream().allMatch(JsonNode::asBoolean))
+                        .orElse(false);
+            }
+            client.endSession(tableNumber);
+            pause(thinkTime());
+        }
+    }
+
+    // each station takes the items whose id falls to it, so two stations never serve the same item
+    private void cook(int station) {
+        if (!running) {
+            return;
+        }
+        client.kitchenQueue(TimeUnit.MILLISECONDS.toNanos(kitchenPollMs)).ifPresent(queue -> {
+            int served = 0;
+            for (JsonNode item : queue) {
+                if (served == servesPerPoll || !running) {
+                    break;
+                }
+                long orderItemId = item.path("orderItemId").asLong();
+                if (orderItemId % kitchenStations == station) {
+                    client.serve(orderItemId);
+                    served++;
+                }
+            }
+        });
+    }
+
+    private long[] randomItems() {
+        long[] items = new long[itemsPerOrder];
+        for (int i = 0; i < itemsPerOrder; i++) {
+            items[i] = 1 + ThreadLocalRandom.current().nextInt(menuItems);
+        }
+        return items;
+    }
+
+    // exponentially distributed around the order interval, like independent parties
+    private long thinkTime() {
+        return (long) (-orderIntervalMs * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("virtualThreads", virtualThreads);
+        settings.put("tables", tables);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("ordersPerSession", ordersPerSession);
+        settings.put("itemsPerOrder", itemsPerOrder);
+        settings.put("orderIntervalMs", orderIntervalMs);
+        settings.put("kitchenStations", kitchenStations);
+        settings.put("kitchenPollMs", kitchenPollMs);
+        settings.put("servesPerPoll", servesPerPoll);
+        settings.put("menuItems", menuItems);
+        settings.put("processors", Runtime.getRuntime().availableProcessors());
+        settings.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        return settings;
+    }
+}
@@ -0,0 +1,69 @@
+package com.wassimlagnaoui.RestaurantOrder.Load;
+
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.RestaurantOrderApplication;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuCatalog;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application on an in-memory H2 database, for the benchmarks and the load simulator.
+ */
+public final class EmbeddedApplication {
+
+    // arguments rather than default properties, which application.yml would override
+    private static final String[] H2_ARGS = {
+            // the migrations are postgres sql, so the schema is generated; the postgres driver settings are ignored
+            "--spring.datasource.url=jdbc:h2:mem:restaurant;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.flyway.enabled=false",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.org.hibernate.orm.deprecation=ERROR",
+            "--logging.level.org.springframework.security=ERROR",
+            "--jwt.secret=benchmark-secret-key-benchmark-secret-key"
+    };
+
+    private EmbeddedApplication() {
+    }
+
+    /**
+     * @param webApplicationType NONE for the services only, SERVLET for the REST API
+     * @param args more arguments, which win over the H2 settings
+     */
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... args) {
+        return new SpringApplicationBuilder(RestaurantOrderApplication.class)
+                .web(webApplicationType)
+                .run(Stream.concat(Stream.of(H2_ARGS), Stream.of(args)).toArray(String[]::new));
+    }
+
+    /**
+     * Saves a menu of {@code size} items, with ids 1 to {@code size}, and loads it into the menu catalog.
+     */
+    public static List<MenuItem> seedMenu(ConfigurableApplicationContext context, int size) {
+        List<MenuItem> menu = new ArrayList<>();
+        for (long n = 1; n <= size; n++) {
+            menu.add(MenuItem.builder()
+                    .name("Item " + n)
+                    .description("Benchmark item " + n)
+                    .price(5.0 + n)
+                    .imageUrl("item.jpg")
+                    .category("Category " + (n % 5))
+                    .available(true)
+                    .build());
+        }
+        List<MenuItem> saved = context.getBean(MenuItemRepository.class).saveAll(menu);
+        context.getBean(MenuCatalog.class).reload();
+        return saved;
+    }
+}
@@ -0,0 +1,139 @@
+package com.wassimlagnaoui.RestaurantOrder.Load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per endpoint, from many threads at once. Latencies are kept in microseconds;
+ * the report gives the throughput and the p50, p99 and p99.9 latency of each endpoint in milliseconds, as a table
+ * and as JSON that can be compared with the report of another build.
+ */
+final class LatencyReport {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    // slower calls are counted as a minute
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records one call.
+     * @param endpoint the method and path template, e.g. "POST /orders"
+     * @param nanos how long the call took
+     * @param ok false when the call failed or answered with an error status
+     */
+    void record(String endpoint, long nanos, boolean ok) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latencies.recordValue(micros(nanos));
+        if (!ok) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Records a call made on a fixed schedule, filling in the calls a slow response held back
+     * (so a stalled poller shows up in the percentiles instead of just making fewer calls).
+     */
+    void record(String endpoint, long nanos, boolean ok, long intervalNanos) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latencies.recordValueWithExpectedInterval(micros(nanos),
+                TimeUnit.NANOSECONDS.toMicros(intervalNanos));
+        if (!ok) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Forgets everything recorded so far, at the end of the warm-up.
+     */
+    void reset() {
+        endpoints.values().forEach(stats -> {
+            stats.latencies.reset();
+            stats.errors.reset();
+        });
+    }
+
+    /**
+     * Takes the calls recorded since the last reset.
+     * @param seconds how long they were recorded for
+     * @param settings the load, written to the report alongside the results
+     */
+    ObjectNode snapshot(double seconds, Map<String, Object> settings) {
+        ObjectNode report = JSON.createObjectNode();
+        report.set("settings", JSON.valueToTree(settings));
+        report.put("seconds", seconds);
+        ObjectNode results = report.putObject("endpoints");
+        new TreeMap<>(endpoints).forEach((name, stats) -> {
+            Histogram histogram = stats.latencies.getIntervalHistogram();
+            ObjectNode result = results.putObject(name);
+            result.put("requests", histogram.getTotalCount());
+            result.put("errors", stats.errors.sum());
+            result.put("throughput", round(histogram.getTotalCount() / seconds));
+            result.put("p50", millis(histogram.getValueAtPercentile(50)));
+            result.put("p99", millis(histogram.getValueAtPercentile(99)));
+            result.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+            result.put("max", millis(histogram.getMaxValue()));
+        });
+        return report;
+    }
+
+    static void print(JsonNode report, JsonNode baseline) {
+        System.out.printf("%n%-40s %9s %7s %9s %9s %9s %9s %9s%n", "Endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        report.path("endpoints").fields().forEachRemaining(entry -> {
+            JsonNode result = entry.getValue();
+            System.out.printf("%-40s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    result.path("requests").asLong(), result.path("errors").asLong(), result.path("throughput").asDouble(),
+                    result.path("p50").asDouble(), result.path("p99").asDouble(), result.path("p999").asDouble(), result.path("max").asDouble());
+            JsonNode before = baseline == null ? null : baseline.path("endpoints").get(entry.getKey());
+            if (before != null) {
+                System.out.printf("%-40s %9s %7s %9s %9s %9s %9s%n", "  vs baseline", "", "",
+                        change(result, before, "throughput"), change(result, before, "p50"), change(result, before, "p99"), change(result, before, "p999"));
+            }
+        });
+    }
+
+    static void write(JsonNode report, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        JSON.writeValue(file.toFile(), report);
+    }
+
+    static JsonNode read(Path file) throws IOException {
+        return JSON.readTree(file.toFile());
+    }
+
+    private static String change(JsonNode result, JsonNode before, String field) {
+        double was = before.path(field).asDouble();
+        return was == 0 ? "-" : String.format("%+.0f%%", (result.path(field).asDouble() / was - 1) * 100);
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(MAX_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static final class Endpoint {
+        // to three significant digits
+        private final Recorder latencies = new Recorder(MAX_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
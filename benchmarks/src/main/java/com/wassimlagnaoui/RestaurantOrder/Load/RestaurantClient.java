@@ -0,0 +1,135 @@
+package com.wassimlagnaoui.RestaurantOrder.Load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.wassimlagnaoui.RestaurantOrder.Service.IdempotencyService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The calls a table's tablet and the kitchen screen make to the REST API, each timed into a {@link LatencyReport}
+ * under its method and path template.
+ */
+final class RestaurantClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final LatencyReport report;
+    private String authorization;
+
+    RestaurantClient(String baseUrl, LatencyReport report) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .build();
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+
+    /**
+     * Logs in once; every later call sends the token, like a staff tablet does.
+     */
+    void login(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(post("/api/auth/login", Map.of("email", email, "password", password)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        authorization = "Bearer " + objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    /** @return the new session's id */
+    Optional<Long> startSession(String tableNumber) {
+        return call("POST /sessions/start", post("/sessions/start", Map.of("tableNumber", tableNumber)), 0)
+                .map(session -> session.path("id").asLong());
+    }
+
+    /**
+     * Places an order, with an idempotency key as the tablets send it.
+     * @param menuItemIds the items, one of each
+     */
+    boolean placeOrder(long sessionId, long... menuItemIds) {
+        ObjectNode order = objectMapper.createObjectNode().put("tableSessionId", sessionId);
+        ArrayNode items = order.putArray("items");
+        for (long menuItemId : menuItemIds) {
+            items.addObject().put("menuItemId", menuItemId).put("quantity", 1);
+        }
+        return call("POST /orders", post("/orders", order).header(IdempotencyService.HEADER, UUID.randomUUID().toString()), 0)
+                .isPresent();
+    }
+
+    /**
+     * @param intervalNanos how often the kitchen polls, so calls a slow response held back are counted too
+     * @return the unserved items, oldest first
+     */
+    Optional<JsonNode> kitchenQueue(long intervalNanos) {
+        return call("GET /orders/kitchen/queue", request("/orders/kitchen/queue").GET(), intervalNanos);
+    }
+
+    boolean serve(long orderItemId) {
+        return call("POST /orders/orderItem/{id}/serve",
+                request("/orders/orderItem/" + orderItemId + "/serve").POST(HttpRequest.BodyPublishers.noBody())
+                        .header(IdempotencyService.HEADER, UUID.randomUUID().toString()), 0)
+                .isPresent();
+    }
+
+    Optional<JsonNode> checkoutSummary(long sessionId) {
+        return call("GET /sessions/{id}/checkout-summary", request("/sessions/" + sessionId + "/checkout-summary").GET(), 0);
+    }
+
+    boolean endSession(String tableNumber) {
+        return call("PUT /sessions/{tableNumber}/end",
+                request("/sessions/" + tableNumber + "/end").PUT(HttpRequest.BodyPublishers.noBody()), 0)
+                .isPresent();
+    }
+
+    private Optional<JsonNode> call(String endpoint, HttpRequest.Builder request, long intervalNanos) {
+        long start = System.nanoTime();
+        JsonNode body = null;
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 == 2) {
+                body = objectMapper.readTree(response.body());
+            }
+        } catch (IOException e) {
+            // counted as an error below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long nanos = System.nanoTime() - start;
+        if (intervalNanos > 0) {
+            report.record(endpoint, nanos, body != null, intervalNanos);
+        } else {
+            report.record(endpoint, nanos, body != null);
+        }
+        return Optional.ofNullable(body);
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        try {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        return authorization == null ? request : request.header("Authorization", authorization);
+    }
+}
@@ -8,6 +8,7 @@ import com.wassimlagnaoui.RestaurantOrder.Service.AuthService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -46,4 +47,18 @@ public class AuthController {
             return ResponseEntity.ok(response);
     }
 
+    /**
+     * Revokes the bearer token sent with the request, so it is rejected until it expires.
+     *
+     * @param authorization the Authorization header, "Bearer <token>"
+     * @return 204 No Content, whether or not the token was still valid
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            authService.logout(authorization.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
 }
@@ -0,0 +1,54 @@
+package com.wassimlagnaoui.RestaurantOrder.Controller;
+
+import com.wassimlagnaoui.RestaurantOrder.Service.EncodedJson;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Conditional GET responses of pre-encoded JSON bodies: 304 when the client's ETag is current,
+ * otherwise the stored bytes, gzip-compressed when the client accepts it.
+ */
+final class ConditionalResponses {
+
+    // clients may keep the body but have to revalidate it, which costs them a 304 while it has not changed
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private ConditionalResponses() {
+    }
+
+    static ResponseEntity<byte[]> of(EncodedJson encoded, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        HttpStatus status = encoded.matches(ifNoneMatch) ? HttpStatus.NOT_MODIFIED : HttpStatus.OK;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .eTag(encoded.etag(gzip))
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (status == HttpStatus.NOT_MODIFIED) {
+            return response.build();
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(encoded.body(gzip));
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            // gzip;q=0 means the client refuses it
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            return !refused;
+        }
+        return false;
+    }
+}
@@ -3,10 +3,14 @@ package com.wassimlagnaoui.RestaurantOrder.Controller;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.BulkMenuUpdateRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.BulkMenuUpdateResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
 import com.wassimlagnaoui.RestaurantOrder.Service.MenuItemService;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +36,13 @@ public class MenuItemController {
 
     }
 
+    // creates and changes many menu items in one transaction, e.g. for a seasonal menu
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkMenuUpdateResponse> bulkUpdate(@RequestBody @Valid BulkMenuUpdateRequest bulkMenuUpdateRequest) {
+        BulkMenuUpdateResponse bulkMenuUpdateResponse = menuItemService.bulkUpdate(bulkMenuUpdateRequest);
+        return ResponseEntity.status(HttpStatus.OK).body(bulkMenuUpdateResponse);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MenuItemResponse> getMenuItemByID(@PathVariable Long id){
         MenuItemResponse menuItemResponse = menuItemService.findById(id);
@@ -44,6 +55,27 @@ public class MenuItemController {
         return ResponseEntity.status(HttpStatus.OK).body(menuItemResponses);
     }
 
+    // one page of the menu in id order; pass nextCursor of the response as "after" for the next page
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<MenuItemResponse>> getMenuItemPage(@RequestParam(required = false) Long after,
+                                                                        @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size,
+                                                                        @RequestParam(required = false) String category,
+                                                                        @RequestParam(required = false) Boolean available,
+                                                                        @RequestParam(required = false) Double minPrice,
+                                                                        @RequestParam(required = false) Double maxPrice) {
+        KeysetPage<MenuItemResponse> page = menuItemService.getMenuItemPage(after, size, category, available, minPrice, maxPrice);
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+
+    // typo-tolerant search over name, category and description, for the search box of the tablets
+    @GetMapping("/search")
+    public ResponseEntity<List<MenuItemResponse>> searchMenuItems(@RequestParam("q") String query,
+                                                                  @RequestParam(defaultValue = "10") int limit,
+                                                                  @RequestParam(defaultValue = "true") boolean availableOnly) {
+        List<MenuItemResponse> menuItemResponses = menuItemService.searchMenuItems(query, limit, availableOnly);
+        return ResponseEntity.status(HttpStatus.OK).body(menuItemResponses);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<MenuItemResponse> updateAvailability(@PathVariable Long id){
         MenuItemResponse menuItemResponse = menuItemService.updateAvailability(id);
@@ -52,10 +84,11 @@ public class MenuItemController {
 
 
 
+    // served from the menu catalog, pre-encoded per catalog version; answers 304 to a current If-None-Match
     @GetMapping("/available")
-    public ResponseEntity<List<MenuItemResponse>> getAvailableMenuItems() {
-        List<MenuItemResponse> menuItemResponses = menuItemService.getAvailableMenuItems();
-        return ResponseEntity.status(HttpStatus.OK).body(menuItemResponses);
+    public ResponseEntity<byte[]> getAvailableMenuItems(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ConditionalResponses.of(menuItemService.getAvailableMenuJson(), ifNoneMatch, acceptEncoding);
     }
 
     // get menu items by category
@@ -80,6 +113,13 @@ public class MenuItemController {
         return ResponseEntity.status(HttpStatus.OK).body(menuItemResponse);
     }
 
+    // set the portions left; without a stock the item is no longer counted
+    @PutMapping("/{id}/stock")
+    public ResponseEntity<MenuItemResponse> updateStock(@PathVariable Long id, @RequestParam(required = false) Integer stock) {
+        MenuItemResponse menuItemResponse = menuItemService.updateStock(id, stock);
+        return ResponseEntity.status(HttpStatus.OK).body(menuItemResponse);
+    }
+
     // update menu item name
     @PutMapping("/{id}/name")
     public ResponseEntity<MenuItemResponse> updateName(@PathVariable Long id, @RequestParam String name) {
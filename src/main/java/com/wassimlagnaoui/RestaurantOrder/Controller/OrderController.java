@@ -5,9 +5,13 @@ import com.wassimlagnaoui.RestaurantOrder.DTO.OrderServedStatusDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.*;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.PlaceOrderRequest;
 import com.wassimlagnaoui.RestaurantOrder.Service.OrderService;
+import com.wassimlagnaoui.RestaurantOrder.Service.IdempotencyService;
+import com.wassimlagnaoui.RestaurantOrder.Service.KitchenStreamService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -18,14 +22,22 @@ public class OrderController {
 
 
     private final OrderService orderService;
+    private final KitchenStreamService kitchenStreamService;
+    private final IdempotencyService idempotencyService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, KitchenStreamService kitchenStreamService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.kitchenStreamService = kitchenStreamService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping()
-    public ResponseEntity<PlaceOrderResponse> placeOrder(@RequestBody PlaceOrderRequest placeOrderRequest){
-        PlaceOrderResponse orderResponse = orderService.placeOrder(placeOrderRequest);
+    public ResponseEntity<PlaceOrderResponse> placeOrder(@RequestBody PlaceOrderRequest placeOrderRequest,
+                                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey){
+        PlaceOrderResponse orderResponse = idempotencyKey == null
+                ? orderService.placeOrder(placeOrderRequest)
+                : idempotencyService.execute("POST /orders", idempotencyKey, placeOrderRequest, PlaceOrderResponse.class,
+                        () -> orderService.placeOrder(placeOrderRequest));
         return ResponseEntity.status(HttpStatus.CREATED).body(orderResponse);
     }
 
@@ -59,6 +71,12 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.OK).body(orderResponse);
     }
 
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<OrderResponse> cancelOrder(@PathVariable("id") long id){
+        OrderResponse orderResponse = orderService.cancelOrder(id);
+        return ResponseEntity.status(HttpStatus.OK).body(orderResponse);
+    }
+
     @GetMapping("/kitchen/queue")
     public ResponseEntity<List<KitchenOrderQueueResponse>> getKitchenQueue(){
         List<KitchenOrderQueueResponse> orderResponses = orderService.getNotServedItems();
@@ -67,9 +85,18 @@ public class OrderController {
 
 
 
+    @GetMapping(value = "/kitchen/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamKitchenQueue(){
+        return kitchenStreamService.subscribe();
+    }
+
     @PostMapping("/orderItem/{id}/serve")
-    public ResponseEntity<MarkOrderItemServedDTO> serveOrderItem(@PathVariable("id") Long orderItemId){
-        MarkOrderItemServedDTO response = orderService.serveOrderItem(orderItemId);
+    public ResponseEntity<MarkOrderItemServedDTO> serveOrderItem(@PathVariable("id") Long orderItemId,
+                                                                 @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey){
+        MarkOrderItemServedDTO response = idempotencyKey == null
+                ? orderService.serveOrderItem(orderItemId)
+                : idempotencyService.execute("POST /orders/orderItem/" + orderItemId + "/serve", idempotencyKey, null, MarkOrderItemServedDTO.class,
+                        () -> orderService.serveOrderItem(orderItemId));
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
@@ -1,6 +1,7 @@
 package com.wassimlagnaoui.RestaurantOrder.Controller;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.AddStaffDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.staffAddedResponse;
 import com.wassimlagnaoui.RestaurantOrder.Service.StaffManagementService;
 import jakarta.validation.Valid;
@@ -30,4 +31,10 @@ public class StaffController {
         List<StaffInfoDTO> staffList = staffManagementService.getAllStaff();
         return ResponseEntity.ok(staffList);
     }
+
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<StaffInfoDTO>> getStaffPage(@RequestParam(required = false) Long after,
+                                                                 @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(staffManagementService.getStaffPage(after, size));
+    }
 }
@@ -3,17 +3,23 @@ package com.wassimlagnaoui.RestaurantOrder.Controller;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.MostOrderedItemDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.PopularItemsResponseDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.RollupRebuildResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.TableSessionAverageRevenueByDate;
 import com.wassimlagnaoui.RestaurantOrder.Service.MenuItemService;
 import com.wassimlagnaoui.RestaurantOrder.Service.OrderService;
+import com.wassimlagnaoui.RestaurantOrder.Service.RevenueRollupService;
 import com.wassimlagnaoui.RestaurantOrder.Service.StatsService;
 import com.wassimlagnaoui.RestaurantOrder.Service.TableService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 
@@ -24,12 +30,14 @@ public class StatsController {
     private final TableService tableService;
     private final MenuItemService menuItemService;
     private final StatsService statsService;
+    private final RevenueRollupService revenueRollupService;
 
-    public StatsController(OrderService orderService, TableService tableService, MenuItemService menuItemService, StatsService statsService) {
+    public StatsController(OrderService orderService, TableService tableService, MenuItemService menuItemService, StatsService statsService, RevenueRollupService revenueRollupService) {
         this.orderService = orderService;
         this.tableService = tableService;
         this.menuItemService = menuItemService;
         this.statsService = statsService;
+        this.revenueRollupService = revenueRollupService;
     }
 
     // Endpoint to get the most ordered items
@@ -60,6 +68,15 @@ public class StatsController {
         return ResponseEntity.ok(averageRevenueByDate);
     }
 
+    // Admin: recompute the revenue rollups for a date range (inclusive) from the order history
+    @PostMapping("/admin/rollups/rebuild")
+    public ResponseEntity<RollupRebuildResponse> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        RollupRebuildResponse response = revenueRollupService.rebuild(from, to);
+        return ResponseEntity.ok(response);
+    }
+
 
 
 
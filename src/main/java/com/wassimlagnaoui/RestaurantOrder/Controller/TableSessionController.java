@@ -1,16 +1,20 @@
 package com.wassimlagnaoui.RestaurantOrder.Controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wassimlagnaoui.RestaurantOrder.DTO.ItemSummaryDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.StartSessionDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.EndSessionResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.SessionSummary;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.StartSessionResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.TableSessionResponse;
+import com.wassimlagnaoui.RestaurantOrder.Service.EncodedJson;
 import com.wassimlagnaoui.RestaurantOrder.Service.TableService;
 import com.wassimlagnaoui.RestaurantOrder.Service.TableSessionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -29,10 +33,17 @@ public class TableSessionController {
     @Autowired
     private final TableService tableService;
 
+    // the table list only changes with a deploy, so it is encoded once; the tag is the same on every instance
+    private final EncodedJson tables;
 
-    public TableSessionController(TableSessionService tableSessionService, TableService tableService) {
+
+    public TableSessionController(TableSessionService tableSessionService, TableService tableService, ObjectMapper objectMapper) {
         this.tableSessionService = tableSessionService;
         this.tableService = tableService;
+        List<String> tableNames = tableService.getTableNames();
+        this.tables = EncodedJson.of(objectMapper,
+                tableNames.stream().map(name -> Map.of("tableName", name)).collect(Collectors.toList()),
+                0, "tables-" + Integer.toHexString(tableNames.hashCode()));
     }
 
     @PostMapping("/start")
@@ -60,12 +71,16 @@ public class TableSessionController {
         return ResponseEntity.status(HttpStatus.OK).body(tableSessionResponses);
     }
 
+    @GetMapping("/active/page")
+    public ResponseEntity<KeysetPage<TableSessionResponse>> getActiveSessionPage(@RequestParam(required = false) Long after,
+                                                                                 @RequestParam(defaultValue = "" + KeysetPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(tableSessionService.getActiveTableSessionPage(after, size));
+    }
+
     @GetMapping("/tables")
-    public List<Map<String, String>> getAllTables() {
-        return tableService.getTableNames()
-                .stream()
-                .map(name -> Map.of("tableName", name))
-                .collect(Collectors.toList());
+    public ResponseEntity<byte[]> getAllTables(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ConditionalResponses.of(tables, ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/{id}/item-summary")
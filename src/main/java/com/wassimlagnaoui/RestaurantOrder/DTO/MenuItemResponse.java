@@ -16,6 +16,7 @@ public class MenuItemResponse {
     private String imageUrl;
     private String category;
     private boolean available;
+    private Integer stock;
 
 
 
@@ -0,0 +1,21 @@
+package com.wassimlagnaoui.RestaurantOrder.DTO.Requests;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemRequest;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkMenuUpdateRequest {
+    @Valid
+    private List<MenuItemRequest> create = new ArrayList<>();
+
+    @Valid
+    private List<MenuItemChange> update = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.wassimlagnaoui.RestaurantOrder.DTO.Requests;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change to an existing menu item; fields left null keep their current value.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MenuItemChange {
+    @NotNull
+    private Long id;
+
+    private String name;
+    private String description;
+    private Double price;
+    private String imageUrl;
+    private String category;
+    private Boolean available;
+}
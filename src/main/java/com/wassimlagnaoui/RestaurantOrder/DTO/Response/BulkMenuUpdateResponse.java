@@ -0,0 +1,16 @@
+package com.wassimlagnaoui.RestaurantOrder.DTO.Response;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkMenuUpdateResponse {
+    private List<MenuItemResponse> created;
+    private List<MenuItemResponse> updated;
+}
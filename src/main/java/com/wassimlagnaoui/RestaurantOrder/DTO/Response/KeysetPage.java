@@ -0,0 +1,38 @@
+package com.wassimlagnaoui.RestaurantOrder.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+// one page of a listing ordered by id: pass nextCursor as "after" to get the next page, null on the last page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private List<T> items;
+    private Long nextCursor;
+    private long total;
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row only tells whether there is a next page.
+     */
+    public static <E, T> KeysetPage<T> of(List<E> rows, int size, Function<E, Long> id, Function<E, T> mapper, long total) {
+        List<E> page = rows.size() > size ? rows.subList(0, size) : rows;
+        Long nextCursor = rows.size() > size ? id.apply(page.get(page.size() - 1)) : null;
+        return new KeysetPage<>(page.stream().map(mapper).toList(), nextCursor, total);
+    }
+
+    public static int checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+        return size;
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -14,4 +16,5 @@ public class KitchenOrderQueueResponse {
     private String itemName;
     private int quantity;
     private boolean served;
+    private LocalDateTime orderDate;
 }
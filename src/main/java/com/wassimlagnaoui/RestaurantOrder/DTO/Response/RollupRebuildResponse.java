@@ -0,0 +1,18 @@
+package com.wassimlagnaoui.RestaurantOrder.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupRebuildResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private int chunks;
+    private long dayRows;
+    private long menuItemRows;
+}
@@ -0,0 +1,14 @@
+package com.wassimlagnaoui.RestaurantOrder.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueByMenuItemDTO {
+    private Long menuItemId;
+    private String name;
+    private Double revenue;
+}
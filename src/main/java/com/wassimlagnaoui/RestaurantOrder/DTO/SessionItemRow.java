@@ -0,0 +1,20 @@
+package com.wassimlagnaoui.RestaurantOrder.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one session / order / item row of the sessions-by-date query; order and item columns are null for empty sessions and orders
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionItemRow {
+    private Long sessionId;
+    private String tableNumber;
+    private Long orderId;
+    private Long orderItemId;
+    private String itemName;
+    private Integer quantity;
+    private Boolean served;
+    private Double lineTotal;
+}
@@ -0,0 +1,16 @@
+package com.wassimlagnaoui.RestaurantOrder.Event;
+
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Published by MenuItemService when a bulk menu update has created or changed menu items.
+ */
+@Data
+@AllArgsConstructor
+public class MenuItemsChangedEvent {
+    private List<MenuItem> menuItems;
+}
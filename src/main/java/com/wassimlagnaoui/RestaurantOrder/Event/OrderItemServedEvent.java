@@ -0,0 +1,14 @@
+package com.wassimlagnaoui.RestaurantOrder.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by OrderService when an order item is marked as served.
+ */
+@Data
+@AllArgsConstructor
+public class OrderItemServedEvent {
+    private Long orderItemId;
+    private Long orderId;
+}
@@ -0,0 +1,19 @@
+package com.wassimlagnaoui.RestaurantOrder.Event;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by OrderService when an order is placed; listeners see it after the transaction commits.
+ */
+@Data
+@AllArgsConstructor
+public class OrderPlacedEvent {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private List<KitchenOrderQueueResponse> items;
+}
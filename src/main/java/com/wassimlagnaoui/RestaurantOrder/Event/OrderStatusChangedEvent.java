@@ -0,0 +1,14 @@
+package com.wassimlagnaoui.RestaurantOrder.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by OrderService when the status of an order changes (served, cancelled).
+ */
+@Data
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private Long orderId;
+    private String status;
+}
@@ -0,0 +1,15 @@
+package com.wassimlagnaoui.RestaurantOrder.Event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Published by OrderService when an order has taken stock, so the stock is given back if the order rolls back.
+ */
+@Data
+@AllArgsConstructor
+public class StockReservedEvent {
+    private Map<Long, Integer> quantities;
+}
@@ -0,0 +1,10 @@
+package com.wassimlagnaoui.RestaurantOrder.Exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException() {
+        super("A request with this Idempotency-Key is still being processed, retry later");
+    }
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.wassimlagnaoui.RestaurantOrder.Exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException() {
+        super("Idempotency-Key was already used for a different request");
+    }
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.wassimlagnaoui.RestaurantOrder.Exception;
+
+public class LoginThrottledException extends RuntimeException {
+    public LoginThrottledException() {
+        super("Too many logins in progress, retry shortly");
+    }
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.wassimlagnaoui.RestaurantOrder.Exception;
+
+public class MenuItemSoldOutException extends RuntimeException {
+    public MenuItemSoldOutException(Long id) {
+        super("Menu item with id " + id + " is sold out");
+    }
+}
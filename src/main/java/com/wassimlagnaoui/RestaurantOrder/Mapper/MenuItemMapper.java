@@ -15,6 +15,7 @@ public class MenuItemMapper {
         menuItemResponse.setPrice(menuItem.getPrice());
         menuItemResponse.setImageUrl(menuItem.getImageUrl());
         menuItemResponse.setId(menuItem.getId());
+        menuItemResponse.setStock(menuItem.getStock());
 
         return menuItemResponse;
     }
@@ -1,6 +1,7 @@
 package com.wassimlagnaoui.RestaurantOrder.Mapper;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.OrderItemRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.OrderItemResponse;
 import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
 import com.wassimlagnaoui.RestaurantOrder.model.Order;
@@ -12,18 +13,31 @@ public class OrderItemMapper {
     public static OrderItemResponse fromOrderItem(OrderItem orderItem){
         OrderItemResponse orderItemResponse = new OrderItemResponse();
 
-        double totalPrice = orderItem.getQuantity() * orderItem.getMenuItem().getPrice();
-
         orderItemResponse.setMenuItemId(orderItem.getMenuItem().getId());
 
-        orderItemResponse.setUnitPrice(orderItem.getMenuItem().getPrice());
-        orderItemResponse.setTotalPrice(totalPrice);
+        orderItemResponse.setUnitPrice(orderItem.getUnitPrice());
+        orderItemResponse.setTotalPrice(orderItem.getLineTotal());
 
 
         return orderItemResponse;
 
     }
 
+    public static KitchenOrderQueueResponse toKitchenQueueResponse(OrderItem orderItem){
+        KitchenOrderQueueResponse kitchenOrderQueueResponse = new KitchenOrderQueueResponse();
+        if (orderItem.getId() != null) {
+            kitchenOrderQueueResponse.setOrderItemId(orderItem.getId());
+        }
+        kitchenOrderQueueResponse.setOrderId(orderItem.getOrder().getId());
+        kitchenOrderQueueResponse.setItemName(orderItem.getMenuItem().getName());
+        kitchenOrderQueueResponse.setTableNumber(orderItem.getOrder().getTableSession().getTableNumber());
+        kitchenOrderQueueResponse.setQuantity(orderItem.getQuantity());
+        kitchenOrderQueueResponse.setServed(orderItem.getServed());
+        kitchenOrderQueueResponse.setOrderDate(orderItem.getOrder().getOrderDate());
+
+        return kitchenOrderQueueResponse;
+    }
+
     public static OrderItem toOrderItem(OrderItemRequest orderItemRequest, MenuItem menuItem, Order order){
         OrderItem orderItem = new OrderItem();
 
@@ -31,6 +45,8 @@ public class OrderItemMapper {
         orderItem.setMenuItem(menuItem);
         orderItem.setOrder(order);
         orderItem.setQuantity(orderItemRequest.getQuantity());
+        orderItem.setUnitPrice(menuItem.getPrice());
+        orderItem.setLineTotal(orderItem.getQuantity() * menuItem.getPrice());
 
 
         return orderItem;
@@ -5,6 +5,7 @@ import com.wassimlagnaoui.RestaurantOrder.DTO.OrderRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.OrderResponse;
 import com.wassimlagnaoui.RestaurantOrder.model.Order;
 import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
 import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
 
 import java.util.ArrayList;
@@ -17,7 +18,7 @@ public class OrderMapper {
         order.setOrderDate(orderRequest.getOrderDate());
         order.setItems(orderItems);
         order.setTableSession(tableSession);
-        order.setStatus(orderRequest.getStatus());
+        order.setStatus(toOrderStatus(orderRequest.getStatus()));
 
 
 
@@ -27,6 +28,16 @@ public class OrderMapper {
 
     }
 
+    /**
+     * Parses the status sent by a client.
+     * @param status the status name, or null
+     * @return the status, or null when none was sent
+     * @throws IllegalArgumentException if the name is not an OrderStatus
+     */
+    public static OrderStatus toOrderStatus(String status) {
+        return status == null ? null : OrderStatus.valueOf(status);
+    }
+
     public static OrderResponse fromOrder(Order order) {
         OrderResponse orderResponse = new OrderResponse();
 
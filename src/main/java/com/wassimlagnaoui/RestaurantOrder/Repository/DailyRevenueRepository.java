@@ -0,0 +1,30 @@
+package com.wassimlagnaoui.RestaurantOrder.Repository;
+
+import com.wassimlagnaoui.RestaurantOrder.model.DailyRevenue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DailyRevenueRepository extends JpaRepository<DailyRevenue, LocalDate> {
+
+    @Query("SELECT d FROM DailyRevenue d ORDER BY d.revenueDate")
+    List<DailyRevenue> findAllOrderByDate();
+
+    @Modifying
+    @Query("DELETE FROM DailyRevenue d WHERE d.revenueDate >= :from AND d.revenueDate < :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // recompute the rollup rows of a date range from the order history
+    @Modifying
+    @Query("INSERT INTO DailyRevenue (revenueDate, revenue, quantity, orderCount) " +
+           "SELECT CAST(o.orderDate AS LocalDate), SUM(oi.lineTotal), SUM(oi.quantity), COUNT(DISTINCT o.id) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE o.orderDate >= :from AND o.orderDate < :to AND o.status <> com.wassimlagnaoui.RestaurantOrder.model.OrderStatus.CANCELLED " +
+           "GROUP BY CAST(o.orderDate AS LocalDate)")
+    int rebuildRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,23 @@
+package com.wassimlagnaoui.RestaurantOrder.Repository;
+
+import com.wassimlagnaoui.RestaurantOrder.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // plain insert, so a key stored concurrently by another instance fails on the primary key instead of being merged
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (id, fingerprint, response_body, created_at) " +
+                   "VALUES (:id, :fingerprint, :responseBody, :createdAt)", nativeQuery = true)
+    void insert(@Param("id") String id, @Param("fingerprint") String fingerprint,
+                @Param("responseBody") String responseBody, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
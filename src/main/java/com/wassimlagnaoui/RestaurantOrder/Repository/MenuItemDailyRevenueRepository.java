@@ -0,0 +1,35 @@
+package com.wassimlagnaoui.RestaurantOrder.Repository;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.RevenueByMenuItemDTO;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItemDailyRevenue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface MenuItemDailyRevenueRepository extends JpaRepository<MenuItemDailyRevenue, MenuItemDailyRevenue.Key> {
+
+    // Total revenue per menu item from the rollup, including items that were never ordered
+    @Query("SELECT new com.wassimlagnaoui.RestaurantOrder.DTO.RevenueByMenuItemDTO(" +
+           "m.id, m.name, COALESCE(SUM(r.revenue), 0.0)) " +
+           "FROM MenuItem m LEFT JOIN MenuItemDailyRevenue r ON r.menuItemId = m.id " +
+           "GROUP BY m.id, m.name")
+    Stream<RevenueByMenuItemDTO> streamRevenueByMenuItem();
+
+    @Modifying
+    @Query("DELETE FROM MenuItemDailyRevenue r WHERE r.revenueDate >= :from AND r.revenueDate < :to")
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // recompute the rollup rows of a date range from the order history
+    @Modifying
+    @Query("INSERT INTO MenuItemDailyRevenue (revenueDate, menuItemId, revenue, quantity, orderCount) " +
+           "SELECT CAST(o.orderDate AS LocalDate), oi.menuItem.id, SUM(oi.lineTotal), SUM(oi.quantity), COUNT(DISTINCT o.id) " +
+           "FROM OrderItem oi JOIN oi.order o " +
+           "WHERE o.orderDate >= :from AND o.orderDate < :to AND o.status <> com.wassimlagnaoui.RestaurantOrder.model.OrderStatus.CANCELLED " +
+           "GROUP BY CAST(o.orderDate AS LocalDate), oi.menuItem.id")
+    int rebuildRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
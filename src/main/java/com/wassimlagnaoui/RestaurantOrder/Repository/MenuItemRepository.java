@@ -2,22 +2,43 @@ package com.wassimlagnaoui.RestaurantOrder.Repository;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.PopularItemsResponseDTO;
 import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-import java.nio.channels.FileChannel;
 import java.util.List;
 
 public interface MenuItemRepository extends JpaRepository<MenuItem,Long> {
 
+    // results are kept in the query cache and invalidated by Hibernate on any write to menu_item
+    String QUERY_CACHE_REGION = "menu-item-queries";
+
+    // the optional filters of the menu pages; a null parameter turns its filter off
+    String PAGE_FILTERS = " AND (:category IS NULL OR m.category = :category)" +
+            " AND (:available IS NULL OR m.available = :available)" +
+            " AND (:minPrice IS NULL OR m.price >= :minPrice)" +
+            " AND (:maxPrice IS NULL OR m.price <= :maxPrice)";
+
     @Query("SELECT m FROM MenuItem m WHERE m.category = :category")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<MenuItem> findByCategory(@Param("category") String category);
 
 
-    // find all available menu items
-    @Query("SELECT m FROM MenuItem m WHERE m.available = true")
-    List<MenuItem> findAvailableMenuItems();
+    // a keyset page of the menu; walks the primary key, or idx_menu_item_category_id for one category
+    @Query("SELECT m FROM MenuItem m WHERE m.id > :after" + PAGE_FILTERS + " ORDER BY m.id")
+    List<MenuItem> findPage(@Param("after") long after, @Param("category") String category, @Param("available") Boolean available,
+                            @Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice, Limit limit);
+
+    @Query("SELECT COUNT(m) FROM MenuItem m WHERE 1 = 1" + PAGE_FILTERS)
+    long countPage(@Param("category") String category, @Param("available") Boolean available,
+                   @Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
 
     // find menu items by name
     @Query("SELECT m FROM MenuItem m WHERE m.name LIKE %:name%")
@@ -0,0 +1,40 @@
+package com.wassimlagnaoui.RestaurantOrder.Repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the stock of menu items with a plain JDBC batch, one statement per flush whatever the number of items.
+ * An item that runs out becomes unavailable, and an item that was sold out becomes available again once it is restocked;
+ * otherwise its availability is left as the staff set it.
+ */
+@Repository
+public class MenuItemStockJdbcRepository {
+
+    // the CASE reads the stock before the update
+    private static final String UPDATE_STOCK =
+            "UPDATE menu_item SET available = CASE WHEN ? <= 0 THEN FALSE WHEN stock <= 0 THEN TRUE ELSE available END, stock = ? " +
+            "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MenuItemStockJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the stock of the given items, in ascending id order to avoid deadlocks.
+     * @param stock the stock by menu item id; a null stock stops counting the item
+     */
+    public void updateStock(Map<Long, Integer> stock) {
+        List<Object[]> rows = new ArrayList<>();
+        stock.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> rows.add(new Object[]{entry.getValue(), entry.getValue(), entry.getKey()}));
+        jdbcTemplate.batchUpdate(UPDATE_STOCK, rows);
+    }
+}
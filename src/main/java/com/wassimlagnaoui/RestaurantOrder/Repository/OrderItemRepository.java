@@ -1,16 +1,30 @@
 package com.wassimlagnaoui.RestaurantOrder.Repository;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.MostOrderedItemDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
 import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem,Long> {
     @Query("select o from OrderItem o where o.served = false order by o.order.orderDate")
     List<OrderItem> findUnservedOrderItem();
 
+    // Unserved items of orders that are still live, oldest first; streamed once at startup to build the kitchen queue index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse(" +
+           "oi.id, o.id, ts.tableNumber, m.name, oi.quantity, oi.served, o.orderDate) " +
+           "from OrderItem oi join oi.order o join o.tableSession ts join oi.menuItem m " +
+           "where oi.served = false and o.status <> com.wassimlagnaoui.RestaurantOrder.model.OrderStatus.CANCELLED " +
+           "order by o.orderDate, oi.id")
+    Stream<KitchenOrderQueueResponse> streamKitchenQueue();
+
     @Query("select o from OrderItem o where o.served = true order by o.order.orderDate")
     List<OrderItem> findServedOrderItem();
 
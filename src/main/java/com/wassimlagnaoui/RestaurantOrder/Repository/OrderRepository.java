@@ -3,25 +3,31 @@ package com.wassimlagnaoui.RestaurantOrder.Repository;
 import com.wassimlagnaoui.RestaurantOrder.model.Order;
 import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
 import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    @EntityGraph(Order.SESSION_ORDERS)
     List<Order> findByTableSession(TableSession tableSession);
 
-    @Query("select o from Order o  where o.tableSession.id =:sessionId and o.status<>'SERVED' ")
+    // an order with its items and their menu items, in one statement
+    @EntityGraph(Order.SESSION_ORDERS)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    @Query("select o from Order o  where o.tableSession.id =:sessionId and o.status<>com.wassimlagnaoui.RestaurantOrder.model.OrderStatus.SERVED ")
     List<Order> findUnservedOrderByTableSession(@Param("sessionId") Long sessionId);
 
 
-    @Query("select o from Order o  where o.tableSession.id =:sessionId and o.status='SERVED' ")
+    @Query("select o from Order o  where o.tableSession.id =:sessionId and o.status=com.wassimlagnaoui.RestaurantOrder.model.OrderStatus.SERVED ")
     List<Order> findServedOrderByTableSession(@Param("sessionId") Long sessionId);
 
-    @Query("select o from Order o where o.status<>'SERVED' ")
-    List<Order> findAllUnservedOrder();
-
+    @EntityGraph(Order.SESSION_ORDERS)
     @Query("select o from Order o  where o.tableSession.id =:sessionId")
     List<Order> findByTableSession(Long sessionId);
 
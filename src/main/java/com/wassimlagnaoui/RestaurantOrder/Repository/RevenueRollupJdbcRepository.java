@@ -0,0 +1,85 @@
+package com.wassimlagnaoui.RestaurantOrder.Repository;
+
+import com.wassimlagnaoui.RestaurantOrder.model.DailyRevenue;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItemDailyRevenue;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies revenue deltas to the rollup tables with plain JDBC batches.
+ * The statements run on the connection of the surrounding JPA transaction but bypass the persistence context,
+ * so placing an order does not pay for a flush per rollup row.
+ */
+@Repository
+public class RevenueRollupJdbcRepository {
+
+    // create the zero row if it does not exist yet, without failing when another transaction wins the race
+    private static final String INSERT_DAY =
+            "INSERT INTO daily_revenue (revenue_date, revenue, quantity, order_count) VALUES (?, 0, 0, 0) ON CONFLICT DO NOTHING";
+    private static final String INCREMENT_DAY =
+            "UPDATE daily_revenue SET revenue = revenue + ?, quantity = quantity + ?, order_count = order_count + ? WHERE revenue_date = ?";
+    private static final String INSERT_MENU_ITEM_DAY =
+            "INSERT INTO menu_item_daily_revenue (revenue_date, menu_item_id, revenue, quantity, order_count) VALUES (?, ?, 0, 0, 0) ON CONFLICT DO NOTHING";
+    private static final String INCREMENT_MENU_ITEM_DAY =
+            "UPDATE menu_item_daily_revenue SET revenue = revenue + ?, quantity = quantity + ?, order_count = order_count + ? " +
+            "WHERE revenue_date = ? AND menu_item_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevenueRollupJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the given deltas to the day row and to the menu item rows. Rows are updated first and only the rows
+     * that do not exist yet are created and updated again, so an order for a day that already has rows costs two batches.
+     * Menu item rows are written in the order given; callers keep it stable to avoid deadlocks.
+     * @param day the delta for the day row
+     * @param menuItems the deltas for the menu item rows of the same day
+     */
+    public void increment(DailyRevenue day, List<MenuItemDailyRevenue> menuItems) {
+        Date revenueDate = Date.valueOf(day.getRevenueDate());
+
+        if (incrementDay(day, revenueDate) == 0) {
+            jdbcTemplate.update(INSERT_DAY, revenueDate);
+            incrementDay(day, revenueDate);
+        }
+
+        int[][] updated = incrementMenuItems(menuItems, revenueDate);
+        List<MenuItemDailyRevenue> missing = new ArrayList<>();
+        int row = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(menuItems.get(row));
+                }
+                row++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MENU_ITEM_DAY, missing, missing.size(), (ps, delta) -> {
+                ps.setDate(1, revenueDate);
+                ps.setLong(2, delta.getMenuItemId());
+            });
+            incrementMenuItems(missing, revenueDate);
+        }
+    }
+
+    private int incrementDay(DailyRevenue day, Date revenueDate) {
+        return jdbcTemplate.update(INCREMENT_DAY, day.getRevenue(), day.getQuantity(), day.getOrderCount(), revenueDate);
+    }
+
+    private int[][] incrementMenuItems(List<MenuItemDailyRevenue> menuItems, Date revenueDate) {
+        return jdbcTemplate.batchUpdate(INCREMENT_MENU_ITEM_DAY, menuItems, menuItems.size(), (ps, delta) -> {
+            ps.setDouble(1, delta.getRevenue());
+            ps.setLong(2, delta.getQuantity());
+            ps.setLong(3, delta.getOrderCount());
+            ps.setDate(4, revenueDate);
+            ps.setLong(5, delta.getMenuItemId());
+        });
+    }
+}
@@ -1,14 +1,19 @@
 package com.wassimlagnaoui.RestaurantOrder.Repository;
 
 import com.wassimlagnaoui.RestaurantOrder.model.Staff;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StaffRepository extends JpaRepository<Staff, Long> {
   // find staff by Employee ID
     Optional<Staff> findByEmployeeId(Long employeeId);
+
+    // a keyset page of the staff, in id order
+    List<Staff> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
 
@@ -1,24 +1,48 @@
 package com.wassimlagnaoui.RestaurantOrder.Repository;
 
+import com.wassimlagnaoui.RestaurantOrder.DTO.ItemSummaryDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.SessionItemRow;
 import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Date;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface TableSessionRepository extends JpaRepository<TableSession,Long> {
 
-    @Query("select t from TableSession t where t.tableNumber = :tableNumber and t.sessionEnd is null ")
-    Optional<TableSession> findActiveTableSessionByTableNumber(@Param("tableNumber") String tableNumber);
-
     @Query("select tb from TableSession tb where tb.sessionEnd is null")
     List<TableSession> findActiveTableSession();
 
-    @Query("select tb from TableSession tb where tb.id=:sessionId and tb.sessionEnd is null ")
-    Optional<TableSession> findActiveTableSessionById(@Param("sessionId") long sessionId);
+    // a session with its orders; the orders' items are then loaded together in one subselect
+    @EntityGraph(TableSession.CHECKOUT)
+    @Query("select tb from TableSession tb where tb.id = :id")
+    Optional<TableSession> findWithOrdersById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update TableSession tb set tb.sessionEnd = :sessionEnd where tb.id = :sessionId and tb.sessionEnd is null")
+    int endSession(@Param("sessionId") Long sessionId, @Param("sessionEnd") LocalDateTime sessionEnd);
+
+
+    // adjusts the running totals in place, so concurrent orders of a session add up instead of overwriting each other
+    @Modifying
+    @Query("update TableSession tb set tb.orderCount = tb.orderCount + :orders, tb.itemCount = tb.itemCount + :items, " +
+           "tb.totalAmount = tb.totalAmount + :amount where tb.id = :sessionId")
+    int addToTotals(@Param("sessionId") Long sessionId, @Param("orders") long orders, @Param("items") long items, @Param("amount") double amount);
+
+    // the item lines of a session's checkout, without loading the orders, items or menu items as entities
+    @Query("select new com.wassimlagnaoui.RestaurantOrder.DTO.ItemSummaryDTO(o.id, oi.id, m.name, oi.quantity, oi.served, oi.lineTotal) " +
+           "from OrderItem oi join oi.order o join oi.menuItem m " +
+           "where o.tableSession.id = :sessionId and o.status <> com.wassimlagnaoui.RestaurantOrder.model.OrderStatus.CANCELLED " +
+           "order by o.id, oi.id")
+    List<ItemSummaryDTO> findCheckoutItems(@Param("sessionId") Long sessionId);
 
 
     // find all table sessions dates formatted as "yyyy-MM-dd"
@@ -52,10 +76,16 @@ public interface TableSessionRepository extends JpaRepository<TableSession,Long>
             "    session_date;")
     List<Object[]> findAverageTotalByTableSessionGroupedByDate();
 
-     // find sessions by Data
-
-    @Query(value = "SELECT * FROM table_session WHERE CAST(session_start AS date) = CAST(:date AS date)", nativeQuery = true)
-    List<TableSession> findSessionsByDate(@Param("date") String date);
+    // one row per order item of the sessions started in [from, to), ordered so summaries can be built in a single pass;
+    // cancelled orders are left out in the join, so a session whose orders were all cancelled still gets its row
+    @Query("select new com.wassimlagnaoui.RestaurantOrder.DTO.SessionItemRow(" +
+           "ts.id, ts.tableNumber, o.id, oi.id, m.name, oi.quantity, oi.served, oi.lineTotal) " +
+           "from TableSession ts " +
+           "left join ts.orders o on o.status <> com.wassimlagnaoui.RestaurantOrder.model.OrderStatus.CANCELLED " +
+           "left join o.items oi left join oi.menuItem m " +
+           "where ts.sessionStart >= :from and ts.sessionStart < :to " +
+           "order by ts.id, o.id, oi.id")
+    List<SessionItemRow> findSessionItemRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
 
 
@@ -2,7 +2,6 @@ package com.wassimlagnaoui.RestaurantOrder.Security;
 
 
 import com.wassimlagnaoui.RestaurantOrder.Repository.UserRepository;
-import com.wassimlagnaoui.RestaurantOrder.model.User;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -21,12 +20,6 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        //
-        User user = userRepository.findByEmail(username).orElseThrow(()-> new UsernameNotFoundException("UserName not found"));
-
-        System.out.println("Loaded user: " + user.getEmail());
-        System.out.println("Raw password in DB: " + user.getPassword());
-
-        return user;
+        return userRepository.findByEmail(username).orElseThrow(()-> new UsernameNotFoundException("UserName not found"));
     }
 }
@@ -1,28 +1,44 @@
 package com.wassimlagnaoui.RestaurantOrder.Security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final CustomUserDetailsService customUserDetailsService;
 
-    public JwtAuthenticationFilter(JwtService jwtService, CustomUserDetailsService customUserDetailsService) {
+    // time spent verifying a bearer token, by whether it was accepted
+    private final Timer acceptedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtAuthenticationFilter(JwtService jwtService, MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
-        this.customUserDetailsService = customUserDetailsService;
+        this.acceptedTimer = verifyTimer(meterRegistry, "accepted");
+        this.rejectedTimer = verifyTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Time spent verifying a bearer token")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
 
@@ -49,23 +65,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 3. Extract the actual token (removing "Bearer " prefix)
         final String jwtToken = authHeader.substring(7);
 
-        // 4. Extract username (email) from the token
-        final String userEmail = jwtService.extractUsername(jwtToken);
+        // 4. Verify the token once (signature, expiry, revocation) and build the principal from its signed claims,
+        //    so authenticating a request never queries the users table
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            Timer.Sample sample = Timer.start();
+            Optional<VerifiedToken> verified = jwtService.verify(jwtToken);
+            sample.stop(verified.isPresent() ? acceptedTimer : rejectedTimer);
 
-        //check if the rquest was already authenticated
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            // Load user details
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
+            verified.ifPresent(token -> {
+                List<GrantedAuthority> authorities = token.getRole() == null
+                        ? List.of()
+                        : List.of(new SimpleGrantedAuthority(token.getRole()));
 
-            // validate the token
-            if (jwtService.isTokenValid(jwtToken,userDetails)) {
-                // 8. Create an Authentication object to represent the verified user
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,null,userDetails.getAuthorities());
+                // 5. Create an Authentication object to represent the verified user
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(token.getUsername(), null, authorities);
 
-                // 9. Set the authentication in the SecurityContext — tells Spring "this user is now authenticated"
+                // 6. Set the authentication in the SecurityContext — tells Spring "this user is now authenticated"
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
-
+            });
         }
 
         filterChain.doFilter(request, response);
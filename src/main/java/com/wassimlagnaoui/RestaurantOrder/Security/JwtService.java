@@ -1,8 +1,12 @@
 package com.wassimlagnaoui.RestaurantOrder.Security;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.wassimlagnaoui.RestaurantOrder.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -12,19 +16,42 @@ import org.springframework.stereotype.Service;
 
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.UUID;
 
 
 @Service
 public class JwtService {
-    @Value("${jwt.secret}")
-    private String secretKey;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration; // in ms
+    private final long jwtExpiration; // in ms
+    private final TokenDenyList tokenDenyList;
+
+    // built once, instead of on every sign and parse
+    private final Key signInKey;
+    private final JwtParser parser;
+
+    // tokens whose signature has already been checked, so a client's repeated requests are verified once
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration}") long jwtExpiration,
+                      @Value("${jwt.cache.size:10000}") long cacheSize,
+                      @Value("${jwt.cache.ttl:5m}") Duration cacheTtl,
+                      TokenDenyList tokenDenyList) {
+        this.jwtExpiration = jwtExpiration;
+        this.tokenDenyList = tokenDenyList;
+        this.signInKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
 
     // Generate token
     public String generateToken(UserDetails userDetails) {
@@ -43,50 +70,60 @@ public class JwtService {
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString()) // lets a single token be revoked
                 .setSubject(userDetails.getUsername()) // set username
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Checks the token's signature and expiry in a single parse, or answers from the cache of verified tokens.
+     * @param token the compact JWT
+     * @return the verified claims, or empty if the token is malformed, forged, expired or revoked
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified == null) {
+            try {
+                verified = toVerifiedToken(token, parser.parseClaimsJws(token).getBody());
+            } catch (JwtException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+            verifiedTokens.put(token, verified);
+        } else if (!verified.getExpiresAt().isAfter(Instant.now())) {
+            verifiedTokens.invalidate(token);
+            return Optional.empty();
+        }
 
-
-    // Key used to sign/verify
-    private Key getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String extractUsername(String jwtToken) {
-        // Extract the "subject" (usually the user's email) from the token
-        return extractClaim(jwtToken, Claims::getSubject);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey()) // uses your secret key
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        if (tokenDenyList.isDenied(verified.getTokenId())) {
+            return Optional.empty();
+        }
+        return Optional.of(verified);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Revokes a token until it expires.
+     * @param token the compact JWT
+     * @return true if the token was valid and is now revoked
+     */
+    public boolean revoke(String token) {
+        Optional<VerifiedToken> verified = verify(token);
+        verified.ifPresent(v -> {
+            tokenDenyList.deny(v.getTokenId(), v.getExpiresAt());
+            verifiedTokens.invalidate(token);
+        });
+        return verified.isPresent();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static VerifiedToken toVerifiedToken(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token has no expiration"); // never issued by generateToken
+        }
+        // tokens issued before ids were added are identified by their signature
+        String tokenId = claims.getId() != null ? claims.getId() : token.substring(token.lastIndexOf('.') + 1);
+        return new VerifiedToken(tokenId, claims.getSubject(), claims.get("role", String.class), claims.getExpiration().toInstant());
     }
 
 }
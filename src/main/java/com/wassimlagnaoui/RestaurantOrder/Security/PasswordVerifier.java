@@ -0,0 +1,101 @@
+package com.wassimlagnaoui.RestaurantOrder.Security;
+
+import com.wassimlagnaoui.RestaurantOrder.Exception.LoginThrottledException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs password hash checks on a small dedicated pool.
+ * BCrypt is deliberately slow, so a burst of logins (every tablet at shift change) is capped at a few cores
+ * instead of taking every request thread; checks beyond the pool and its bounded queue are rejected straight away
+ * rather than piling up behind each other.
+ */
+@Slf4j
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Timer hashTimer;
+
+    // checked against when the email is unknown, so a missing user costs the same as a wrong password
+    private final String dummyHash;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.hash.threads:2}") int threads,
+                            @Value("${auth.hash.queue-size:32}") int queueSize,
+                            @Value("${auth.hash.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent checking a password hash")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "password-hash", Tags.empty()).bindTo(meterRegistry);
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+    }
+
+    /**
+     * Checks a password against its stored hash on the hashing pool.
+     * @param rawPassword the password sent by the client
+     * @param encodedPassword the stored hash, or null if the user does not exist
+     * @return true if the password matches; always false when encodedPassword is null
+     * @throws LoginThrottledException if the pool and its queue are full, or the check did not finish in time
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> pending;
+        try {
+            pending = executor.submit(() -> hashTimer.recordCallable(() -> check(rawPassword, encodedPassword)));
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hash queue is full ({} waiting), rejecting login", executor.getQueue().size());
+            throw new LoginThrottledException();
+        }
+
+        try {
+            return pending.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pending.cancel(true);
+            throw new LoginThrottledException();
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginThrottledException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    private boolean check(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            passwordEncoder.matches(rawPassword, dummyHash);
+            return false;
+        }
+        return passwordEncoder.matches(rawPassword, encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -3,6 +3,7 @@ package com.wassimlagnaoui.RestaurantOrder.Security;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -65,6 +66,9 @@ public class SecurityConfig {
                                 "/orders/*",
                                 "/sessions/*"
                         ).permitAll()
+                        .requestMatchers("/api/stats/admin/**").hasRole("ADMIN")
+                        // only served on management.server.port, which is kept off the public network, so Prometheus scrapes without a token
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
                         .anyRequest().authenticated() // ✅ this must be inside the lambda passed to authorizeHttpRequests
                 )
                 .sessionManagement(sess -> sess
@@ -0,0 +1,49 @@
+package com.wassimlagnaoui.RestaurantOrder.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Ids of revoked tokens that have not expired yet.
+ * An entry is dropped when its token expires, since the signature check rejects the token from then on;
+ * there is deliberately no size bound, so a revoked token can never be evicted back to valid.
+ */
+@Component
+public class TokenDenyList {
+
+    private final Cache<String, Instant> denied = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Instant>() {
+                @Override
+                public long expireAfterCreate(String tokenId, Instant expiresAt, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+                    return expireAfterCreate(tokenId, expiresAt, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    public void deny(String tokenId, Instant expiresAt) {
+        denied.put(tokenId, expiresAt);
+    }
+
+    public boolean isDenied(String tokenId) {
+        return denied.getIfPresent(tokenId) != null;
+    }
+
+    public long size() {
+        return denied.estimatedSize();
+    }
+}
@@ -0,0 +1,18 @@
+package com.wassimlagnaoui.RestaurantOrder.Security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+// the claims of a token whose signature and expiry have been checked
+@Getter
+@ToString
+@AllArgsConstructor
+public class VerifiedToken {
+    private final String tokenId;
+    private final String username;
+    private final String role;
+    private final Instant expiresAt;
+}
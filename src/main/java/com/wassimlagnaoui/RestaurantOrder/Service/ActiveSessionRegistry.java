@@ -0,0 +1,162 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Exception.ActiveSessionExistsException;
+import com.wassimlagnaoui.RestaurantOrder.Exception.NoActiveTableSessionFoundException;
+import com.wassimlagnaoui.RestaurantOrder.Repository.TableSessionRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory registry of the active table sessions, keyed by table number.
+ * Loaded from the database on startup; sessions are opened and closed through the registry, so the
+ * "is this table free" check and the write happen atomically per table and lookups never query the database.
+ * Sessions handed out are detached copies without their orders.
+ */
+@Slf4j
+@Component
+public class ActiveSessionRegistry {
+
+    private static final Comparator<TableSession> OLDEST_FIRST =
+            Comparator.comparing(TableSession::getSessionStart, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final TableSessionRepository tableSessionRepository;
+
+    private final ConcurrentHashMap<String, TableSession> sessionsByTableNumber = new ConcurrentHashMap<>();
+    private final Map<Long, TableSession> sessionsById = new ConcurrentHashMap<>();
+    // one per table number ever seated, so a handful
+    private final Map<String, ReentrantLock> tableLocks = new ConcurrentHashMap<>();
+
+    public ActiveSessionRegistry(TableSessionRepository tableSessionRepository) {
+        this.tableSessionRepository = tableSessionRepository;
+    }
+
+    /**
+     * Replaces the registry with the active sessions currently in the database.
+     * If a table has more than one active session, the most recent one is kept.
+     */
+    @PostConstruct
+    public synchronized void reload() {
+        sessionsByTableNumber.clear();
+        sessionsById.clear();
+        List<TableSession> activeSessions = tableSessionRepository.findActiveTableSession().stream()
+                .sorted(OLDEST_FIRST)
+                .toList();
+        for (TableSession tableSession : activeSessions) {
+            TableSession previous = sessionsByTableNumber.put(tableSession.getTableNumber(), copy(tableSession));
+            if (previous != null) {
+                sessionsById.remove(previous.getId());
+                log.warn("Table {} has more than one active session, using session {} and ignoring session {}",
+                        tableSession.getTableNumber(), tableSession.getId(), previous.getId());
+            }
+            sessionsById.put(tableSession.getId(), copy(tableSession));
+        }
+        log.info("Active session registry loaded {} sessions", sessionsByTableNumber.size());
+    }
+
+    public Optional<TableSession> findByTableNumber(String tableNumber) {
+        return Optional.ofNullable(sessionsByTableNumber.get(tableNumber)).map(ActiveSessionRegistry::copy);
+    }
+
+    public Optional<TableSession> findById(Long sessionId) {
+        return Optional.ofNullable(sessionsById.get(sessionId)).map(ActiveSessionRegistry::copy);
+    }
+
+    /**
+     * Returns the active sessions, oldest first.
+     * @return a new list of the active sessions, empty when no table is seated
+     */
+    public List<TableSession> sessions() {
+        return sessionsByTableNumber.values().stream()
+                .sorted(OLDEST_FIRST)
+                .map(ActiveSessionRegistry::copy)
+                .toList();
+    }
+
+    public int size() {
+        return sessionsByTableNumber.size();
+    }
+
+    /**
+     * Saves and registers a new session for a table.
+     * Concurrent calls for the same table are serialised, so only one of them can open a session;
+     * across instances the unique index on the active session of a table has the final word.
+     * @param tableNumber the table to seat
+     * @return the saved session
+     * @throws ActiveSessionExistsException if the table already has an active session
+     */
+    public TableSession open(String tableNumber) {
+        ReentrantLock lock = lockFor(tableNumber);
+        lock.lock();
+        try {
+            if (sessionsByTableNumber.containsKey(tableNumber)) {
+                throw new ActiveSessionExistsException("There is already an active session for this table: " + tableNumber);
+            }
+            TableSession tableSession = new TableSession();
+            tableSession.setSessionStart(LocalDateTime.now());
+            tableSession.setTableNumber(tableNumber);
+            TableSession saved;
+            try {
+                saved = copy(tableSessionRepository.save(tableSession));
+            } catch (DataIntegrityViolationException e) {
+                // uq_table_session_active_table: another instance seated the table first
+                throw new ActiveSessionExistsException("There is already an active session for this table: " + tableNumber);
+            }
+            sessionsById.put(saved.getId(), saved);
+            sessionsByTableNumber.put(tableNumber, saved);
+            return copy(saved);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the active session of a table and removes it from the registry.
+     * @param tableNumber the table to free
+     * @return the ended session
+     * @throws NoActiveTableSessionFoundException if the table has no active session
+     */
+    public TableSession close(String tableNumber) {
+        ReentrantLock lock = lockFor(tableNumber);
+        lock.lock();
+        try {
+            TableSession active = sessionsByTableNumber.get(tableNumber);
+            if (active == null) {
+                throw new NoActiveTableSessionFoundException();
+            }
+            LocalDateTime sessionEnd = LocalDateTime.now();
+            tableSessionRepository.endSession(active.getId(), sessionEnd);
+            sessionsByTableNumber.remove(tableNumber);
+            sessionsById.remove(active.getId());
+            TableSession closed = copy(active);
+            closed.setSessionEnd(sessionEnd);
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // a lock rather than ConcurrentHashMap.compute, whose bin monitor would pin a virtual thread for the database call
+    private ReentrantLock lockFor(String tableNumber) {
+        return tableLocks.computeIfAbsent(tableNumber, table -> new ReentrantLock());
+    }
+
+    private static TableSession copy(TableSession tableSession) {
+        return TableSession.builder()
+                .id(tableSession.getId())
+                .sessionStart(tableSession.getSessionStart())
+                .sessionEnd(tableSession.getSessionEnd())
+                .tableNumber(tableSession.getTableNumber())
+                .build();
+    }
+}
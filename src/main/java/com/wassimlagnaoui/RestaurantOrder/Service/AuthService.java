@@ -4,63 +4,63 @@ package com.wassimlagnaoui.RestaurantOrder.Service;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.AuthRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.AuthResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.RegisterRequestDTO;
+import com.wassimlagnaoui.RestaurantOrder.Exception.LoginThrottledException;
 import com.wassimlagnaoui.RestaurantOrder.Repository.StaffRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.UserRepository;
 import com.wassimlagnaoui.RestaurantOrder.Security.JwtService;
+import com.wassimlagnaoui.RestaurantOrder.Security.PasswordVerifier;
 import com.wassimlagnaoui.RestaurantOrder.model.Role;
 import com.wassimlagnaoui.RestaurantOrder.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
-    private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final StaffRepository staffRepository;
+    private final PasswordVerifier passwordVerifier;
+    private final MeterRegistry meterRegistry;
 
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
 
-    public AuthResponse login(AuthRequest authRequest){
 
+    /**
+     * Logs a user in with one user lookup and one password hash check.
+     * The check runs on the {@link PasswordVerifier} pool; an unknown email costs the same as a wrong password
+     * and both are reported as bad credentials.
+     * @param authRequest the email and password
+     * @return the issued JWT
+     * @throws BadCredentialsException if the email is unknown or the password does not match
+     * @throws LoginThrottledException if too many logins are already being checked
+     */
+    public AuthResponse login(AuthRequest authRequest){
+        User user = userRepository.findByEmail(authRequest.getEmail()).orElse(null);
 
+        boolean matches;
         try {
-            System.out.println("⏳ Attempting login for: " + authRequest.getEmail());
-
-            System.out.println("🔐 Does encoder match? " +
-                    passwordEncoder.matches(authRequest.getPassword(), userRepository.findByEmail(authRequest.getEmail())
-                            .orElseThrow().getPassword()));
-
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword())
-            );
-
-            System.out.println("✅ Authenticated");
-
-            User user = userRepository.findByEmail(authRequest.getEmail())
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-            String jwtToken = jwtService.generateToken(user);
-
-            return new AuthResponse(jwtToken);
-
-        } catch (Exception ex) {
-            System.out.println(" Login failed: " + ex.getClass().getSimpleName() + " - " + ex.getMessage());
+            matches = passwordVerifier.matches(authRequest.getPassword(), user != null ? user.getPassword() : null);
+        } catch (LoginThrottledException ex) {
+            countLogin("throttled");
             throw ex;
         }
+        if (!matches) {
+            countLogin("bad_credentials");
+            throw new BadCredentialsException("Bad credentials");
+        }
+        accountStatusChecker.check(user);
 
-
-
-
-}
+        countLogin("success");
+        return new AuthResponse(jwtService.generateToken(user));
+    }
 
 
     public AuthResponse register(RegisterRequestDTO request) {
@@ -81,8 +81,6 @@ public class AuthService {
                 .role(Role.ROLE_USER)
                 .build();
 
-        System.out.println("🔐 Password encoded: " + user.getPassword());
-
         userRepository.save(user);
 
         String jwtToken = jwtService.generateToken(user);
@@ -91,4 +89,16 @@ public class AuthService {
 
         return new AuthResponse(jwtToken);
     }
-}
\ No newline at end of file
+
+    /**
+     * Revokes a token until it expires.
+     * @param token the compact JWT to revoke
+     */
+    public void logout(String token) {
+        jwtService.revoke(token);
+    }
+
+    private void countLogin(String outcome) {
+        meterRegistry.counter("auth.login", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,86 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON response body serialized once, kept both as is and gzip-compressed, with a strong ETag per encoding.
+ * Responses of a body that has not changed are a buffer copy, or a 304 when the client already has it.
+ */
+public final class EncodedJson {
+
+    private final long version;
+    private final String etag;
+    private final byte[] json;
+    private final byte[] gzipped;
+
+    private EncodedJson(long version, String etag, byte[] json, byte[] gzipped) {
+        this.version = version;
+        this.etag = etag;
+        this.json = json;
+        this.gzipped = gzipped;
+    }
+
+    /**
+     * Serializes and compresses a body.
+     * @param objectMapper the application's object mapper, so the bytes match what the converters would write
+     * @param body the response body
+     * @param version the version of the data the body was built from
+     * @param tag an opaque tag that changes whenever the body does, without quotes
+     * @return the encoded body
+     */
+    public static EncodedJson of(ObjectMapper objectMapper, Object body, long version, String tag) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response " + tag, e);
+        }
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress response " + tag, e);
+        }
+        return new EncodedJson(version, "\"" + tag + "\"", json, gzipped.toByteArray());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // the two encodings are different representations, so they get different strong ETags
+    public String etag(boolean gzip) {
+        return gzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+    }
+
+    public byte[] body(boolean gzip) {
+        return gzip ? gzipped : json;
+    }
+
+    /**
+     * Whether an If-None-Match header names this body, in either encoding.
+     * @param ifNoneMatch the header value, may be null
+     * @return true if the client already has the current body
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses the weak comparison, so a W/ prefix added by a proxy still matches
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag(false)) || tag.equals(etag(true))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
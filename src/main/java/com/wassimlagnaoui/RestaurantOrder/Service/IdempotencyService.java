@@ -0,0 +1,202 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wassimlagnaoui.RestaurantOrder.Exception.IdempotencyKeyInProgressException;
+import com.wassimlagnaoui.RestaurantOrder.Exception.IdempotencyKeyReusedException;
+import com.wassimlagnaoui.RestaurantOrder.Repository.IdempotencyRecordRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.IdempotencyRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key.
+ * Recent keys live in a bounded, expiring in-memory cache: a retry of a finished request gets the cached response
+ * without touching the database, and a duplicate that arrives while the first is running waits for its result.
+ * The response is also stored in the idempotency_key table, in the same transaction as the request's writes,
+ * so retries after a restart (or on another instance) still get the original response.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Entry> entries;
+    private final Duration waitTimeout;
+    private final Duration retention;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${idempotency.cache-ttl:10m}") Duration cacheTtl,
+                              @Value("${idempotency.wait-timeout:10s}") Duration waitTimeout,
+                              @Value("${idempotency.retention:24h}") Duration retention) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        this.waitTimeout = waitTimeout;
+        this.retention = retention;
+    }
+
+    /**
+     * Runs the action once for the given key, or returns the response of the run that already happened.
+     * @param scope the endpoint the key belongs to, e.g. "POST /orders"
+     * @param key the client supplied Idempotency-Key
+     * @param request the request payload, used to detect a key reused for a different request
+     * @param responseType the type of the response
+     * @param action the request handler; it runs in a transaction that also stores the response
+     * @return the response of the first run
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.asMap().putIfAbsent(id, entry);
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint, fingerprint);
+            return responseType.cast(await(existing));
+        }
+
+        try {
+            T response = runOnce(id, fingerprint, responseType, action);
+            entry.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // let a retry run again; duplicates already waiting get the same failure
+            entries.asMap().remove(id, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the stored responses older than the retention period.
+     */
+    @Transactional
+    @Scheduled(fixedRateString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private <T> T runOnce(String id, String fingerprint, Class<T> responseType, Supplier<T> action) {
+        // finished before a restart, or on another instance
+        Optional<T> stored = findStored(id, fingerprint, responseType);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                T response = action.get();
+                idempotencyRecordRepository.insert(id, fingerprint, write(response), LocalDateTime.now());
+                return response;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // another instance stored the same key first; our writes were rolled back
+            return findStored(id, fingerprint, responseType).orElseThrow(() -> e);
+        }
+    }
+
+    private <T> Optional<T> findStored(String id, String fingerprint, Class<T> responseType) {
+        return idempotencyRecordRepository.findById(id).map(record -> {
+            checkFingerprint(record.getFingerprint(), fingerprint);
+            return read(record, responseType);
+        });
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyKeyReusedException();
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    private <T> T read(IdempotencyRecord record, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(record.getResponseBody().getBytes(StandardCharsets.UTF_8), responseType);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read stored response for " + record.getId(), e);
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Object> response = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
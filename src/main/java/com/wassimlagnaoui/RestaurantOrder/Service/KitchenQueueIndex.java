@@ -0,0 +1,174 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderStatusChangedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Repository.OrderItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the unserved order items, ordered by order date, with lookup by order item id.
+ * Built from the database with one streaming query on startup and kept current by the order events
+ * once their transaction commits. Readers never lock; writers are serialised on the index.
+ */
+@Slf4j
+@Component
+public class KitchenQueueIndex {
+
+    // how long a serve that arrives before the matching placement is remembered
+    private static final Duration EARLY_SERVE_WINDOW = Duration.ofMinutes(1);
+
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentNavigableMap<Key, KitchenOrderQueueResponse> queue = new ConcurrentSkipListMap<>();
+    private final Map<Long, Key> keysByOrderItemId = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> servedBeforeIndexed = new HashMap<>();
+
+    public KitchenQueueIndex(OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager) {
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Replaces the index with the unserved items currently in the database.
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        queue.clear();
+        keysByOrderItemId.clear();
+        servedBeforeIndexed.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<KitchenOrderQueueResponse> items = orderItemRepository.streamKitchenQueue()) {
+                items.forEach(this::put);
+            }
+        });
+        log.info("Kitchen queue index loaded {} unserved items", queue.size());
+    }
+
+    /**
+     * Returns the unserved items, oldest order first.
+     * @return a new list of the queued items, empty when the kitchen is idle
+     */
+    public List<KitchenOrderQueueResponse> items() {
+        return new ArrayList<>(queue.values());
+    }
+
+    public Optional<KitchenOrderQueueResponse> find(Long orderItemId) {
+        Key key = keysByOrderItemId.get(orderItemId);
+        return key == null ? Optional.empty() : Optional.ofNullable(queue.get(key));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the order date of the oldest unserved item.
+     * @return the oldest order date, empty when the kitchen is idle
+     */
+    public Optional<LocalDateTime> oldestOrderDate() {
+        Map.Entry<Key, KitchenOrderQueueResponse> oldest = queue.firstEntry();
+        return oldest == null ? Optional.empty() : Optional.ofNullable(oldest.getKey().orderDate);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderPlaced(OrderPlacedEvent event) {
+        for (KitchenOrderQueueResponse item : event.getItems()) {
+            if (servedBeforeIndexed.remove(item.getOrderItemId()) == null && !item.isServed()) {
+                put(item);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderItemServed(OrderItemServedEvent event) {
+        if (!remove(event.getOrderItemId())) {
+            // the serve committed before the placement reached the index; drop the item when it arrives
+            LocalDateTime now = LocalDateTime.now();
+            servedBeforeIndexed.values().removeIf(servedAt -> servedAt.isBefore(now.minus(EARLY_SERVE_WINDOW)));
+            servedBeforeIndexed.put(event.getOrderItemId(), now);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!OrderStatus.CANCELLED.name().equals(event.getStatus())) {
+            return;
+        }
+        Iterator<KitchenOrderQueueResponse> items = queue.values().iterator();
+        while (items.hasNext()) {
+            KitchenOrderQueueResponse item = items.next();
+            if (Objects.equals(item.getOrderId(), event.getOrderId())) {
+                items.remove();
+                keysByOrderItemId.remove(item.getOrderItemId());
+            }
+        }
+    }
+
+    private void put(KitchenOrderQueueResponse item) {
+        Key key = new Key(item.getOrderDate(), item.getOrderItemId());
+        Key previous = keysByOrderItemId.put(item.getOrderItemId(), key);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        queue.put(key, item);
+    }
+
+    private boolean remove(long orderItemId) {
+        Key key = keysByOrderItemId.remove(orderItemId);
+        return key != null && queue.remove(key) != null;
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator
+                .comparing((Key key) -> key.orderDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(key -> key.orderItemId);
+
+        private final LocalDateTime orderDate;
+        private final long orderItemId;
+
+        private Key(LocalDateTime orderDate, long orderItemId) {
+            this.orderDate = orderDate;
+            this.orderItemId = orderItemId;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && orderItemId == other.orderItemId && Objects.equals(orderDate, other.orderDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderDate, orderItemId);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderStatusChangedEvent;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the kitchen queue to connected screens over Server-Sent Events.
+ * A new subscriber first receives a "snapshot" of every unserved item, then deltas
+ * ("item-added", "item-served", "order-status") as orders commit. Deltas are keyed by orderItemId/orderId
+ * and are safe to apply twice, since a change committed while the snapshot is read can show up in both.
+ * Every client has a bounded buffer drained by a small sender pool: the request thread that placed an order
+ * never waits on a socket, and a client that falls a full buffer behind is disconnected so it can reconnect
+ * and resynchronise from a fresh snapshot.
+ */
+@Slf4j
+@Service
+public class KitchenStreamService {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String ITEM_ADDED = "item-added";
+    public static final String ITEM_SERVED = "item-served";
+    public static final String ORDER_STATUS = "order-status";
+
+    private final OrderService orderService;
+    private final Executor senderExecutor;
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public KitchenStreamService(OrderService orderService,
+                                @Value("${kitchen.stream.buffer-size:256}") int bufferSize,
+                                @Value("${kitchen.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${kitchen.stream.sender-threads:4}") int senderThreads) {
+        this(orderService, Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("kitchen-stream-")), bufferSize, timeoutMs);
+    }
+
+    KitchenStreamService(OrderService orderService, Executor senderExecutor, int bufferSize, long timeoutMs) {
+        this.orderService = orderService;
+        this.senderExecutor = senderExecutor;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Registers a new kitchen screen. The client is registered before the snapshot is read so no delta
+     * committed in between is lost, but it is held back from draining until the snapshot is at the head of its buffer,
+     * so the screen always receives the snapshot before any delta.
+     * @return the emitter bound to the HTTP response
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Client client = new Client(emitter, bufferSize);
+
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> disconnect(client));
+        emitter.onError(error -> disconnect(client));
+
+        // deltas broadcast while the snapshot is read are only buffered: no drain task starts while the flag is set
+        client.draining.set(true);
+        clients.add(client);
+        List<KitchenOrderQueueResponse> snapshot = orderService.getNotServedItems();
+        if (!client.buffer.offerFirst(new Message(SNAPSHOT, snapshot))) {
+            // the deltas filled the buffer before the snapshot was read; the screen reconnects for a fresh one
+            log.warn("Kitchen stream client fell {} events behind before its snapshot, disconnecting", bufferSize);
+            disconnect(client);
+            return emitter;
+        }
+        client.draining.set(false);
+        schedule(client);
+
+        log.debug("Kitchen stream client connected ({} total)", clients.size());
+        return emitter;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (KitchenOrderQueueResponse item : event.getItems()) {
+            broadcast(new Message(ITEM_ADDED, item));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderItemServed(OrderItemServedEvent event) {
+        broadcast(new Message(ITEM_SERVED, event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        broadcast(new Message(ORDER_STATUS, event));
+    }
+
+    /**
+     * Keeps idle connections from being closed by proxies and detects clients that went away.
+     */
+    @Scheduled(fixedRateString = "${kitchen.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        broadcast(Message.HEARTBEAT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Client client : clients) {
+            client.emitter.complete();
+        }
+        clients.clear();
+        if (senderExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void broadcast(Message message) {
+        for (Client client : clients) {
+            if (client.buffer.offerLast(message)) {
+                schedule(client);
+            } else {
+                log.warn("Kitchen stream client fell {} events behind, disconnecting", bufferSize);
+                disconnect(client);
+            }
+        }
+    }
+
+    // at most one drain task per client, so events reach a client in the order they were buffered
+    private void schedule(Client client) {
+        if (client.draining.compareAndSet(false, true)) {
+            try {
+                senderExecutor.execute(() -> drain(client));
+            } catch (RejectedExecutionException e) {
+                client.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Client client) {
+        try {
+            Message message;
+            while ((message = client.buffer.pollFirst()) != null) {
+                if (message == Message.HEARTBEAT) {
+                    client.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    client.emitter.send(SseEmitter.event().name(message.name).data(message.data));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            disconnect(client);
+            return;
+        } finally {
+            client.draining.set(false);
+        }
+        // an event may have been buffered after the last poll but before the flag was cleared
+        if (!client.buffer.isEmpty()) {
+            schedule(client);
+        }
+    }
+
+    private void disconnect(Client client) {
+        if (clients.remove(client)) {
+            client.buffer.clear();
+            client.emitter.complete();
+        }
+    }
+
+    private static final class Client {
+        private final SseEmitter emitter;
+        private final BlockingDeque<Message> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Client(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            // one extra slot so the snapshot always fits in front of buffered deltas
+            this.buffer = new LinkedBlockingDeque<>(bufferSize + 1);
+        }
+    }
+
+    private static final class Message {
+        private static final Message HEARTBEAT = new Message("heartbeat", null);
+
+        private final String name;
+        private final Object data;
+
+        private Message(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Event.MenuItemsChangedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write, versioned in-memory catalog of menu items.
+ * Readers grab the current {@link Snapshot} without locking; writers publish a new snapshot atomically.
+ * Items handed out by a snapshot are shared between threads and must be treated as read-only.
+ */
+@Slf4j
+@Component
+public class MenuCatalog {
+
+    private final MenuItemRepository menuItemRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.of(0L, Collections.emptyList()));
+
+    public MenuCatalog(MenuItemRepository menuItemRepository) {
+        this.menuItemRepository = menuItemRepository;
+    }
+
+    /**
+     * Loads every menu item from the database into a fresh snapshot.
+     */
+    @PostConstruct
+    public void reload() {
+        List<MenuItem> menuItems = menuItemRepository.findAll();
+        Snapshot snapshot = current.updateAndGet(previous -> Snapshot.of(previous.getVersion() + 1, menuItems));
+        log.info("Menu catalog loaded {} items (version {})", snapshot.size(), snapshot.getVersion());
+    }
+
+    /**
+     * Returns the current snapshot. All lookups made on the returned snapshot see the same version of the menu.
+     * @return the current catalog snapshot
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Publishes a new snapshot containing the given menu item, replacing any previous entry with the same id.
+     * @param menuItem the saved menu item
+     */
+    public void publish(MenuItem menuItem) {
+        MenuItem copy = copyOf(menuItem);
+        current.updateAndGet(previous -> previous.with(List.of(copy)));
+    }
+
+    /**
+     * Publishes the items of a bulk menu update as a single new snapshot, so readers see either none or all of them
+     * and the caches keyed on the catalog version are invalidated once.
+     * @param menuItems the saved menu items
+     */
+    public void publishAll(Collection<MenuItem> menuItems) {
+        if (menuItems.isEmpty()) {
+            return;
+        }
+        List<MenuItem> copies = menuItems.stream().map(MenuCatalog::copyOf).toList();
+        current.updateAndGet(previous -> previous.with(copies));
+    }
+
+    /**
+     * Applies a flush of the stock counters to the current snapshot, with the availability rule of the stock update.
+     * Each entry is rebuilt from the current snapshot with only its stock and availability changed, so an edit
+     * published since the counters were read is kept.
+     * <p>
+     * A new version is published only when an item sells out or comes back. The count alone changes with every order,
+     * and a version per flush would re-encode the available menu, change its ETag and re-index the search every second.
+     * Until then the stock of a catalog entry may lag behind the counters, which hold the live count.
+     * @param stock the stock by menu item id; a null stock stops counting the item
+     */
+    public void applyStock(Map<Long, Integer> stock) {
+        current.updateAndGet(previous -> {
+            List<MenuItem> changed = new ArrayList<>();
+            boolean flipped = false;
+            for (Map.Entry<Long, Integer> entry : stock.entrySet()) {
+                MenuItem menuItem = previous.find(entry.getKey()).orElse(null);
+                if (menuItem == null) {
+                    continue;
+                }
+                Integer left = entry.getValue();
+                boolean available = menuItem.isAvailable();
+                if (left != null && left <= 0) {
+                    available = false;
+                } else if (menuItem.getStock() != null && menuItem.getStock() <= 0) {
+                    available = true;
+                }
+                flipped |= available != menuItem.isAvailable();
+                changed.add(menuItem.toBuilder().stock(left).available(available).build());
+            }
+            return flipped ? previous.with(changed) : previous;
+        });
+    }
+
+    // after the commit, so a rolled back bulk update is never visible
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuItemsChanged(MenuItemsChangedEvent event) {
+        publishAll(event.getMenuItems());
+    }
+
+    private static MenuItem copyOf(MenuItem menuItem) {
+        return MenuItem.builder()
+                .id(menuItem.getId())
+                .name(menuItem.getName())
+                .description(menuItem.getDescription())
+                .price(menuItem.getPrice())
+                .imageUrl(menuItem.getImageUrl())
+                .category(menuItem.getCategory())
+                .available(menuItem.isAvailable())
+                .stock(menuItem.getStock())
+                .build();
+    }
+
+    /**
+     * Immutable view of the menu at a given version.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final Map<Long, MenuItem> items;
+
+        private Snapshot(long version, Map<Long, MenuItem> items) {
+            this.version = version;
+            this.items = Collections.unmodifiableMap(items);
+        }
+
+        public static Snapshot of(long version, Collection<MenuItem> menuItems) {
+            Map<Long, MenuItem> items = new HashMap<>();
+            for (MenuItem menuItem : menuItems) {
+                items.put(menuItem.getId(), copyOf(menuItem));
+            }
+            return new Snapshot(version, items);
+        }
+
+        private Snapshot with(Collection<MenuItem> menuItems) {
+            Map<Long, MenuItem> items = new HashMap<>(this.items);
+            for (MenuItem menuItem : menuItems) {
+                items.put(menuItem.getId(), menuItem);
+            }
+            return new Snapshot(version + 1, items);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return items.size();
+        }
+
+        public Optional<MenuItem> find(Long id) {
+            return Optional.ofNullable(items.get(id));
+        }
+
+        public Collection<MenuItem> items() {
+            return items.values();
+        }
+    }
+}
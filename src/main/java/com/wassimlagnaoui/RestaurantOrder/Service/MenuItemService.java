@@ -1,19 +1,33 @@
 package com.wassimlagnaoui.RestaurantOrder.Service;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.BulkMenuUpdateRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.MenuItemChange;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.BulkMenuUpdateResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
+import com.wassimlagnaoui.RestaurantOrder.Event.MenuItemsChangedEvent;
 import com.wassimlagnaoui.RestaurantOrder.Mapper.MenuItemMapper;
 import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
 import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
 import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemIdNotFoundException;
 import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemNotAvailableException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
@@ -24,15 +38,38 @@ import java.util.logging.Logger;
 @Service
 public class MenuItemService {
 
+    // a seasonal menu is a few hundred changes; larger batches would hold the row locks for too long
+    public static final int MAX_BULK_CHANGES = 500;
+
     // Dependency Injection for MenuItemRepository
     private final MenuItemRepository menuItemRepository;
+    private final MenuCatalog menuCatalog;
+    private final MenuSearchIndex menuSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MenuStockCounters menuStockCounters;
+
+    // catalog versions restart at every boot, so the ETags carry the start time to stay unique across restarts and instances
+    private final String etagPrefix = "menu-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private final AtomicReference<EncodedJson> availableMenu = new AtomicReference<>();
 
     /**
      * Constructor for MenuItemService.
      * @param menuItemRepository the repository for menu items
+     * @param menuCatalog the in-memory menu catalog, republished after every write
+     * @param menuSearchIndex the search index over the catalog
+     * @param objectMapper the mapper the available menu is serialized with
+     * @param eventPublisher publishes the items of bulk updates to the catalog once they are committed
+     * @param menuStockCounters the stock of the counted items
      */
-    public MenuItemService(MenuItemRepository menuItemRepository) {
+    public MenuItemService(MenuItemRepository menuItemRepository, MenuCatalog menuCatalog, MenuSearchIndex menuSearchIndex,
+                           ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher, MenuStockCounters menuStockCounters) {
         this.menuItemRepository = menuItemRepository;
+        this.menuCatalog = menuCatalog;
+        this.menuSearchIndex = menuSearchIndex;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.menuStockCounters = menuStockCounters;
     }
 
     /**
@@ -40,6 +77,7 @@ public class MenuItemService {
      * @param id the menu item ID
      * @return MenuItemResponse with menu item details
      */
+    @Transactional(readOnly = true)
     public MenuItemResponse findById(Long id) {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new MenuItemIdNotFoundException(id));
@@ -51,6 +89,7 @@ public class MenuItemService {
      * Retrieves all menu items.
      * @return List of MenuItemResponse for all menu items
      */
+    @Transactional(readOnly = true)
     public List<MenuItemResponse> findAll() {
         List<MenuItem> menuItems = menuItemRepository.findAll();
         List<MenuItemResponse> menuItemResponses = new ArrayList<>();
@@ -62,6 +101,29 @@ public class MenuItemService {
     }
 
 
+    /**
+     * Retrieves one page of the menu in id order, filtered in the database.
+     * The total is a count query with the same filters; the page itself reads one row more than it returns,
+     * only to tell whether there is a next page.
+     * @param after the id of the last item of the previous page, or null for the first page
+     * @param size the number of items per page, at most {@link KeysetPage#MAX_SIZE}
+     * @param category the category to keep, or null for all
+     * @param available the availability to keep, or null for both
+     * @param minPrice the lowest price to keep, or null
+     * @param maxPrice the highest price to keep, or null
+     * @return the page, with the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<MenuItemResponse> getMenuItemPage(Long after, int size, String category, Boolean available, Double minPrice, Double maxPrice) {
+        KeysetPage.checkSize(size);
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        List<MenuItem> menuItems = menuItemRepository.findPage(after == null ? 0L : after, category, available, minPrice, maxPrice, Limit.of(size + 1));
+        long total = menuItemRepository.countPage(category, available, minPrice, maxPrice);
+        return KeysetPage.of(menuItems, size, MenuItem::getId, MenuItemMapper::fromMenuItem, total);
+    }
+
     /**
      * Creates a new menu item.
      * @param menuItemRequest the request DTO for menu item creation
@@ -70,12 +132,83 @@ public class MenuItemService {
     public MenuItemResponse createMenuItem(MenuItemRequest menuItemRequest) {
         MenuItemResponse menuItemResponse = new MenuItemResponse();
 
-        MenuItem menuItem = MenuItemMapper.toMenuItem(menuItemRequest);
-        this.menuItemRepository.save(menuItem);
+        MenuItem menuItem = this.menuItemRepository.save(MenuItemMapper.toMenuItem(menuItemRequest));
+        menuCatalog.publish(menuItem);
 
+        return MenuItemMapper.fromMenuItem(menuItem);
+    }
 
+    /**
+     * Creates and changes many menu items in one transaction.
+     * The items to change are read with a single query, and the inserts and updates are sent in JDBC batches
+     * when the transaction commits. The catalog then publishes a single new version with all the items,
+     * so the cached menu and search index are rebuilt once rather than once per item.
+     * @param request the items to create and the changes to existing items, at most {@link #MAX_BULK_CHANGES} in total
+     * @return the created and the changed menu items
+     */
+    @Transactional
+    public BulkMenuUpdateResponse bulkUpdate(BulkMenuUpdateRequest request) {
+        List<MenuItemRequest> creates = request.getCreate() == null ? List.of() : request.getCreate();
+        List<MenuItemChange> changes = request.getUpdate() == null ? List.of() : request.getUpdate();
+        int size = creates.size() + changes.size();
+        if (size == 0 || size > MAX_BULK_CHANGES) {
+            throw new IllegalArgumentException("A bulk update must contain between 1 and " + MAX_BULK_CHANGES + " changes");
+        }
 
-        return MenuItemMapper.fromMenuItem(menuItem);
+        Map<Long, MenuItemChange> changesById = new LinkedHashMap<>();
+        for (MenuItemChange change : changes) {
+            if (change.getId() == null) {
+                throw new IllegalArgumentException("Every change needs the id of the menu item");
+            }
+            if (changesById.put(change.getId(), change) != null) {
+                throw new IllegalArgumentException("Menu item " + change.getId() + " is changed more than once");
+            }
+        }
+        Map<Long, MenuItem> menuItemsById = new HashMap<>();
+        for (MenuItem menuItem : menuItemRepository.findAllById(changesById.keySet())) {
+            menuItemsById.put(menuItem.getId(), menuItem);
+        }
+
+        List<MenuItem> updated = new ArrayList<>();
+        for (MenuItemChange change : changesById.values()) {
+            MenuItem menuItem = menuItemsById.get(change.getId());
+            if (menuItem == null) {
+                throw new MenuItemIdNotFoundException(change.getId());
+            }
+            apply(change, menuItem);
+            updated.add(menuItem);
+        }
+        List<MenuItem> created = menuItemRepository.saveAll(creates.stream().map(MenuItemMapper::toMenuItem).toList());
+
+        List<MenuItem> menuItems = new ArrayList<>(created);
+        menuItems.addAll(updated);
+        eventPublisher.publishEvent(new MenuItemsChangedEvent(menuItems));
+
+        return new BulkMenuUpdateResponse(
+                created.stream().map(MenuItemMapper::fromMenuItem).toList(),
+                updated.stream().map(MenuItemMapper::fromMenuItem).toList());
+    }
+
+    // the items are managed, so hibernate writes the changed ones when the transaction commits
+    private static void apply(MenuItemChange change, MenuItem menuItem) {
+        if (change.getName() != null) {
+            menuItem.setName(change.getName());
+        }
+        if (change.getDescription() != null) {
+            menuItem.setDescription(change.getDescription());
+        }
+        if (change.getPrice() != null) {
+            menuItem.setPrice(change.getPrice());
+        }
+        if (change.getImageUrl() != null) {
+            menuItem.setImageUrl(change.getImageUrl());
+        }
+        if (change.getCategory() != null) {
+            menuItem.setCategory(change.getCategory());
+        }
+        if (change.getAvailable() != null) {
+            menuItem.setAvailable(change.getAvailable());
+        }
     }
 
     /**
@@ -94,6 +227,7 @@ public class MenuItemService {
         }
 
         menuItemRepository.save(menuItem);
+        menuCatalog.publish(menuItem);
 
         return MenuItemMapper.fromMenuItem(menuItem);
     }
@@ -102,20 +236,42 @@ public class MenuItemService {
 
 
     /**
-     * Retrieves all available menu items.
-     * @return List of MenuItemResponse for available menu items
+     * Returns the available menu items of the current catalog version, serialized and compressed.
+     * The body is built once per version, on the first request after a write, so neither the database
+     * nor the serializer is involved until the menu changes again.
+     * @return the encoded available menu, ordered by id
      */
-    public List<MenuItemResponse> getAvailableMenuItems() {
-        List<MenuItem> menuItems = menuItemRepository.findAll();
-        List<MenuItemResponse> menuItemResponses = new ArrayList<>();
-
-        for (MenuItem menuItem : menuItems) {
-            if (menuItem.isAvailable()) {
-                MenuItemResponse menuItemResponse = MenuItemMapper.fromMenuItem(menuItem);
-                menuItemResponses.add(menuItemResponse);
-            }
+    public EncodedJson getAvailableMenuJson() {
+        MenuCatalog.Snapshot snapshot = menuCatalog.snapshot();
+        EncodedJson encoded = availableMenu.get();
+        if (encoded != null && encoded.getVersion() == snapshot.getVersion()) {
+            return encoded;
         }
-        return menuItemResponses;
+
+        List<MenuItemResponse> menuItemResponses = snapshot.items().stream()
+                .filter(MenuItem::isAvailable)
+                .sorted(Comparator.comparing(MenuItem::getId))
+                .map(MenuItemService::fromCatalog)
+                .toList();
+        EncodedJson built = EncodedJson.of(objectMapper, menuItemResponses, snapshot.getVersion(), etagPrefix + snapshot.getVersion());
+        // a request that read an older snapshot must not replace a newer body
+        availableMenu.accumulateAndGet(built, (current, next) ->
+                current != null && current.getVersion() > next.getVersion() ? current : next);
+        return built;
+    }
+
+    /**
+     * Searches the name, category and description of the menu items, tolerating typos.
+     * Served from the in-memory search index, which picks up every write made through this service.
+     * @param query the text typed so far
+     * @param limit the most items to return
+     * @param availableOnly whether to leave out items that are not available
+     * @return the matching menu items, best match first
+     */
+    public List<MenuItemResponse> searchMenuItems(String query, int limit, boolean availableOnly) {
+        return menuSearchIndex.search(query, limit, availableOnly).stream()
+                .map(MenuItemService::fromCatalog)
+                .toList();
     }
 
     /**
@@ -123,6 +279,7 @@ public class MenuItemService {
      * @param category the category of menu items
      * @return List of MenuItemResponse for menu items in the specified category
      */
+    @Transactional(readOnly = true)
     public List<MenuItemResponse> getMenuItemsByCategory(String category) {
         List<MenuItem> menuItems = menuItemRepository.findByCategory(category);
         List<MenuItemResponse> menuItemResponses = new ArrayList<>();
@@ -140,6 +297,7 @@ public class MenuItemService {
 
         menuItem.setCategory(category);
         menuItemRepository.save(menuItem);
+        menuCatalog.publish(menuItem);
 
         return MenuItemMapper.fromMenuItem(menuItem);
     }
@@ -150,6 +308,7 @@ public class MenuItemService {
 
         menuItem.setPrice(price);
         menuItemRepository.save(menuItem);
+        menuCatalog.publish(menuItem);
 
         return MenuItemMapper.fromMenuItem(menuItem);
     }
@@ -161,7 +320,34 @@ public class MenuItemService {
 
         menuItem.setName(name);
         menuItemRepository.save(menuItem);
+        menuCatalog.publish(menuItem);
 
         return MenuItemMapper.fromMenuItem(menuItem);
     }
+
+    /**
+     * Sets the portions left of a menu item. Orders then take from it, and the item becomes unavailable when it runs out.
+     * @param id the menu item ID
+     * @param stock the portions left, or null to stop counting the item
+     * @return MenuItemResponse with the item as it is now in the catalog and the stock just set
+     */
+    public MenuItemResponse updateStock(Long id, Integer stock) {
+        menuItemRepository.findById(id)
+                .orElseThrow(() -> new MenuItemIdNotFoundException(id));
+        menuStockCounters.restock(id, stock);
+
+        MenuItemResponse menuItemResponse = menuCatalog.snapshot().find(id)
+                .map(MenuItemMapper::fromMenuItem)
+                .orElseThrow(() -> new MenuItemIdNotFoundException(id));
+        menuItemResponse.setStock(stock);
+        return menuItemResponse;
+    }
+
+    // the stock of a catalog entry is only refreshed when an item sells out or comes back, so the responses
+    // built from the catalog leave the count out; it stays in the item read from the database
+    private static MenuItemResponse fromCatalog(MenuItem menuItem) {
+        MenuItemResponse menuItemResponse = MenuItemMapper.fromMenuItem(menuItem);
+        menuItemResponse.setStock(null);
+        return menuItemResponse;
+    }
 }
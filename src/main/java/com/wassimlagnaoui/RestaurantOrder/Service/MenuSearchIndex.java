@@ -0,0 +1,268 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over the name, category and description of the menu items in the {@link MenuCatalog}.
+ * Every word is indexed by its trigrams, padded with a space on both sides, and by its first letter, so a search
+ * matches word prefixes as they are typed and still finds items when a letter is missing, extra or wrong.
+ * Items are ranked by the share of the query's grams they contain, with matches in the name counting most.
+ * <p>
+ * The index follows the catalog: the first search after a write re-indexes only the items whose catalog entry changed,
+ * everything else is shared with the previous index. Searches read an immutable index and never query the database.
+ */
+@Component
+public class MenuSearchIndex {
+
+    public static final int MAX_LIMIT = 50;
+
+    // share of the query's grams an item must contain; one wrong letter in a word of five still passes,
+    // while a short word sharing only its first letters with the query does not
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private static final int NAME = 0;
+    private static final int CATEGORY = 1;
+    private static final int DESCRIPTION = 2;
+    private static final double[] FIELD_WEIGHTS = {1.0, 0.7, 0.5};
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final MenuCatalog menuCatalog;
+
+    private volatile Index index = Index.EMPTY;
+
+    public MenuSearchIndex(MenuCatalog menuCatalog) {
+        this.menuCatalog = menuCatalog;
+    }
+
+    /**
+     * Searches the menu.
+     * @param query the text typed so far; its last word is matched as a prefix unless the query ends with a space
+     * @param limit the most items to return, at most {@link #MAX_LIMIT}
+     * @param availableOnly whether to leave out items that are not available
+     * @return the matching items, best first; empty when the query has no letters or digits
+     */
+    public List<MenuItem> search(String query, int limit, boolean availableOnly) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Search limit must be between 1 and " + MAX_LIMIT);
+        }
+        Set<String> grams = queryGrams(query);
+        if (grams.isEmpty()) {
+            return List.of();
+        }
+
+        Index index = current();
+        Map<Long, Hit> hits = new HashMap<>();
+        for (String gram : grams) {
+            Posting posting = index.postings.get(gram);
+            if (posting == null) {
+                continue;
+            }
+            for (int i = 0; i < posting.ids.length; i++) {
+                Hit hit = hits.computeIfAbsent(posting.ids[i], id -> new Hit());
+                hit.matched++;
+                hit.score += bestWeight(posting.fields[i]);
+            }
+        }
+
+        List<Ranked> ranked = new ArrayList<>();
+        for (Map.Entry<Long, Hit> entry : hits.entrySet()) {
+            Hit hit = entry.getValue();
+            if (hit.matched < MIN_SIMILARITY * grams.size()) {
+                continue;
+            }
+            MenuItem menuItem = index.snapshot.find(entry.getKey()).orElse(null);
+            if (menuItem == null || (availableOnly && !menuItem.isAvailable())) {
+                continue;
+            }
+            ranked.add(new Ranked(menuItem, hit.score / grams.size()));
+        }
+        return ranked.stream()
+                .sorted(Comparator.comparingDouble(Ranked::score).reversed()
+                        .thenComparing(r -> r.menuItem().getName(), Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(r -> r.menuItem().getId()))
+                .limit(limit)
+                .map(Ranked::menuItem)
+                .toList();
+    }
+
+    // brings the index up to the catalog's current snapshot; writers are rare, so they take turns
+    private Index current() {
+        MenuCatalog.Snapshot snapshot = menuCatalog.snapshot();
+        Index index = this.index;
+        if (index.snapshot.getVersion() >= snapshot.getVersion()) {
+            return index;
+        }
+        synchronized (this) {
+            index = this.index;
+            if (index.snapshot.getVersion() < snapshot.getVersion()) {
+                index = index.update(snapshot);
+                this.index = index;
+            }
+            return index;
+        }
+    }
+
+    private static double bestWeight(byte fields) {
+        for (int field = NAME; field <= DESCRIPTION; field++) {
+            if ((fields & (1 << field)) != 0) {
+                return FIELD_WEIGHTS[field];
+            }
+        }
+        return 0;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return NON_WORD.matcher(MARKS.matcher(decomposed).replaceAll("")).replaceAll(" ").toLowerCase(Locale.ROOT).trim();
+    }
+
+    // the grams of every word: its first letter and its trigrams, padded so that the start and the end of a word count
+    private static void addWordGrams(String word, boolean prefix, Set<String> grams) {
+        String padded = " " + word + (prefix ? "" : " ");
+        grams.add(padded.substring(0, 2));
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    private static Set<String> queryGrams(String query) {
+        Set<String> grams = new LinkedHashSet<>();
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return grams;
+        }
+        String[] words = normalized.split(" ");
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+        for (int i = 0; i < words.length; i++) {
+            addWordGrams(words[i], lastIsPrefix && i == words.length - 1, grams);
+        }
+        return grams;
+    }
+
+    private static Map<String, Byte> itemGrams(MenuItem menuItem) {
+        Map<String, Byte> grams = new HashMap<>();
+        String[] fields = {menuItem.getName(), menuItem.getCategory(), menuItem.getDescription()};
+        for (int field = NAME; field <= DESCRIPTION; field++) {
+            String normalized = normalize(fields[field]);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            Set<String> fieldGrams = new HashSet<>();
+            for (String word : normalized.split(" ")) {
+                addWordGrams(word, false, fieldGrams);
+            }
+            byte bit = (byte) (1 << field);
+            for (String gram : fieldGrams) {
+                grams.merge(gram, bit, (a, b) -> (byte) (a | b));
+            }
+        }
+        return grams;
+    }
+
+    private static final class Hit {
+        int matched;
+        double score;
+    }
+
+    private record Ranked(MenuItem menuItem, double score) {
+    }
+
+    // the items containing a gram, by ascending id, with the fields it occurs in as bits
+    private record Posting(long[] ids, byte[] fields) {
+        static final Posting EMPTY = new Posting(new long[0], new byte[0]);
+    }
+
+    /**
+     * Immutable index of one catalog snapshot.
+     */
+    private static final class Index {
+
+        static final Index EMPTY = new Index(MenuCatalog.Snapshot.of(0L, List.of()), Map.of());
+
+        final MenuCatalog.Snapshot snapshot;
+        final Map<String, Posting> postings;
+
+        Index(MenuCatalog.Snapshot snapshot, Map<String, Posting> postings) {
+            this.snapshot = snapshot;
+            this.postings = postings;
+        }
+
+        /**
+         * Indexes a newer snapshot. Snapshots share the entries of unchanged items, so an item is re-indexed only
+         * when its entry is a different object; only the postings of the grams of those items are rebuilt.
+         */
+        Index update(MenuCatalog.Snapshot next) {
+            // gram -> id -> fields, with 0 meaning the id is removed from the posting
+            Map<String, TreeMap<Long, Byte>> edits = new HashMap<>();
+            for (MenuItem previous : snapshot.items()) {
+                MenuItem current = next.find(previous.getId()).orElse(null);
+                if (current != previous) {
+                    itemGrams(previous).keySet().forEach(gram -> edits.computeIfAbsent(gram, g -> new TreeMap<>()).put(previous.getId(), (byte) 0));
+                }
+            }
+            for (MenuItem current : next.items()) {
+                if (snapshot.find(current.getId()).orElse(null) != current) {
+                    itemGrams(current).forEach((gram, fields) -> edits.computeIfAbsent(gram, g -> new TreeMap<>()).put(current.getId(), fields));
+                }
+            }
+
+            Map<String, Posting> postings = new HashMap<>(this.postings);
+            edits.forEach((gram, changes) -> {
+                Posting posting = merge(postings.getOrDefault(gram, Posting.EMPTY), changes);
+                if (posting.ids.length == 0) {
+                    postings.remove(gram);
+                } else {
+                    postings.put(gram, posting);
+                }
+            });
+            return new Index(next, postings);
+        }
+
+        // common grams are in most items, so their postings are merged as arrays rather than rebuilt entry by entry
+        private static Posting merge(Posting posting, TreeMap<Long, Byte> changes) {
+            long[] ids = new long[posting.ids.length + changes.size()];
+            byte[] fields = new byte[ids.length];
+            int size = 0;
+            int i = 0;
+            for (Map.Entry<Long, Byte> change : changes.entrySet()) {
+                long id = change.getKey();
+                while (i < posting.ids.length && posting.ids[i] < id) {
+                    ids[size] = posting.ids[i];
+                    fields[size++] = posting.fields[i++];
+                }
+                if (i < posting.ids.length && posting.ids[i] == id) {
+                    i++;
+                }
+                if (change.getValue() != 0) {
+                    ids[size] = id;
+                    fields[size++] = change.getValue();
+                }
+            }
+            int rest = posting.ids.length - i;
+            System.arraycopy(posting.ids, i, ids, size, rest);
+            System.arraycopy(posting.fields, i, fields, size, rest);
+            size += rest;
+            return new Posting(Arrays.copyOf(ids, size), Arrays.copyOf(fields, size));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Event.StockReservedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemSoldOutException;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemStockJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock of the counted menu items, one lock-free counter per item.
+ * Placing an order takes its quantities with a compare-and-set on each counter, so orders for different dishes
+ * never wait for each other and no menu item row is locked. The counters are the stock while the application runs:
+ * the changed ones are written to the database in one batch every {@code menu.stock.flush-interval-ms}, and on shutdown.
+ * An item that reaches zero is made unavailable by that write, in the database and in the {@link MenuCatalog}.
+ * <p>
+ * Like the active session registry, the counters assume a single application instance.
+ */
+@Slf4j
+@Component
+public class MenuStockCounters {
+
+    private final MenuCatalog menuCatalog;
+    private final MenuItemStockJdbcRepository menuItemStockJdbcRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    // items changed since the last flush; an item taken again during a flush is simply flushed once more
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Long> uncounted = ConcurrentHashMap.newKeySet();
+
+    public MenuStockCounters(MenuCatalog menuCatalog, MenuItemStockJdbcRepository menuItemStockJdbcRepository,
+                             EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager) {
+        this.menuCatalog = menuCatalog;
+        this.menuItemStockJdbcRepository = menuItemStockJdbcRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Loads the counters from the stock of the catalog, which the catalog read from the database at startup.
+     */
+    @PostConstruct
+    public void load() {
+        counters.clear();
+        for (MenuItem menuItem : menuCatalog.snapshot().items()) {
+            if (menuItem.getStock() != null) {
+                counters.put(menuItem.getId(), new AtomicInteger(menuItem.getStock()));
+            }
+        }
+        log.info("Loaded stock counters for {} menu items", counters.size());
+    }
+
+    /**
+     * Takes the quantities of an order, all or nothing. Items that are not counted are left out.
+     * @param quantities the quantity per menu item id
+     * @return the quantities taken, to give back with {@link #release} if the order does not go through
+     * @throws MenuItemSoldOutException if an item has less stock left than asked for; nothing is taken then
+     */
+    public Map<Long, Integer> reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        // id order, so two orders racing for the last portions of the same items fail the same way
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            AtomicInteger counter = counters.get(entry.getKey());
+            if (counter == null) {
+                continue;
+            }
+            int quantity = entry.getValue();
+            int left = counter.get();
+            while (left >= quantity && !counter.compareAndSet(left, left - quantity)) {
+                left = counter.get();
+            }
+            if (left < quantity) {
+                release(reserved);
+                throw new MenuItemSoldOutException(entry.getKey());
+            }
+            reserved.put(entry.getKey(), quantity);
+            dirty.add(entry.getKey());
+        }
+        return reserved;
+    }
+
+    /**
+     * Gives back quantities taken by {@link #reserve}.
+     * @param quantities the quantity per menu item id
+     */
+    public void release(Map<Long, Integer> quantities) {
+        quantities.forEach((id, quantity) -> {
+            AtomicInteger counter = counters.get(id);
+            if (counter != null) {
+                counter.addAndGet(quantity);
+                dirty.add(id);
+            }
+        });
+    }
+
+    // the order's writes were rolled back, so its portions were never sold
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onStockReservedRolledBack(StockReservedEvent event) {
+        release(event.getQuantities());
+    }
+
+    /**
+     * Sets the stock of an item and writes it right away.
+     * @param id the menu item id
+     * @param stock the portions left, or null to stop counting the item
+     */
+    public void restock(Long id, Integer stock) {
+        if (stock != null && stock < 0) {
+            throw new IllegalArgumentException("Stock must not be negative");
+        }
+        if (stock == null) {
+            counters.remove(id);
+            uncounted.add(id);
+        } else {
+            counters.computeIfAbsent(id, key -> new AtomicInteger()).set(stock);
+            uncounted.remove(id);
+        }
+        dirty.add(id);
+        flush();
+    }
+
+    /**
+     * @param id the menu item id
+     * @return the portions left, or empty if the item is not counted
+     */
+    public OptionalInt remaining(Long id) {
+        AtomicInteger counter = counters.get(id);
+        return counter == null ? OptionalInt.empty() : OptionalInt.of(counter.get());
+    }
+
+    /**
+     * Writes the stock of the items changed since the last flush in one batch, then applies it to the catalog,
+     * which publishes a new version only when an item sells out or comes back.
+     */
+    @Scheduled(fixedDelayString = "${menu.stock.flush-interval-ms:1000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Long id : List.copyOf(dirty)) {
+            dirty.remove(id);
+            AtomicInteger counter = counters.get(id);
+            if (counter != null) {
+                stock.put(id, counter.get());
+            } else if (uncounted.remove(id)) {
+                stock.put(id, null);
+            }
+        }
+        if (stock.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> menuItemStockJdbcRepository.updateStock(stock));
+        } catch (RuntimeException e) {
+            // try again on the next flush
+            dirty.addAll(stock.keySet());
+            stock.forEach((id, left) -> {
+                if (left == null) {
+                    uncounted.add(id);
+                }
+            });
+            log.warn("Could not write the stock of {} menu items", stock.size(), e);
+            return;
+        }
+        menuCatalog.applyStock(stock);
+        // the rows changed behind hibernate's back, and so did the cached menu queries over them
+        Cache cache = entityManagerFactory.getCache();
+        stock.keySet().forEach(id -> cache.evict(MenuItem.class, id));
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(MenuItemRepository.QUERY_CACHE_REGION);
+    }
+}
@@ -4,6 +4,10 @@ package com.wassimlagnaoui.RestaurantOrder.Service;
 import com.wassimlagnaoui.RestaurantOrder.DTO.*;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.PlaceOrderRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.*;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderStatusChangedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.StockReservedEvent;
 import com.wassimlagnaoui.RestaurantOrder.Exception.*;
 import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderItemMapper;
 import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderMapper;
@@ -12,13 +16,17 @@ import com.wassimlagnaoui.RestaurantOrder.Repository.OrderItemRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.OrderRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.TableSessionRepository;
 import com.wassimlagnaoui.RestaurantOrder.model.*;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -38,45 +46,71 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MenuItemRepository menuItemRepository;
     private final OrderItemMapper orderItemMapper;
-
-    public OrderService(TableSessionRepository tableSessionRepository, OrderItemRepository orderItemRepository, OrderRepository orderRepository, MenuItemRepository menuItemRepository, OrderItemMapper orderItemMapper) {
+    private final MenuCatalog menuCatalog;
+    private final RevenueRollupService revenueRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KitchenQueueIndex kitchenQueueIndex;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final MenuStockCounters menuStockCounters;
+
+    public OrderService(TableSessionRepository tableSessionRepository, OrderItemRepository orderItemRepository, OrderRepository orderRepository, MenuItemRepository menuItemRepository, OrderItemMapper orderItemMapper, MenuCatalog menuCatalog, RevenueRollupService revenueRollupService, ApplicationEventPublisher eventPublisher, KitchenQueueIndex kitchenQueueIndex, ActiveSessionRegistry activeSessionRegistry, MenuStockCounters menuStockCounters) {
         this.tableSessionRepository = tableSessionRepository;
         this.orderItemRepository = orderItemRepository;
         this.orderRepository = orderRepository;
         this.menuItemRepository = menuItemRepository;
         this.orderItemMapper = orderItemMapper;
+        this.menuCatalog = menuCatalog;
+        this.revenueRollupService = revenueRollupService;
+        this.eventPublisher = eventPublisher;
+        this.kitchenQueueIndex = kitchenQueueIndex;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.menuStockCounters = menuStockCounters;
     }
     // place order new method
     /**
      * Places a new order for a table session.
+     * The session comes from the active session registry and every line is resolved against a single menu catalog
+     * snapshot, so neither the session nor any menu item is loaded from the database.
+     * The stock of counted items is taken from the in-memory counters before anything is written: an order with a
+     * sold-out line is rejected as a whole, and an order that rolls back gives its stock back.
      * @param orderRequest the request DTO containing order details
      * @return PlaceOrderResponse with order details
      */
     @Transactional
+    @Timed(value = "orders.place", histogram = true)
     public PlaceOrderResponse placeOrder(PlaceOrderRequest orderRequest){
-        TableSession tableSession = tableSessionRepository.findActiveTableSessionById(orderRequest.getTableSessionId())
+        TableSession tableSession = activeSessionRegistry.findById(orderRequest.getTableSessionId())
             .orElseThrow(NoActiveTableSessionFoundException::new);
 
         Order order = new Order();
-        order.setStatus(OrderStatus.PLACED.name());
+        order.setStatus(OrderStatus.PLACED);
         order.setTableSession(tableSession);
         order.setOrderDate(LocalDateTime.now());
 
         List<OrderItem> orderItems = new ArrayList<>();
         Double total = 0.0;
 
+        MenuCatalog.Snapshot menu = menuCatalog.snapshot();
+        Map<Long, Integer> quantities = new HashMap<>();
+
         for (OrderItemRequest orderItemRequest: orderRequest.getItems()){
-            MenuItem menuItem = menuItemRepository.findById(orderItemRequest.getMenuItemId())
+            MenuItem menuItem = menu.find(orderItemRequest.getMenuItemId())
                 .orElseThrow(MenuItemNotFoundException::new);
+            if (!menuItem.isAvailable()) {
+                throw new MenuItemNotAvailableException();
+            }
+            quantities.merge(menuItem.getId(), orderItemRequest.getQuantity(), Integer::sum);
 
             OrderItem orderItem = new OrderItem();
 
             orderItem.setServed(false);
             orderItem.setMenuItem(menuItem);
             orderItem.setQuantity(orderItemRequest.getQuantity());
+            orderItem.setUnitPrice(menuItem.getPrice());
+            orderItem.setLineTotal(orderItem.getQuantity() * menuItem.getPrice());
             orderItem.setOrder(order);
 
-            total += orderItem.getQuantity()*orderItem.getMenuItem().getPrice();
+            total += orderItem.getLineTotal();
 
             orderItems.add(orderItem);
 
@@ -85,7 +119,17 @@ public class OrderService {
         order.setItems(orderItems);
         order.setTotal(total);
 
+        Map<Long, Integer> reserved = menuStockCounters.reserve(quantities);
+        if (!reserved.isEmpty()) {
+            eventPublisher.publishEvent(new StockReservedEvent(reserved));
+        }
+
         orderRepository.save(order);
+        tableSessionRepository.addToTotals(tableSession.getId(), 1, orderItems.size(), total);
+        revenueRollupService.recordOrder(order);
+
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), order.getOrderDate(),
+                orderItems.stream().map(OrderItemMapper::toKitchenQueueResponse).toList()));
 
         // forming the response
 
@@ -94,7 +138,7 @@ public class OrderService {
         response.setOrderId(order.getId());
         response.setSessionId(tableSession.getId());
         response.setCreatedAt(order.getOrderDate());
-        response.setStatus(order.getStatus());
+        response.setStatus(order.getStatus().name());
 
         // setting item
         List<OrderItemResponse> itemResponses = new ArrayList<>();
@@ -107,7 +151,8 @@ public class OrderService {
             orderItemResponse.setName(orderItem.getMenuItem().getName());
             orderItemResponse.setQuantity(orderItem.getQuantity());
             orderItemResponse.setServed(orderItem.getServed());
-            orderItemResponse.setTotalPrice(orderItem.getQuantity() * orderItem.getMenuItem().getPrice());
+            orderItemResponse.setUnitPrice(orderItem.getUnitPrice());
+            orderItemResponse.setTotalPrice(orderItem.getLineTotal());
 
             itemResponses.add(orderItemResponse);
         }
@@ -130,14 +175,14 @@ public class OrderService {
      * @return OrderResponse with created order details
      */
     public OrderResponse createOrder(OrderRequest orderRequest) {
-     TableSession tableSession = tableSessionRepository.findActiveTableSessionByTableNumber(orderRequest.getTableSession().getTableNumber()).orElseThrow(NoTableSessionFoundException::new);
+     TableSession tableSession = activeSessionRegistry.findByTableNumber(orderRequest.getTableSession().getTableNumber()).orElseThrow(NoTableSessionFoundException::new);
 
      Order order = new Order();
 
      order.setTableSession(tableSession);
      order.setOrderDate(LocalDateTime.now());
 
-     order.setStatus(orderRequest.getStatus());
+     order.setStatus(OrderMapper.toOrderStatus(orderRequest.getStatus()));
 
 
      // Setting the items to be inserted
@@ -157,12 +202,15 @@ public class OrderService {
         double total=0;
 
         for (OrderItem orderItem: orderItems){
-            total += orderItem.getQuantity()*orderItem.getMenuItem().getPrice();
+            total += orderItem.getLineTotal();
         }
 
         order.setTotal(total);
 
         orderRepository.save(order);
+        if (order.getStatus() != OrderStatus.CANCELLED) {
+            tableSessionRepository.addToTotals(tableSession.getId(), 1, orderItems.size(), total);
+        }
 
         return OrderMapper.fromOrder(order);
 
@@ -175,12 +223,13 @@ public class OrderService {
      * @param id the order ID
      * @return OrderResponse with order details
      */
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id){
-        Order order = orderRepository.findById(id).orElseThrow(OrderNotFoundException::new);
+        Order order = orderRepository.findWithItemsById(id).orElseThrow(OrderNotFoundException::new);
 
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setOrderId(id);
-        orderResponse.setStatus(order.getStatus());
+        orderResponse.setStatus(order.getStatus().name());
         orderResponse.setSessionId(order.getTableSession().getId());
 
         List<OrderItemResponse> items = new ArrayList<>();
@@ -192,8 +241,8 @@ public class OrderService {
          orderItemResponse.setMenuItemId(orderItem.getMenuItem().getId());
          orderItemResponse.setName(orderItem.getMenuItem().getName());
          orderItemResponse.setServed(orderItem.getServed());
-         orderItemResponse.setUnitPrice(orderItem.getMenuItem().getPrice());
-         orderItemResponse.setTotalPrice(orderItem.getMenuItem().getPrice()*orderItem.getQuantity());
+         orderItemResponse.setUnitPrice(orderItem.getUnitPrice());
+         orderItemResponse.setTotalPrice(orderItem.getLineTotal());
 
          return orderItemResponse;
        }).collect(Collectors.toUnmodifiableList());
@@ -210,6 +259,7 @@ public class OrderService {
      * @param sessionId the session ID
      * @return List of OrderResponse for the session
      */
+    @Transactional(readOnly = true)
     public List<OrderResponse> getOrderBySessionId(Long sessionId){
             TableSession tableSession = tableSessionRepository.findById(sessionId).orElseThrow(NoTableSessionFoundException::new);
 
@@ -221,7 +271,7 @@ public class OrderService {
             for (Order order : orders){
                 OrderResponse orderResponse = new OrderResponse();
                 orderResponse.setOrderId(order.getId());
-                orderResponse.setStatus(order.getStatus());
+                orderResponse.setStatus(order.getStatus().name());
                 orderResponse.setSessionId(order.getTableSession().getId());
                 // map items
                 List<OrderItemResponse> itemResponses = new ArrayList<>();
@@ -233,8 +283,8 @@ public class OrderService {
                     orderItemResponse.setMenuItemId(orderItem.getMenuItem().getId());
                     orderItemResponse.setName(orderItem.getMenuItem().getName());
                     orderItemResponse.setServed(orderItem.getServed());
-                    orderItemResponse.setUnitPrice(orderItem.getMenuItem().getPrice());
-                    orderItemResponse.setTotalPrice(orderItem.getMenuItem().getPrice()*orderItem.getQuantity());
+                    orderItemResponse.setUnitPrice(orderItem.getUnitPrice());
+                    orderItemResponse.setTotalPrice(orderItem.getLineTotal());
 
                     itemResponses.add(orderItemResponse);
                 }
@@ -257,6 +307,7 @@ public class OrderService {
      * @param sessionId the session ID
      * @return List of OrderItemResponse for unserved items
      */
+    @Transactional(readOnly = true)
     public List<OrderItemResponse> getUnServedItemsBySession(Long sessionId){
         TableSession tableSession = tableSessionRepository.findById(sessionId).orElseThrow(TableSessionNotFound::new);
 
@@ -272,8 +323,8 @@ public class OrderService {
                     orderItemResponse.setServed(orderItem.getServed());
                     orderItemResponse.setMenuItemId(orderItem.getMenuItem().getId());
                     orderItemResponse.setName(orderItem.getMenuItem().getName());
-                    orderItemResponse.setUnitPrice(orderItem.getMenuItem().getPrice());
-                    orderItemResponse.setTotalPrice(orderItem.getMenuItem().getPrice()*orderItem.getQuantity());
+                    orderItemResponse.setUnitPrice(orderItem.getUnitPrice());
+                    orderItemResponse.setTotalPrice(orderItem.getLineTotal());
                     return orderItemResponse;
                 } )
                 .collect(Collectors.toUnmodifiableList());
@@ -289,6 +340,7 @@ public class OrderService {
      * @param sessionId the session ID
      * @return List of OrderItemResponse for served items
      */
+    @Transactional(readOnly = true)
     public List<OrderItemResponse> getServedItemsBySession(Long sessionId){
         TableSession tableSession = tableSessionRepository.findById(sessionId).orElseThrow(() -> new NoTableSessionFoundException());
 
@@ -304,8 +356,8 @@ public class OrderService {
                     orderItemResponse.setServed(true);
                     orderItemResponse.setMenuItemId(orderItem.getMenuItem().getId());
                     orderItemResponse.setName(orderItem.getMenuItem().getName());
-                    orderItemResponse.setUnitPrice(orderItem.getMenuItem().getPrice());
-                    orderItemResponse.setTotalPrice(orderItem.getMenuItem().getPrice()*orderItem.getQuantity());
+                    orderItemResponse.setUnitPrice(orderItem.getUnitPrice());
+                    orderItemResponse.setTotalPrice(orderItem.getLineTotal());
                     return orderItemResponse;
                 } )
                 .collect(Collectors.toUnmodifiableList());
@@ -322,74 +374,63 @@ public class OrderService {
      * @param id the order ID
      * @return OrderResponse with updated status
      */
+    @Transactional
     public OrderResponse markOrderAsServed(Long id){
-       Order order = orderRepository.findById(id).orElseThrow(OrderNotFoundException::new);
+       Order order = orderRepository.findWithItemsById(id).orElseThrow(OrderNotFoundException::new);
 
-       order.setStatus(OrderStatus.SERVED.name());
+       order.setStatus(OrderStatus.SERVED);
 
        orderRepository.save(order);
+       eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getStatus().name()));
 
        return OrderMapper.fromOrder(order);
 
     }
 
     /**
-     * Retrieves the kitchen queue of all unserved orders.
-     * @return List of OrderResponse for kitchen queue
+     * Cancels an order by its ID and removes it from the session totals and the revenue rollups.
+     * Cancelling an order that is already cancelled has no further effect.
+     * @param id the order ID
+     * @return OrderResponse with updated status
      */
-    public List<OrderResponse> getKitchenQueue(){
-        List<Order> kitchenQueue = orderRepository.findAllUnservedOrder();
-        if (kitchenQueue.isEmpty()){
-            throw new RuntimeException("No pending orders in the Kitchen");
-        }
-
-        List<OrderResponse> orderResponses = new ArrayList<>();
-        for (Order order: kitchenQueue){
-            orderResponses.add(OrderMapper.fromOrder(order));
+    @Transactional
+    public OrderResponse cancelOrder(Long id){
+        Order order = orderRepository.findWithItemsById(id).orElseThrow(OrderNotFoundException::new);
+
+        if (order.getStatus() != OrderStatus.CANCELLED){
+            order.setStatus(OrderStatus.CANCELLED);
+            orderRepository.save(order);
+            tableSessionRepository.addToTotals(order.getTableSession().getId(), -1, -order.getItems().size(), -order.getTotal());
+            revenueRollupService.recordCancellation(order);
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getStatus().name()));
         }
 
-        return orderResponses;
+        return OrderMapper.fromOrder(order);
     }
 
     /**
-     * Retrieves all not served order items for the kitchen.
-     * @return List of KitchenOrderQueueResponse for unserved items
+     * Retrieves all not served order items for the kitchen, oldest order first, from the kitchen queue index.
+     * @return List of KitchenOrderQueueResponse for unserved items, empty when the kitchen is idle
      */
+    @Timed(value = "kitchen.queue.read", histogram = true)
     public List<KitchenOrderQueueResponse> getNotServedItems(){
-        List<OrderItem> unservedOrderItems = orderItemRepository.findUnservedOrderItem();
-        if (unservedOrderItems.isEmpty()){
-            throw new RuntimeException("No pending orders in the Kitchen");
-        }
-
-        List<KitchenOrderQueueResponse> kitchenOrderQueueResponses = new ArrayList<>();
-
-        for (OrderItem orderItem : unservedOrderItems){
-            KitchenOrderQueueResponse kitchenOrderQueueResponse = new KitchenOrderQueueResponse();
-            kitchenOrderQueueResponse.setOrderItemId(orderItem.getId());
-            kitchenOrderQueueResponse.setOrderId(orderItem.getOrder().getId());
-            kitchenOrderQueueResponse.setItemName(orderItem.getMenuItem().getName());
-            kitchenOrderQueueResponse.setTableNumber(orderItem.getOrder().getTableSession().getTableNumber());
-            kitchenOrderQueueResponse.setQuantity(orderItem.getQuantity());
-            kitchenOrderQueueResponse.setServed(orderItem.getServed());
-            kitchenOrderQueueResponses.add(kitchenOrderQueueResponse);
-        }
-
-        return kitchenOrderQueueResponses;
-
+        return kitchenQueueIndex.items();
     }
 
-
     /**
      * Marks an order item as served by its ID.
      * @param orderItemId the order item ID
      * @return MarkOrderItemServedDTO with result message
      */
+    @Transactional
+    @Timed(value = "orders.item.serve", histogram = true)
     public MarkOrderItemServedDTO serveOrderItem(Long orderItemId) {
         OrderItem orderItem = orderItemRepository.findById(orderItemId).orElseThrow(() -> new RuntimeException("OrderItem not found"));
 
         orderItem.setServed(true);
 
         orderItemRepository.save(orderItem);
+        eventPublisher.publishEvent(new OrderItemServedEvent(orderItem.getId(), orderItem.getOrder().getId()));
 
         MarkOrderItemServedDTO response = new MarkOrderItemServedDTO();
 
@@ -405,8 +446,9 @@ public class OrderService {
      * @param id the order ID
      * @return OrderServedStatusDTO with status flags
      */
+    @Transactional(readOnly = true)
     public OrderServedStatusDTO checkStatusOfItemsByOrder(Long id) {
-        Order order = orderRepository.findById(id).orElseThrow(OrderNotFoundException::new);
+        Order order = orderRepository.findWithItemsById(id).orElseThrow(OrderNotFoundException::new);
         OrderServedStatusDTO response = new OrderServedStatusDTO();
 
         Boolean allItemServed = order.getItems().stream()
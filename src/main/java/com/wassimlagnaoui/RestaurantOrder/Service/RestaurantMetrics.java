@@ -0,0 +1,69 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gauges for the state of the floor and the kitchen, and counters of the orders and items going through them.
+ * The gauges read the in-memory kitchen queue and session registry, so a scrape never queries the database;
+ * the counters only count orders that committed. Rates (orders per minute) are left to the monitoring system.
+ */
+@Component
+public class RestaurantMetrics {
+
+    private final KitchenQueueIndex kitchenQueueIndex;
+    private final Counter ordersPlaced;
+    private final Counter itemsPlaced;
+    private final Counter itemsServed;
+
+    public RestaurantMetrics(MeterRegistry meterRegistry, KitchenQueueIndex kitchenQueueIndex, ActiveSessionRegistry activeSessionRegistry) {
+        this.kitchenQueueIndex = kitchenQueueIndex;
+
+        Gauge.builder("kitchen.queue.depth", kitchenQueueIndex, KitchenQueueIndex::size)
+                .description("Order items waiting to be served")
+                .register(meterRegistry);
+        TimeGauge.builder("kitchen.queue.oldest.age", this, TimeUnit.SECONDS, RestaurantMetrics::oldestUnservedAgeSeconds)
+                .description("How long the oldest unserved order item has been waiting, zero when the kitchen is idle")
+                .register(meterRegistry);
+        Gauge.builder("sessions.active", activeSessionRegistry, ActiveSessionRegistry::size)
+                .description("Tables currently seated")
+                .register(meterRegistry);
+
+        this.ordersPlaced = Counter.builder("orders.placed")
+                .description("Orders placed")
+                .register(meterRegistry);
+        this.itemsPlaced = Counter.builder("orders.items.placed")
+                .description("Order items placed")
+                .register(meterRegistry);
+        this.itemsServed = Counter.builder("orders.items.served")
+                .description("Order items served")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        ordersPlaced.increment();
+        itemsPlaced.increment(event.getItems().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderItemServed(OrderItemServedEvent event) {
+        itemsServed.increment();
+    }
+
+    private double oldestUnservedAgeSeconds() {
+        return kitchenQueueIndex.oldestOrderDate()
+                .map(orderDate -> Math.max(0, Duration.between(orderDate, LocalDateTime.now()).toMillis() / 1000.0))
+                .orElse(0.0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.RollupRebuildResponse;
+import com.wassimlagnaoui.RestaurantOrder.Repository.DailyRevenueRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemDailyRevenueRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.RevenueRollupJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.DailyRevenue;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItemDailyRevenue;
+import com.wassimlagnaoui.RestaurantOrder.model.Order;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Maintains the daily revenue rollup tables read by the stats endpoints.
+ * Orders are added (and cancellations subtracted) in the caller's transaction;
+ * a rebuild recomputes a date range from the order history in parallel chunks.
+ */
+@Slf4j
+@Service
+public class RevenueRollupService {
+
+    private final DailyRevenueRepository dailyRevenueRepository;
+    private final MenuItemDailyRevenueRepository menuItemDailyRevenueRepository;
+    private final RevenueRollupJdbcRepository revenueRollupJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${stats.rollup.rebuild-threads:4}")
+    private int rebuildThreads = 4;
+
+    @Value("${stats.rollup.rebuild-chunk-days:31}")
+    private int rebuildChunkDays = 31;
+
+    public RevenueRollupService(DailyRevenueRepository dailyRevenueRepository, MenuItemDailyRevenueRepository menuItemDailyRevenueRepository, RevenueRollupJdbcRepository revenueRollupJdbcRepository, PlatformTransactionManager transactionManager) {
+        this.dailyRevenueRepository = dailyRevenueRepository;
+        this.menuItemDailyRevenueRepository = menuItemDailyRevenueRepository;
+        this.revenueRollupJdbcRepository = revenueRollupJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Adds a newly placed order to the rollups. Must run in the transaction that saves the order.
+     * @param order the saved order
+     */
+    @Transactional
+    public void recordOrder(Order order) {
+        apply(order, 1);
+    }
+
+    /**
+     * Subtracts a cancelled order from the rollups. Must run in the transaction that cancels the order.
+     * @param order the cancelled order
+     */
+    @Transactional
+    public void recordCancellation(Order order) {
+        apply(order, -1);
+    }
+
+    private void apply(Order order, int sign) {
+        LocalDate day = order.getOrderDate().toLocalDate();
+
+        // aggregate per menu item first; the TreeMap keeps row updates in id order so concurrent orders cannot deadlock
+        Map<Long, double[]> perMenuItem = new TreeMap<>();
+        long quantity = 0;
+        double revenue = 0;
+        for (OrderItem orderItem : order.getItems()) {
+            double lineTotal = orderItem.getLineTotal();
+            double[] counters = perMenuItem.computeIfAbsent(orderItem.getMenuItem().getId(), id -> new double[2]);
+            counters[0] += lineTotal;
+            counters[1] += orderItem.getQuantity();
+            quantity += orderItem.getQuantity();
+            revenue += lineTotal;
+        }
+
+        List<MenuItemDailyRevenue> menuItemDeltas = new ArrayList<>();
+        for (Map.Entry<Long, double[]> entry : perMenuItem.entrySet()) {
+            double[] counters = entry.getValue();
+            menuItemDeltas.add(new MenuItemDailyRevenue(day, entry.getKey(), sign * counters[0], sign * (long) counters[1], (long) sign));
+        }
+
+        revenueRollupJdbcRepository.increment(new DailyRevenue(day, sign * revenue, sign * quantity, (long) sign), menuItemDeltas);
+    }
+
+    /**
+     * Recomputes the rollups for the days in [from, to] from the order history.
+     * The range is split into chunks of days that are rebuilt in parallel, each in its own transaction.
+     * @param from the first day to rebuild
+     * @param to the last day to rebuild (inclusive)
+     * @return RollupRebuildResponse with the number of chunks and rows written
+     */
+    public RollupRebuildResponse rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Rebuild range end " + to + " is before start " + from);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            List<Future<long[]>> chunks = new ArrayList<>();
+            LocalDate end = to.plusDays(1);
+            for (LocalDate start = from; start.isBefore(end); start = start.plusDays(rebuildChunkDays)) {
+                LocalDate chunkStart = start;
+                LocalDate chunkEnd = start.plusDays(rebuildChunkDays).isBefore(end) ? start.plusDays(rebuildChunkDays) : end;
+                chunks.add(executor.submit(() -> transactionTemplate.execute(status -> rebuildChunk(chunkStart, chunkEnd))));
+            }
+
+            long dayRows = 0;
+            long menuItemRows = 0;
+            for (Future<long[]> chunk : chunks) {
+                long[] rows = chunk.get();
+                dayRows += rows[0];
+                menuItemRows += rows[1];
+            }
+            log.info("Rebuilt revenue rollups {}..{} in {} chunks ({} day rows, {} menu item rows)", from, to, chunks.size(), dayRows, menuItemRows);
+            return new RollupRebuildResponse(from, to, chunks.size(), dayRows, menuItemRows);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Revenue rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Revenue rollup rebuild failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // rebuilds the days in [from, to)
+    private long[] rebuildChunk(LocalDate from, LocalDate to) {
+        dailyRevenueRepository.deleteRange(from, to);
+        menuItemDailyRevenueRepository.deleteRange(from, to);
+
+        long dayRows = dailyRevenueRepository.rebuildRange(from.atStartOfDay(), to.atStartOfDay());
+        long menuItemRows = menuItemDailyRevenueRepository.rebuildRange(from.atStartOfDay(), to.atStartOfDay());
+        return new long[]{dayRows, menuItemRows};
+    }
+}
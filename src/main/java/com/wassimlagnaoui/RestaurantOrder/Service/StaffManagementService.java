@@ -1,11 +1,14 @@
 package com.wassimlagnaoui.RestaurantOrder.Service;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.AddStaffDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.staffAddedResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.StaffInfoDTO;
 import com.wassimlagnaoui.RestaurantOrder.Repository.StaffRepository;
 import com.wassimlagnaoui.RestaurantOrder.model.Staff;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -35,13 +38,25 @@ public class StaffManagementService {
 
     public List<StaffInfoDTO> getAllStaff() {
         return staffRepository.findAll().stream()
-                .map(staff -> new StaffInfoDTO(
-                        staff.getFirstName(),
-                        staff.getLastName(),
-                        staff.getEmail(),
-                        staff.getEmployeeId(),
-                        staff.getRole()
-                ))
+                .map(StaffManagementService::toStaffInfo)
                 .collect(Collectors.toList());
     }
+
+    // one page of the staff in id order; after is the last id of the previous page, null for the first page
+    @Transactional(readOnly = true)
+    public KeysetPage<StaffInfoDTO> getStaffPage(Long after, int size) {
+        KeysetPage.checkSize(size);
+        List<Staff> staff = staffRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(size + 1));
+        return KeysetPage.of(staff, size, Staff::getId, StaffManagementService::toStaffInfo, staffRepository.count());
+    }
+
+    private static StaffInfoDTO toStaffInfo(Staff staff) {
+        return new StaffInfoDTO(
+                staff.getFirstName(),
+                staff.getLastName(),
+                staff.getEmail(),
+                staff.getEmployeeId(),
+                staff.getRole()
+        );
+    }
 }
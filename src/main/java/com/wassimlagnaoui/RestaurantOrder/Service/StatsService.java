@@ -1,25 +1,37 @@
 package com.wassimlagnaoui.RestaurantOrder.Service;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.MostOrderedItemDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.RevenueByMenuItemDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.TableSessionAverageRevenueByDate;
+import com.wassimlagnaoui.RestaurantOrder.Repository.DailyRevenueRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemDailyRevenueRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.OrderItemRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.TableSessionRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.DailyRevenue;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "stats.query", histogram = true) // every method, tagged with its name
 public class StatsService {
     private final OrderItemRepository orderItemRepository;
     private final TableSessionRepository tableSessionRepository;
     private final MenuItemRepository   menuItemRepository;
+    private final DailyRevenueRepository dailyRevenueRepository;
+    private final MenuItemDailyRevenueRepository menuItemDailyRevenueRepository;
 
-    public StatsService(OrderItemRepository orderItemRepository, TableSessionRepository tableSessionRepository, MenuItemRepository menuItemRepository) {
+    public StatsService(OrderItemRepository orderItemRepository, TableSessionRepository tableSessionRepository, MenuItemRepository menuItemRepository, DailyRevenueRepository dailyRevenueRepository, MenuItemDailyRevenueRepository menuItemDailyRevenueRepository) {
         this.orderItemRepository = orderItemRepository;
         this.tableSessionRepository = tableSessionRepository;
         this.menuItemRepository = menuItemRepository;
+        this.dailyRevenueRepository = dailyRevenueRepository;
+        this.menuItemDailyRevenueRepository = menuItemDailyRevenueRepository;
     }
 
     // find most ordered items
@@ -37,69 +49,38 @@ public class StatsService {
 
     /**
      * Calculates the total revenue per date.
-     * This method retrieves all unique dates from table sessions and calculates the total revenue for each date.
+     * The totals are read from the daily revenue rollup, which holds one row per day.
      *
      * @return a HashMap where the key is the date (formatted as "yyyy-MM-dd") and the value is the total revenue for that date.
      */
+    @Transactional(readOnly = true)
     public HashMap<String, Double> getTotalRevenueByDate() {
-        // Initialize a HashMap to store the total revenue per date
         HashMap<String, Double> totalRevenuePerDate = new HashMap<>();
 
-        // Fetch all table sessions by date formatted as "yyyy-MM-dd"
-        List<String> dates = tableSessionRepository.findAllDates();
-        for (String date : dates) {
-            // Calculate the total revenue for each date
-            Double totalRevenue = calculateTotalRevenueByDate(date);
-            // Store the result in the HashMap
-            totalRevenuePerDate.put(date, totalRevenue);
+        for (DailyRevenue dailyRevenue : dailyRevenueRepository.findAllOrderByDate()) {
+            totalRevenuePerDate.put(dailyRevenue.getRevenueDate().toString(), dailyRevenue.getRevenue());
         }
         return totalRevenuePerDate;
-
-    }
-
-    private Double calculateTotalRevenueByDate(String date) {
-    // Calculate the total revenue for a specific date
-        return orderItemRepository.findAll().stream()
-                .filter(orderItem -> orderItem.getOrder().getOrderDate().toLocalDate().toString().equals(date))
-                .mapToDouble(orderItem -> orderItem.getMenuItem().getPrice() * orderItem.getQuantity())
-                .sum();
     }
 
 
     /**
      * Calculates the total revenue by menu item.
-     * This method retrieves all menu items and calculates the total revenue for each item based on the order items.
+     * The totals are summed per menu item id from the daily menu item rollup; items that were never ordered report zero.
      *
      * @return a HashMap where the key is the menu item name and the value is the total revenue generated by that item.
      */
-
+    @Transactional(readOnly = true)
     public HashMap<String, Double> getTotalRevenueByMenuItem() {
-        // Initialize a HashMap to store the total revenue per menu item
         HashMap<String, Double> totalRevenueByMenuItem = new HashMap<>();
 
-        // Fetch all menu items
-        List<String> menuItems = menuItemRepository.findAll().stream()
-                .map(item -> item.getName())
-                .toList();
-
-        for (String menuItem : menuItems) {
-            // Calculate the total revenue for each menu item
-            Double totalRevenue = calculateTotalRevenueByMenuItem(menuItem);
-            // Store the result in the HashMap
-            totalRevenueByMenuItem.put(menuItem, totalRevenue);
+        try (Stream<RevenueByMenuItemDTO> rows = menuItemDailyRevenueRepository.streamRevenueByMenuItem()) {
+            // items sharing a name are merged, as the response is keyed by name
+            rows.forEach(row -> totalRevenueByMenuItem.merge(row.getName(), row.getRevenue(), Double::sum));
         }
         return totalRevenueByMenuItem;
     }
 
-
-    private Double calculateTotalRevenueByMenuItem(String menuItemName) {
-        // Calculate the total revenue for a specific menu item
-        return orderItemRepository.findAll().stream()
-                .filter(orderItem -> orderItem.getMenuItem().getName().equals(menuItemName))
-                .mapToDouble( orderItem-> orderItem.getMenuItem().getPrice()*orderItem.getQuantity() )
-                .sum();
-    }
-
   /*
     Retrieves the average total revenue by table session grouped by date.
     This method uses a custom query to fetch the average total revenue for each table session, grouped by the date of the session start.
@@ -3,24 +3,29 @@ package com.wassimlagnaoui.RestaurantOrder.Service;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.ItemSummaryDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.StartSessionDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.SessionItemRow;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.EndSessionResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.SessionSummary;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.StartSessionResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.TableSessionResponse;
-import com.wassimlagnaoui.RestaurantOrder.Exception.ActiveSessionExistsException;
 import com.wassimlagnaoui.RestaurantOrder.Exception.NoActiveSessionsFoundExceptions;
 import com.wassimlagnaoui.RestaurantOrder.Exception.TableSessionNotFound;
 import com.wassimlagnaoui.RestaurantOrder.Exception.NoActiveTableSessionFoundException;
 import com.wassimlagnaoui.RestaurantOrder.Mapper.TableSessionMapper;
 import com.wassimlagnaoui.RestaurantOrder.Repository.TableSessionRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
 import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Date;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -31,14 +36,17 @@ import java.util.stream.Collectors;
 public class TableSessionService {
 
     private final TableSessionRepository tableSessionRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
 
     /**
      * Constructor for TableSessionService.
      *
      * @param tableSessionRepository the repository for table sessions
+     * @param activeSessionRegistry the in-memory registry of active sessions
      */
-    public TableSessionService(TableSessionRepository tableSessionRepository) {
+    public TableSessionService(TableSessionRepository tableSessionRepository, ActiveSessionRegistry activeSessionRegistry) {
         this.tableSessionRepository = tableSessionRepository;
+        this.activeSessionRegistry = activeSessionRegistry;
     }
 
     /**
@@ -48,18 +56,8 @@ public class TableSessionService {
      * @return StartSessionResponse containing session details
      */
     public StartSessionResponse startSession(StartSessionDTO startSessionDTO) {
-        // check if the session is active for this table
-        Optional<TableSession> tableSession = tableSessionRepository.findActiveTableSessionByTableNumber(startSessionDTO.getTableNumber());
-        if (tableSession.isPresent()) {
-            throw new ActiveSessionExistsException("There is already an active session for this table: " + startSessionDTO.getTableNumber());
-        }
-
-        TableSession newTableSession = new TableSession();
-        newTableSession.setSessionStart(LocalDateTime.now());
-        newTableSession.setTableNumber(startSessionDTO.getTableNumber());
-
-
-        tableSessionRepository.save(newTableSession);
+        // the registry checks for an active session and saves the new one atomically for this table
+        TableSession newTableSession = activeSessionRegistry.open(startSessionDTO.getTableNumber());
 
         // form the response object
         StartSessionResponse response = new StartSessionResponse();
@@ -79,6 +77,7 @@ public class TableSessionService {
      * @param id the session ID
      * @return TableSessionResponse containing session details
      */
+    @Transactional(readOnly = true)
     public TableSessionResponse getSessionById(Long id) {
         TableSession tableSession = tableSessionRepository.findById(id).orElseThrow(TableSessionNotFound::new);
         return TableSessionMapper.fromTableSession(tableSession);
@@ -91,7 +90,7 @@ public class TableSessionService {
      * @return List of TableSessionResponse for active sessions
      */
     public List<TableSessionResponse> getActiveTableSessions() {
-        List<TableSession> tableSessions = tableSessionRepository.findActiveTableSession();
+        List<TableSession> tableSessions = activeSessionRegistry.sessions();
         if (tableSessions.isEmpty()) {
             throw new NoActiveSessionsFoundExceptions("No active table sessions found");
         }
@@ -103,6 +102,25 @@ public class TableSessionService {
         return tableSessionResponses;
     }
 
+    /**
+     * Retrieves one page of the active table sessions in id order.
+     * The sessions come from the in-memory registry, so neither the page nor the total queries the database.
+     *
+     * @param after the id of the last session of the previous page, or null for the first page
+     * @param size the number of sessions per page
+     * @return the page, empty when no table is seated
+     */
+    public KeysetPage<TableSessionResponse> getActiveTableSessionPage(Long after, int size) {
+        KeysetPage.checkSize(size);
+        long from = after == null ? 0L : after;
+        List<TableSession> tableSessions = activeSessionRegistry.sessions().stream()
+                .filter(tableSession -> tableSession.getId() > from)
+                .sorted(Comparator.comparing(TableSession::getId))
+                .limit(size + 1L)
+                .toList();
+        return KeysetPage.of(tableSessions, size, TableSession::getId, TableSessionMapper::fromTableSession, activeSessionRegistry.size());
+    }
+
     /**
      * Ends the active session for a given table number.
      *
@@ -110,9 +128,7 @@ public class TableSessionService {
      * @return EndSessionResponse with end session details
      */
     public EndSessionResponse endSession(String tableNumber) {
-        TableSession tableSession = tableSessionRepository.findActiveTableSessionByTableNumber(tableNumber).orElseThrow(() -> new NoActiveTableSessionFoundException());
-        tableSession.setSessionEnd(LocalDateTime.now());
-        tableSessionRepository.save(tableSession);
+        TableSession tableSession = activeSessionRegistry.close(tableNumber);
 
         EndSessionResponse response = new EndSessionResponse();
         response.setMessage("Session ended successfully");
@@ -125,25 +141,30 @@ public class TableSessionService {
     }
 
     /**
-     * Gets a summary of all items ordered in a session.
+     * Gets a summary of all items ordered in a session. Cancelled orders are left out, as at checkout.
      *
      * @param id the session ID
      * @return List of ItemSummaryDTO summarizing ordered items
      */
+    @Transactional(readOnly = true)
     public List<ItemSummaryDTO> getItemSummaryForSession(Long id) {
-        TableSession tableSession = tableSessionRepository.findById(id).orElseThrow(TableSessionNotFound::new);
+        TableSession tableSession = tableSessionRepository.findWithOrdersById(id).orElseThrow(TableSessionNotFound::new);
+        return toItemSummaries(tableSession);
+    }
 
+    private static List<ItemSummaryDTO> toItemSummaries(TableSession tableSession) {
         return tableSession.getOrders().stream()
+                .filter(order -> order.getStatus() != OrderStatus.CANCELLED)
                 .flatMap(order -> order.getItems().stream())
                 .map(orderItem -> {
 
                     ItemSummaryDTO itemSummaryDTO = new ItemSummaryDTO();
-                    itemSummaryDTO.setOrderId(orderItem.getId());
+                    itemSummaryDTO.setOrderId(orderItem.getOrder().getId());
                     itemSummaryDTO.setItemId(orderItem.getId());
                     itemSummaryDTO.setItemName(orderItem.getMenuItem().getName());
                     itemSummaryDTO.setTotalQuantity(orderItem.getQuantity());
                     itemSummaryDTO.setServed(orderItem.getServed());
-                    itemSummaryDTO.setTotalPrice(orderItem.getMenuItem().getPrice() * orderItem.getQuantity());
+                    itemSummaryDTO.setTotalPrice(orderItem.getLineTotal());
                     return itemSummaryDTO;
                 }).collect(Collectors.toUnmodifiableList());
 
@@ -155,8 +176,9 @@ public class TableSessionService {
      * @param id the session ID
      * @return List of item names
      */
+    @Transactional(readOnly = true)
     public List<String> getAllOrderedItemNames(Long id) {
-        TableSession tableSession = tableSessionRepository.findById(id).orElseThrow(TableSessionNotFound::new);
+        TableSession tableSession = tableSessionRepository.findWithOrdersById(id).orElseThrow(TableSessionNotFound::new);
 
         return tableSession.getOrders().stream()
                 .flatMap(order -> order.getItems().stream())
@@ -171,7 +193,7 @@ public class TableSessionService {
      * @return TableSessionResponse with session details
      */
     public TableSessionResponse findActiveSessionByTableNumber(String tableNumber) {
-        TableSession tableSession = tableSessionRepository.findActiveTableSessionByTableNumber(tableNumber).orElseThrow(NoActiveTableSessionFoundException::new);
+        TableSession tableSession = activeSessionRegistry.findByTableNumber(tableNumber).orElseThrow(NoActiveTableSessionFoundException::new);
 
 
         TableSessionResponse tableSessionResponse = new TableSessionResponse();
@@ -185,64 +207,81 @@ public class TableSessionService {
 
     /**
      * This method is used to get the session summary for checkout.
-     * It returns a SessionSummary object containing the session details, total orders, total items ordered, and total amount.
+     * The totals are the running totals kept on the session, and the item lines come from a single projection query,
+     * so the cost does not grow with the number of orders. Cancelled orders are left out of both.
      *
      * @param sessionId the ID of the session
      * @return SessionSummary object containing session details
      */
 
+    @Transactional(readOnly = true)
     public SessionSummary getSessionSummaryForCheckout(Long sessionId) {
         TableSession tableSession = tableSessionRepository.findById(sessionId).orElseThrow(TableSessionNotFound::new);
 
         SessionSummary sessionSummary = new SessionSummary();
         sessionSummary.setSessionId(tableSession.getId());
         sessionSummary.setTableNumber(tableSession.getTableNumber());
-        sessionSummary.setTotalOrders(tableSession.getOrders().stream().count());
-
-        sessionSummary.setTotalItemOrdered(tableSession.getOrders().stream().flatMap(order -> order.getItems().stream()).count());
-
-        Double totalAmount = 0.0;
-
-        List<ItemSummaryDTO> itemsList = getItemSummaryForSession(tableSession.getId());
-
-        for (ItemSummaryDTO item : itemsList) {
-            totalAmount = totalAmount + item.getTotalPrice();
-        }
-
-        sessionSummary.setTotalAmont(totalAmount);
-        sessionSummary.setItems(itemsList);
-
+        sessionSummary.setTotalOrders(tableSession.getOrderCount());
+        sessionSummary.setTotalItemOrdered(tableSession.getItemCount());
+        sessionSummary.setTotalAmont(tableSession.getTotalAmount());
+        sessionSummary.setItems(tableSessionRepository.findCheckoutItems(sessionId));
 
         return sessionSummary;
 
     }
 
+    /**
+     * Builds the summaries of all sessions started on a given day.
+     * Sessions, orders and items come from a single query and are folded into summaries in one pass.
+     * Cancelled orders are left out, as at checkout.
+     *
+     * @param date the day, formatted as "yyyy-MM-dd"
+     * @return List of SessionSummary, one per session started that day
+     */
+    @Transactional(readOnly = true)
     public List<SessionSummary> getAllSessionByDate(String date) {
-        List<TableSession> tableSessions = tableSessionRepository.findSessionsByDate(date);
-        if (tableSessions.isEmpty()) {
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date " + date + ", expected yyyy-MM-dd");
+        }
+        List<SessionItemRow> rows = tableSessionRepository.findSessionItemRows(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        if (rows.isEmpty()) {
             throw new TableSessionNotFound();
         }
-        List<SessionSummary> sessionSummaries = new ArrayList<>();
-        sessionSummaries = tableSessions.stream().map(tableSession -> {
-            SessionSummary sessionSummary = new SessionSummary();
-            sessionSummary.setSessionId(tableSession.getId());
-            sessionSummary.setTableNumber(tableSession.getTableNumber());
-            sessionSummary.setTotalOrders(tableSession.getOrders().stream().count());
-            sessionSummary.setTotalItemOrdered(tableSession.getOrders().stream().flatMap(order -> order.getItems().stream()).count());
-
-            Double totalAmount = 0.0;
 
-            List<ItemSummaryDTO> itemsList = getItemSummaryForSession(tableSession.getId());
-
-            for (ItemSummaryDTO item : itemsList) {
-                totalAmount = totalAmount + item.getTotalPrice();
+        // rows are ordered by session, then order, so a session's rows are contiguous
+        List<SessionSummary> sessionSummaries = new ArrayList<>();
+        SessionSummary sessionSummary = null;
+        Long lastOrderId = null;
+        for (SessionItemRow row : rows) {
+            if (sessionSummary == null || !sessionSummary.getSessionId().equals(row.getSessionId())) {
+                sessionSummary = new SessionSummary(row.getSessionId(), row.getTableNumber(), 0L, 0L, 0.0, new ArrayList<>());
+                sessionSummaries.add(sessionSummary);
+                lastOrderId = null;
+            }
+            if (row.getOrderId() != null && !row.getOrderId().equals(lastOrderId)) {
+                sessionSummary.setTotalOrders(sessionSummary.getTotalOrders() + 1);
+                lastOrderId = row.getOrderId();
+            }
+            if (row.getOrderItemId() == null) {
+                continue;
             }
 
-            sessionSummary.setTotalAmont(totalAmount);
-            sessionSummary.setItems(itemsList);
-
-            return sessionSummary;
-        }).collect(Collectors.toList());
+            ItemSummaryDTO itemSummaryDTO = new ItemSummaryDTO();
+            itemSummaryDTO.setOrderId(row.getOrderId());
+            itemSummaryDTO.setItemId(row.getOrderItemId());
+            itemSummaryDTO.setItemName(row.getItemName());
+            itemSummaryDTO.setTotalQuantity(row.getQuantity());
+            itemSummaryDTO.setServed(row.getServed());
+            itemSummaryDTO.setTotalPrice(row.getLineTotal());
+
+            sessionSummary.getItems().add(itemSummaryDTO);
+            sessionSummary.setTotalItemOrdered(sessionSummary.getTotalItemOrdered() + 1);
+            // lines placed before prices were snapshotted have no total when their menu item had no price
+            sessionSummary.setTotalAmont(sessionSummary.getTotalAmont() + (row.getLineTotal() == null ? 0.0 : row.getLineTotal()));
+        }
 
         return sessionSummaries;
     }
@@ -0,0 +1,29 @@
+package com.wassimlagnaoui.RestaurantOrder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Revenue rollup for one day, kept up to date by order placement and cancellation.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "daily_revenue")
+public class DailyRevenue {
+
+    @Id
+    private LocalDate revenueDate;
+
+    private Double revenue;
+
+    private Long quantity;
+
+    private Long orderCount;
+
+}
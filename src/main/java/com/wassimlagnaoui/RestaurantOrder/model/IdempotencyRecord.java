@@ -0,0 +1,39 @@
+package com.wassimlagnaoui.RestaurantOrder.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a request made with an Idempotency-Key, kept so a retry gets the original response back.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_key")
+public class IdempotencyRecord {
+
+    // endpoint scope and client key, e.g. "POST /orders:3f2b..."
+    @Id
+    private String id;
+
+    // hash of the request, to reject a key reused for a different request
+    @Column(nullable = false)
+    private String fingerprint;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(nullable = false)
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
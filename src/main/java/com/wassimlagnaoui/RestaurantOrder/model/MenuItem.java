@@ -3,19 +3,31 @@ package com.wassimlagnaoui.RestaurantOrder.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Table(name = "menu_Item")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "menu-items") // rows change a few times a day; see application.conf
+@BatchSize(size = 50) // lazy menu items missing from the cache are loaded together
 public class MenuItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menu_item_seq")
+    @SequenceGenerator(name = "menu_item_seq", sequenceName = "menu_item_seq", allocationSize = 50) // pooled, so bulk inserts can be batched
     private Long id;
     private String name;
     private String description;
@@ -23,8 +35,20 @@ public class MenuItem {
     private String imageUrl;
     private String category;
     private boolean available;
+    // null when the item is not counted; only MenuStockCounters writes it, so saving an item never reverts it
+    @Column(updatable = false)
+    private Integer stock;
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) return false;
+        MenuItem other = (MenuItem) o;
+        return getId() != null && getId().equals(other.getId());
+    }
 
-
-
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
 }
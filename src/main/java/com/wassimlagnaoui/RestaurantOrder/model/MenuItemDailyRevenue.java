@@ -0,0 +1,42 @@
+package com.wassimlagnaoui.RestaurantOrder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Revenue rollup for one menu item on one day, kept up to date by order placement and cancellation.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(MenuItemDailyRevenue.Key.class)
+@Table(name = "menu_item_daily_revenue")
+public class MenuItemDailyRevenue {
+
+    @Id
+    private LocalDate revenueDate;
+
+    @Id
+    private Long menuItemId;
+
+    private Double revenue;
+
+    private Long quantity;
+
+    private Long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate revenueDate;
+        private Long menuItemId;
+    }
+
+}
@@ -3,22 +3,37 @@ package com.wassimlagnaoui.RestaurantOrder.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Table(name = "orders")
+@NamedEntityGraph(name = Order.SESSION_ORDERS, attributeNodes = @NamedAttributeNode(value = "items", subgraph = "items"),
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("menuItem")))
 public class Order {
 
+    // orders with their items and menu items, for the order and session views
+    public static final String SESSION_ORDERS = "Order.sessionOrders";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50) // pooled, so inserts can be batched
     private Long id;
 
    private Double total;
@@ -26,15 +41,36 @@ public class Order {
    private LocalDateTime orderDate;
 
 
-    private String status;
+    @Enumerated(EnumType.ORDINAL)
+    @JdbcTypeCode(SqlTypes.SMALLINT) // the column is a smallint, see V6__order_status_smallint.sql
+    private OrderStatus status;
 
+    // when loaded lazily, the items of every order from the same query are fetched together in one statement
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @Fetch(FetchMode.SUBSELECT)
+    @ToString.Exclude
     private List<OrderItem> items;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "table_session_id") // optional, sets the foreign key column name
+    @ToString.Exclude
     private TableSession tableSession;
 
+    // identity is the id, so a proxy and the loaded entity compare equal; unsaved entities are only equal to themselves
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) return false;
+        Order other = (Order) o;
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    // constant per class, so the hash does not change when the entity is saved and gets its id
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+
 
 
 
@@ -4,18 +4,24 @@ package com.wassimlagnaoui.RestaurantOrder.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50) // pooled, so inserts can be batched
     private Long id;
 
     private Integer quantity;
@@ -23,11 +29,31 @@ public class OrderItem {
     @Column(name = "served")
     private Boolean served=false;
 
+    // price of the menu item when the order was placed, so later price changes do not rewrite past totals
+    private Double unitPrice;
 
-    @ManyToOne
+    private Double lineTotal;
+
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     private MenuItem menuItem;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     private Order order;
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) return false;
+        OrderItem other = (OrderItem) o;
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+
 }
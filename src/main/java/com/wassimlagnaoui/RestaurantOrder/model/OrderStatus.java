@@ -1,5 +1,7 @@
 package com.wassimlagnaoui.RestaurantOrder.model;
 
+// stored as its ordinal in orders.status (smallint, see V6__order_status_smallint.sql):
+// new statuses go at the end, existing ones are never reordered or removed
 public enum OrderStatus {
     PLACED,
     PREPARING,
@@ -4,21 +4,32 @@ package com.wassimlagnaoui.RestaurantOrder.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@NamedEntityGraph(name = TableSession.CHECKOUT, attributeNodes = @NamedAttributeNode("orders"))
 public class TableSession {
 
+    // a session with its orders, for the checkout summary; the orders' items follow in one subselect
+    public static final String CHECKOUT = "TableSession.checkout";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "table_session_seq")
+    @SequenceGenerator(name = "table_session_seq", sequenceName = "table_session_seq", allocationSize = 50) // pooled, so inserts can be batched
     private Long id;
 
     private LocalDateTime sessionStart;
@@ -27,9 +38,37 @@ public class TableSession {
 
     private String tableNumber;
 
+    // running totals of the session's orders that are not cancelled; only ever changed by
+    // TableSessionRepository.addToTotals, in the transaction that places or cancels the order
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long orderCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long itemCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private double totalAmount;
+
     @OneToMany(mappedBy = "tableSession")
+    @ToString.Exclude
     private List<Order> orders;
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) return false;
+        TableSession other = (TableSession) o;
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+
 
 
 }
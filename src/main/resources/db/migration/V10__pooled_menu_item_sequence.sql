@@ -0,0 +1,7 @@
+-- Menu items take their ids from a pooled sequence (allocation size 50), like the orders in V2,
+-- so the items created by a bulk menu update are inserted in batches.
+-- Hibernate hands out the 50 ids below the value it reads, so the sequence starts 50 above the current max id.
+
+ALTER TABLE menu_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE menu_item_seq INCREMENT BY 50;
+SELECT setval('menu_item_seq', COALESCE(MAX(id), 0) + 50, false) FROM menu_item;
@@ -0,0 +1,4 @@
+-- Stock left per menu item, kept in memory by MenuStockCounters and written back in batches.
+-- NULL means the item is not counted and never sells out.
+
+ALTER TABLE menu_item ADD COLUMN stock INTEGER;
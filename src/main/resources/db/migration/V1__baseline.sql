@@ -0,0 +1,56 @@
+-- Schema as previously generated by hibernate ddl-auto=update.
+-- Databases created that way are baselined at this version and skip this script.
+
+CREATE TABLE menu_item (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    available   BOOLEAN NOT NULL,
+    category    VARCHAR(255),
+    description VARCHAR(255),
+    image_url   VARCHAR(255),
+    name        VARCHAR(255),
+    price       DOUBLE PRECISION
+);
+
+CREATE TABLE table_session (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    session_end   TIMESTAMP(6),
+    session_start TIMESTAMP(6),
+    table_number  VARCHAR(255)
+);
+
+CREATE TABLE orders (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_date       TIMESTAMP(6),
+    status           VARCHAR(255),
+    total            DOUBLE PRECISION,
+    table_session_id BIGINT,
+    CONSTRAINT fk2hh4j15t905aobpgqdg7o234v FOREIGN KEY (table_session_id) REFERENCES table_session (id)
+);
+
+CREATE TABLE order_item (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    quantity     INTEGER,
+    served       BOOLEAN,
+    menu_item_id BIGINT,
+    order_id     BIGINT,
+    CONSTRAINT fk1my78itket7mhyn3wt4g6j4sq FOREIGN KEY (menu_item_id) REFERENCES menu_item (id),
+    CONSTRAINT fkt4dc2r9nbvbujrljv3e23iibt FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+CREATE TABLE staff (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email       VARCHAR(255),
+    employee_id BIGINT,
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    role        VARCHAR(255)
+);
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email    VARCHAR(255) NOT NULL,
+    name     VARCHAR(255) NOT NULL,
+    password VARCHAR(255),
+    phone    VARCHAR(255),
+    role     VARCHAR(255) CONSTRAINT users_role_check CHECK (role IN ('ROLE_ADMIN', 'ROLE_USER'))
+);
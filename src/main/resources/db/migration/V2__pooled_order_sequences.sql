@@ -0,0 +1,15 @@
+-- Orders, order items and table sessions take their ids from pooled sequences (allocation size 50)
+-- so hibernate can batch their inserts. Hibernate hands out the 50 ids below the value it reads,
+-- so each sequence starts 50 above the current max id.
+
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE orders_seq INCREMENT BY 50;
+SELECT setval('orders_seq', COALESCE(MAX(id), 0) + 50, false) FROM orders;
+
+ALTER TABLE order_item ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE order_item_seq INCREMENT BY 50;
+SELECT setval('order_item_seq', COALESCE(MAX(id), 0) + 50, false) FROM order_item;
+
+ALTER TABLE table_session ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE table_session_seq INCREMENT BY 50;
+SELECT setval('table_session_seq', COALESCE(MAX(id), 0) + 50, false) FROM table_session;
@@ -0,0 +1,10 @@
+-- Responses of requests sent with an Idempotency-Key header, purged after the retention period.
+
+CREATE TABLE idempotency_key (
+    id            VARCHAR(255) PRIMARY KEY,
+    fingerprint   VARCHAR(255) NOT NULL,
+    response_body TEXT         NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_idempotency_key_created_at ON idempotency_key (created_at);
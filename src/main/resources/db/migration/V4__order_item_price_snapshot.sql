@@ -0,0 +1,11 @@
+-- Order items keep the unit price and line total they were placed at.
+-- Existing rows are backfilled from the current menu prices, the best record we have of them.
+
+ALTER TABLE order_item ADD COLUMN unit_price DOUBLE PRECISION;
+ALTER TABLE order_item ADD COLUMN line_total DOUBLE PRECISION;
+
+UPDATE order_item oi
+SET unit_price = m.price,
+    line_total = oi.quantity * m.price
+FROM menu_item m
+WHERE m.id = oi.menu_item_id;
@@ -0,0 +1,3 @@
+-- Sessions-by-date summaries filter on a session_start range.
+
+CREATE INDEX idx_table_session_session_start ON table_session (session_start);
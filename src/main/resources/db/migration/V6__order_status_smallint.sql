@@ -0,0 +1,12 @@
+-- Order status is stored as the ordinal of OrderStatus (2 bytes instead of a varchar per row).
+-- Statuses that are not an OrderStatus name become NULL.
+
+ALTER TABLE orders ALTER COLUMN status TYPE SMALLINT USING CASE status
+    WHEN 'PLACED' THEN 0
+    WHEN 'PREPARING' THEN 1
+    WHEN 'READY' THEN 2
+    WHEN 'SERVED' THEN 3
+    WHEN 'CANCELLED' THEN 4
+END;
+
+ALTER TABLE orders ADD CONSTRAINT orders_status_check CHECK (status BETWEEN 0 AND 4);
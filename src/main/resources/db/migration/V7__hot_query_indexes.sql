@@ -0,0 +1,21 @@
+-- Indexes for the kitchen, session and checkout queries.
+
+-- orders of a session, and items of an order (session views, checkout, the items subselect)
+CREATE INDEX idx_orders_table_session_id ON orders (table_session_id);
+CREATE INDEX idx_order_item_order_id ON order_item (order_id);
+
+-- unserved items and orders: a handful of rows at any time, however long the history gets
+CREATE INDEX idx_order_item_unserved ON order_item (order_id) WHERE served = false;
+CREATE INDEX idx_orders_unserved ON orders (order_date) WHERE status <> 3; -- 3 = SERVED
+
+-- a table has at most one active session; older duplicates are ended first, keeping the most recent one
+UPDATE table_session ts
+SET session_end = now()
+WHERE ts.session_end IS NULL
+  AND EXISTS (SELECT 1
+              FROM table_session newer
+              WHERE newer.table_number = ts.table_number
+                AND newer.session_end IS NULL
+                AND (COALESCE(newer.session_start, '-infinity'), newer.id) > (COALESCE(ts.session_start, '-infinity'), ts.id));
+
+CREATE UNIQUE INDEX uq_table_session_active_table ON table_session (table_number) WHERE session_end IS NULL;
@@ -0,0 +1,22 @@
+-- Table sessions carry running totals of their orders that are not cancelled, so the checkout does not add them up.
+-- Placing and cancelling an order adjust them in the same transaction; existing sessions are backfilled here.
+
+ALTER TABLE table_session ADD COLUMN order_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE table_session ADD COLUMN item_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE table_session ADD COLUMN total_amount DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+UPDATE table_session ts
+SET order_count = totals.order_count,
+    item_count = totals.item_count,
+    total_amount = totals.total_amount
+FROM (
+    SELECT o.table_session_id,
+           COUNT(DISTINCT o.id) AS order_count,
+           COUNT(oi.id) AS item_count,
+           COALESCE(SUM(oi.line_total), 0) AS total_amount
+    FROM orders o
+    LEFT JOIN order_item oi ON oi.order_id = o.id
+    WHERE o.status <> 4 -- CANCELLED
+    GROUP BY o.table_session_id
+) totals
+WHERE totals.table_session_id = ts.id;
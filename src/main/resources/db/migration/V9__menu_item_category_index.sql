@@ -0,0 +1,3 @@
+-- Keyset pages of one menu category walk this index in id order instead of scanning the menu.
+
+CREATE INDEX idx_menu_item_category_id ON menu_item (category, id);
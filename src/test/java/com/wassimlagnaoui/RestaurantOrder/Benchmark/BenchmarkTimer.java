@@ -0,0 +1,37 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Minimal wall-clock timer used by the benchmark tests.
+ * Runs a few warm-up iterations, then prints min / p50 / avg / max in milliseconds.
+ */
+public final class BenchmarkTimer {
+
+    private BenchmarkTimer() {
+    }
+
+    public static long[] measure(String name, int warmups, int iterations, Runnable task) {
+        for (int i = 0; i < warmups; i++) {
+            task.run();
+        }
+
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double avg = Arrays.stream(sorted).average().orElse(0);
+        System.out.printf("[benchmark] %-40s n=%d min=%.2fms p50=%.2fms avg=%.2fms max=%.2fms%n",
+                name, iterations, ms(sorted[0]), ms(sorted[sorted.length / 2]), avg / 1_000_000.0, ms(sorted[sorted.length - 1]));
+        return sorted;
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
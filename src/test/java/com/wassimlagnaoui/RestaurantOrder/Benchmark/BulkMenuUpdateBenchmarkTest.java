@@ -0,0 +1,119 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.BulkMenuUpdateRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.MenuItemChange;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.BulkMenuUpdateResponse;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemStockJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuCatalog;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuItemService;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuSearchIndex;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuStockCounters;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statements and latency of a seasonal menu change: one call per item against one bulk update.
+ * Run with: mvn test -Pbenchmark -Dtest=BulkMenuUpdateBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class) // MenuItemService encodes the available menu
+@Import({MenuItemService.class, MenuCatalog.class, MenuSearchIndex.class, MenuStockCounters.class,
+        MenuItemStockJdbcRepository.class, StatementCounter.Configuration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the service commits, so the catalog is published
+class BulkMenuUpdateBenchmarkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @BeforeEach
+    void setUp() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        // the seeded rows have explicit ids; start the sequence above them, as V10 does
+        jdbcTemplate.execute("ALTER SEQUENCE menu_item_seq RESTART WITH 1000");
+        menuCatalog.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        BenchmarkData.clear(jdbcTemplate);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void bulkUpdate_SendsBatches_AndPublishesOneCatalogVersion() {
+        StatementCounter.reset();
+        for (long id = 1; id <= BenchmarkData.MENU_ITEMS; id++) {
+            menuItemService.updatePrice(id, 10.0 + id);
+        }
+        long perItemStatements = StatementCounter.count();
+
+        long version = menuCatalog.snapshot().getVersion();
+        StatementCounter.reset();
+        BulkMenuUpdateResponse response = menuItemService.bulkUpdate(seasonalMenu(20.0));
+        long bulkStatements = StatementCounter.count();
+
+        assertEquals(BenchmarkData.MENU_ITEMS, response.getCreated().size());
+        assertEquals(BenchmarkData.MENU_ITEMS, response.getUpdated().size());
+        // one select of the changed items, the sequence, one insert batch and one update batch
+        assertTrue(bulkStatements <= 5, "bulk update sent " + bulkStatements + " statements");
+        assertEquals(version + 1, menuCatalog.snapshot().getVersion());
+        assertEquals(2 * BenchmarkData.MENU_ITEMS, menuCatalog.snapshot().size());
+        assertEquals(21.0, menuCatalog.snapshot().find(1L).orElseThrow().getPrice());
+        assertFalse(menuCatalog.snapshot().find(2L).orElseThrow().isAvailable());
+        assertEquals(21.0, jdbcTemplate.queryForObject("SELECT price FROM menu_item WHERE id = 1", Double.class));
+        System.out.printf("[benchmark] %d price changes: %d statements one by one, %d in bulk (with %d new items)%n",
+                BenchmarkData.MENU_ITEMS, perItemStatements, bulkStatements, BenchmarkData.MENU_ITEMS);
+
+        BenchmarkTimer.measure("updatePrice x " + BenchmarkData.MENU_ITEMS, 5, 50, () -> {
+            for (long id = 1; id <= BenchmarkData.MENU_ITEMS; id++) {
+                menuItemService.updatePrice(id, 30.0 + id);
+            }
+        });
+        BenchmarkTimer.measure("bulkUpdate of " + BenchmarkData.MENU_ITEMS + " changes", 5, 50, () -> {
+            BulkMenuUpdateRequest request = seasonalMenu(40.0);
+            request.setCreate(List.of());
+            menuItemService.bulkUpdate(request);
+        });
+    }
+
+    private static BulkMenuUpdateRequest seasonalMenu(double basePrice) {
+        List<MenuItemRequest> create = new ArrayList<>();
+        List<MenuItemChange> update = new ArrayList<>();
+        for (long id = 1; id <= BenchmarkData.MENU_ITEMS; id++) {
+            create.add(new MenuItemRequest("Seasonal " + id, "Seasonal item " + id, 8.0 + id, "seasonal.jpg", "Seasonal", true));
+            update.add(new MenuItemChange(id, null, null, basePrice + id, null, null, id % 2 != 0));
+        }
+        return new BulkMenuUpdateRequest(create, update);
+    }
+}
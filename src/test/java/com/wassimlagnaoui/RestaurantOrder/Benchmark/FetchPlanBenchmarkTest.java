@@ -0,0 +1,133 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.ItemSummaryDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.SessionSummary;
+import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderItemMapper;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemStockJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.RevenueRollupJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.Service.ActiveSessionRegistry;
+import com.wassimlagnaoui.RestaurantOrder.Service.KitchenQueueIndex;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuCatalog;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuStockCounters;
+import com.wassimlagnaoui.RestaurantOrder.Service.OrderService;
+import com.wassimlagnaoui.RestaurantOrder.Service.RevenueRollupService;
+import com.wassimlagnaoui.RestaurantOrder.Service.TableSessionService;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC statements per endpoint with lazy associations and the named entity graphs.
+ * Every call starts with empty second-level caches, so the counts are the cold ones; no call may load lazily
+ * outside its own transaction, since there is no open-session-in-view here.
+ * Run with: mvn test -Pbenchmark -Dtest=FetchPlanBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+@Import({OrderService.class, TableSessionService.class, MenuCatalog.class, RevenueRollupService.class, RevenueRollupJdbcRepository.class, KitchenQueueIndex.class, ActiveSessionRegistry.class, OrderItemMapper.class,
+        MenuStockCounters.class, MenuItemStockJdbcRepository.class, StatementCounter.Configuration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // each call runs in its own transactions, like a real request
+class FetchPlanBenchmarkTest {
+
+    // 20 orders a day, two per session: the first session has orders 1 and 2, with three items each
+    private static final int ORDERS = 20;
+    private static final long SESSION_ID = 1L;
+    private static final long ORDER_ID = 1L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TableSessionService tableSessionService;
+
+    @Autowired
+    private KitchenQueueIndex kitchenQueueIndex;
+
+    @BeforeEach
+    void setUp() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        BenchmarkData.seedOrders(jdbcTemplate, 1, ORDERS);
+        jdbcTemplate.update("UPDATE orders SET status = ? WHERE id > ?", OrderStatus.PLACED.ordinal(), ORDERS / 2);
+        jdbcTemplate.update("UPDATE order_item SET served = false WHERE order_id = ?", ORDER_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BenchmarkData.clear(jdbcTemplate);
+        evictCaches();
+    }
+
+    @Test
+    void orderEndpoints() {
+        assertStatements(1, "getOrderById", () -> orderService.getOrderById(ORDER_ID));
+        assertStatements(1, "checkStatusOfItemsByOrder", () -> orderService.checkStatusOfItemsByOrder(ORDER_ID));
+        assertStatements(2, "getOrderBySessionId", () -> orderService.getOrderBySessionId(SESSION_ID));
+        assertStatements(2, "getUnServedItemsBySession", () -> orderService.getUnServedItemsBySession(SESSION_ID));
+        // GET /orders/kitchen/queue is answered from the kitchen queue index
+        kitchenQueueIndex.rebuild();
+        assertStatements(0, "getNotServedItems", () -> orderService.getNotServedItems());
+
+        assertEquals(BenchmarkData.ITEMS_PER_ORDER, orderService.getNotServedItems().size());
+        assertEquals(BenchmarkData.ITEMS_PER_ORDER, orderService.getUnServedItemsBySession(SESSION_ID).size());
+    }
+
+    @Test
+    void orderWrites() {
+        // select and update; the order and menu item of the served item stay unloaded proxies
+        // (the last order is still PLACED, the first ones are seeded as SERVED)
+        assertStatements(2, "serveOrderItem", () -> orderService.serveOrderItem(1L));
+        assertStatements(2, "markOrderAsServed", () -> orderService.markOrderAsServed((long) ORDERS));
+    }
+
+    @Test
+    void sessionEndpoints() {
+        // session and orders, the orders' items in one subselect, then the menu items in one batch
+        assertStatements(3, "getItemSummaryForSession", () -> tableSessionService.getItemSummaryForSession(SESSION_ID));
+        // the session with its running totals, then the item lines in one projection
+        SessionSummary summary = assertStatements(2, "getSessionSummaryForCheckout", () -> tableSessionService.getSessionSummaryForCheckout(SESSION_ID));
+
+        assertEquals(BenchmarkData.ORDERS_PER_SESSION, summary.getTotalOrders());
+        assertEquals(BenchmarkData.ORDERS_PER_SESSION * BenchmarkData.ITEMS_PER_ORDER, summary.getTotalItemOrdered());
+        assertEquals(summary.getItems().size(), summary.getTotalItemOrdered());
+        assertEquals(summary.getItems().stream().mapToDouble(ItemSummaryDTO::getTotalPrice).sum(), summary.getTotalAmont(), 0.001);
+    }
+
+    private <T> T assertStatements(long expected, String endpoint, Supplier<T> call) {
+        evictCaches();
+        StatementCounter.reset();
+        T result = call.get();
+        long statements = StatementCounter.count();
+        System.out.printf("[benchmark] %s: %d statements%n", endpoint, statements);
+        assertEquals(expected, statements, endpoint);
+        return result;
+    }
+
+    private void evictCaches() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+}
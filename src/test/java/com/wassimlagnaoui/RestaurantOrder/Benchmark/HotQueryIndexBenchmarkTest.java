@@ -0,0 +1,192 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency of the hot kitchen, session and checkout queries at 10M order items, with the indexes of
+ * V7__hot_query_indexes.sql and with index scans turned off for comparison.
+ * The partial indexes are postgres-only, so this runs against a postgres database given on the command line;
+ * the migrations are applied to a scratch schema that is dropped afterwards.
+ * Run with: mvn test -Pbenchmark -Dtest=HotQueryIndexBenchmarkTest
+ *     -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/restaurant_db -Dbenchmark.postgres.user=... -Dbenchmark.postgres.password=...
+ * and optionally -Dbenchmark.order-items=1000000 for a quicker run.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+class HotQueryIndexBenchmarkTest {
+
+    private static final String SCHEMA = "hot_query_benchmark";
+    private static final int TABLES = 12;
+
+    // the SQL hibernate generates for the repository queries, with the same literals
+    private static final String KITCHEN_QUEUE =
+            "SELECT oi.id, o.id, ts.table_number, m.name, oi.quantity, oi.served, o.order_date " +
+            "FROM order_item oi JOIN orders o ON o.id = oi.order_id JOIN table_session ts ON ts.id = o.table_session_id " +
+            "JOIN menu_item m ON m.id = oi.menu_item_id " +
+            "WHERE oi.served = false AND o.status <> " + OrderStatus.CANCELLED.ordinal() + " ORDER BY o.order_date, oi.id";
+    private static final String UNSERVED_ORDERS = "SELECT id, order_date, status, total, table_session_id FROM orders WHERE status <> " + OrderStatus.SERVED.ordinal();
+    private static final String ACTIVE_SESSIONS = "SELECT id, session_start, session_end, table_number FROM table_session WHERE session_end IS NULL";
+    private static final String SESSION_ORDERS = "SELECT id, order_date, status, total FROM orders WHERE table_session_id = ?";
+    private static final String SESSION_ITEMS =
+            "SELECT id, quantity, served, line_total, menu_item_id, order_id FROM order_item " +
+            "WHERE order_id IN (SELECT id FROM orders WHERE table_session_id = ?)";
+
+    private static SingleConnectionDataSource dataSource;
+    private static Flyway flyway;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static long sessions;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new SingleConnectionDataSource(System.getProperty("benchmark.postgres.url"),
+                System.getProperty("benchmark.postgres.user", "restaurant_user"),
+                System.getProperty("benchmark.postgres.password", ""), true);
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("prepareThreshold", "0"); // no server-side plans cached across the indexed and unindexed runs
+        dataSource.setConnectionProperties(connectionProperties);
+
+        // the data goes in before the indexes, which is faster and times V7 on a full-size table
+        Flyway beforeIndexes = flyway("6");
+        beforeIndexes.clean();
+        beforeIndexes.migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        long orderItems = Long.getLong("benchmark.order-items", 10_000_000L);
+        long start = System.nanoTime();
+        seed(orderItems);
+        System.out.printf("[benchmark] seeded %d order items in %.1fs%n", orderItems, (System.nanoTime() - start) / 1e9);
+
+        flyway = flyway("latest");
+        start = System.nanoTime();
+        flyway.migrate();
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA);
+        jdbcTemplate.execute("ANALYZE");
+        System.out.printf("[benchmark] applied the index migrations in %.1fs%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    private static Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(SCHEMA)
+                .target(target)
+                .cleanDisabled(false)
+                .load();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (flyway != null) {
+            flyway.clean();
+        }
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+
+    /**
+     * Three items per order and two orders per session, one session every minute; everything is served except
+     * the orders of the last session of each table, which are still open. One order in a thousand is cancelled.
+     */
+    private static void seed(long orderItems) {
+        sessions = orderItems / BenchmarkData.ITEMS_PER_ORDER / BenchmarkData.ORDERS_PER_SESSION;
+        long orders = sessions * BenchmarkData.ORDERS_PER_SESSION;
+        long openOrders = (long) TABLES * BenchmarkData.ORDERS_PER_SESSION;
+
+        jdbcTemplate.update("INSERT INTO menu_item (id, available, category, description, image_url, name, price) " +
+                "SELECT g, true, 'Category ' || (g % 5), 'Benchmark item ' || g, 'item.jpg', 'Item ' || g, 5.0 + g " +
+                "FROM generate_series(1, ?) g", BenchmarkData.MENU_ITEMS);
+        jdbcTemplate.update("INSERT INTO table_session (id, session_start, session_end, table_number) " +
+                "SELECT g, timestamp '2020-01-01' + g * interval '1 minute', " +
+                "CASE WHEN g > ? THEN NULL ELSE timestamp '2020-01-01' + g * interval '1 minute' + interval '1 hour' END, " +
+                "'T' || (g % ? + 1) " +
+                "FROM generate_series(1, ?) g", sessions - TABLES, TABLES, sessions);
+        jdbcTemplate.update("INSERT INTO orders (id, total, order_date, status, table_session_id) " +
+                "SELECT g, 30.0, timestamp '2020-01-01' + (g + 1) / 2 * interval '1 minute', " +
+                "CASE WHEN g > ? THEN ? WHEN g % 1000 = 0 THEN ? ELSE ? END, (g + 1) / 2 " +
+                "FROM generate_series(1, ?) g",
+                orders - openOrders, OrderStatus.PLACED.ordinal(), OrderStatus.CANCELLED.ordinal(), OrderStatus.SERVED.ordinal(), orders);
+        jdbcTemplate.update("INSERT INTO order_item (id, quantity, served, unit_price, line_total, menu_item_id, order_id) " +
+                "SELECT g, 1 + g % 3, (g + 2) / 3 <= ?, 10.0, (1 + g % 3) * 10.0, g % ? + 1, (g + 2) / 3 " +
+                "FROM generate_series(1, ?) g",
+                orders - openOrders, BenchmarkData.MENU_ITEMS, orders * BenchmarkData.ITEMS_PER_ORDER);
+    }
+
+    @Test
+    void hotQueries_UseTheirIndexes() {
+        Random random = new Random(42);
+
+        assertPlanUses("idx_order_item_unserved", KITCHEN_QUEUE);
+        assertPlanUses("idx_orders_unserved", UNSERVED_ORDERS);
+        assertPlanUses("uq_table_session_active_table", ACTIVE_SESSIONS);
+        assertPlanUses("idx_orders_table_session_id", SESSION_ORDERS, 1L);
+        assertPlanUses("idx_order_item_order_id", SESSION_ITEMS, 1L);
+
+        assertEquals(TABLES * BenchmarkData.ORDERS_PER_SESSION * BenchmarkData.ITEMS_PER_ORDER,
+                jdbcTemplate.queryForList(KITCHEN_QUEUE).size());
+        assertEquals(TABLES, jdbcTemplate.queryForList(ACTIVE_SESSIONS).size());
+
+        for (boolean indexed : new boolean[]{true, false}) {
+            String label = indexed ? "" : " (no index scans)";
+            measure("kitchen queue" + label, indexed, () -> jdbcTemplate.queryForList(KITCHEN_QUEUE));
+            measure("unserved orders" + label, indexed, () -> jdbcTemplate.queryForList(UNSERVED_ORDERS));
+            measure("active sessions" + label, indexed, () -> jdbcTemplate.queryForList(ACTIVE_SESSIONS));
+            measure("orders of a session" + label, indexed, () -> jdbcTemplate.queryForList(SESSION_ORDERS, randomSession(random)));
+            measure("items of a session" + label, indexed, () -> jdbcTemplate.queryForList(SESSION_ITEMS, randomSession(random)));
+        }
+    }
+
+    @Test
+    void activeSessionIndex_AllowsOneActiveSessionPerTable() {
+        long id = sessions + 1;
+
+        // T1 is already seated
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO table_session (id, session_start, table_number) VALUES (?, now(), 'T1')", id));
+        // ended sessions do not count
+        assertEquals(1, jdbcTemplate.update(
+                "INSERT INTO table_session (id, session_start, session_end, table_number) VALUES (?, now(), now(), 'T1')", id));
+        jdbcTemplate.update("DELETE FROM table_session WHERE id = ?", id);
+    }
+
+    private static long randomSession(Random random) {
+        return 1 + (long) (random.nextDouble() * sessions);
+    }
+
+    // the full-scan runs are slow at this size, so they get fewer iterations
+    private static void measure(String name, boolean indexed, Runnable query) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!indexed) {
+                jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+                jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+                jdbcTemplate.execute("SET LOCAL enable_indexonlyscan = off");
+            }
+            BenchmarkTimer.measure(name, indexed ? 20 : 1, indexed ? 200 : 5, query);
+        });
+    }
+
+    private static void assertPlanUses(String index, String sql, Object... args) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+        assertTrue(plan.stream().anyMatch(line -> line.contains(index)), () -> index + " not used:\n" + String.join("\n", plan));
+    }
+}
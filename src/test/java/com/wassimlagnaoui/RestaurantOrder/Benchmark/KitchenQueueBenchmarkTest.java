@@ -0,0 +1,88 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderItemMapper;
+import com.wassimlagnaoui.RestaurantOrder.Repository.OrderItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.Service.KitchenQueueIndex;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Kitchen queue reads from the database (previous implementation) against the in-memory index,
+ * with a lunch service of unserved items on top of three months of served history.
+ * Run with: mvn test -Pbenchmark -Dtest=KitchenQueueBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+@Import(KitchenQueueIndex.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class KitchenQueueBenchmarkTest {
+
+    private static final int DAYS = 90;
+    private static final int ORDERS_PER_DAY = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private KitchenQueueIndex kitchenQueueIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        BenchmarkData.clear(jdbcTemplate);
+    }
+
+    @Test
+    void kitchenQueue_DatabaseVersusIndex() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        BenchmarkData.seedOrders(jdbcTemplate, DAYS, ORDERS_PER_DAY);
+
+        // the last day's lunch is still being cooked; one of its orders was cancelled
+        Timestamp lastLunch = Timestamp.valueOf(LocalDate.now().minusDays(1).atTime(11, 0));
+        jdbcTemplate.update("UPDATE order_item SET served = false WHERE order_id IN (SELECT id FROM orders WHERE order_date >= ? AND order_date < ?)",
+                lastLunch, Timestamp.valueOf(lastLunch.toLocalDateTime().plusMinutes(20)));
+        jdbcTemplate.update("UPDATE orders SET status = ? WHERE id = (SELECT MIN(id) FROM orders WHERE order_date >= ?)", OrderStatus.CANCELLED.ordinal(), lastLunch);
+        int live = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item oi JOIN orders o ON o.id = oi.order_id WHERE oi.served = false AND o.status <> ?", Integer.class, OrderStatus.CANCELLED.ordinal());
+        System.out.printf("[benchmark] %d unserved items in the kitchen%n", live);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        BenchmarkTimer.measure("rebuild index (startup)", 1, 5, kitchenQueueIndex::rebuild);
+        List<KitchenOrderQueueResponse> items = kitchenQueueIndex.items();
+        assertEquals(live, items.size());
+        for (int i = 1; i < items.size(); i++) {
+            assertFalse(items.get(i).getOrderDate().isBefore(items.get(i - 1).getOrderDate()));
+        }
+
+        BenchmarkTimer.measure("kitchen queue from database", 3, 20, () -> readOnly.executeWithoutResult(status ->
+                orderItemRepository.findUnservedOrderItem().stream().map(OrderItemMapper::toKitchenQueueResponse).toList()));
+        BenchmarkTimer.measure("kitchen queue from index", 3, 20, kitchenQueueIndex::items);
+    }
+}
@@ -0,0 +1,117 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemResponse;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemStockJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.Service.EncodedJson;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuCatalog;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuItemService;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuSearchIndex;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuStockCounters;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statements and latency of the menu reads with the second-level and query caches, and their invalidation on update.
+ * Run with: mvn test -Pbenchmark -Dtest=MenuItemCacheBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class) // MenuItemService encodes the available menu
+@Import({MenuItemService.class, MenuCatalog.class, MenuSearchIndex.class, MenuStockCounters.class,
+        MenuItemStockJdbcRepository.class, StatementCounter.Configuration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // each read runs in its own transaction, like a real request
+class MenuItemCacheBenchmarkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        BenchmarkData.clear(jdbcTemplate);
+        // the rows were deleted behind Hibernate's back
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @Test
+    void menuReads_AreServedFromCache_UntilAnUpdate() {
+        // first reads fill the caches and encode the available menu; item 7 is in Category 2
+        menuCatalog.reload();
+        EncodedJson menu = menuItemService.getAvailableMenuJson();
+        menuItemService.getMenuItemsByCategory("Category 2");
+
+        StatementCounter.reset();
+        assertSame(menu, menuItemService.getAvailableMenuJson());
+        assertEquals(BenchmarkData.MENU_ITEMS / 5, menuItemService.getMenuItemsByCategory("Category 2").size());
+        assertEquals("Item 7", menuItemService.findById(7L).getName());
+        assertEquals(0, StatementCounter.count());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // an update through the service invalidates the cached results on commit and bumps the catalog version
+        menuItemService.updatePrice(7L, 99.0);
+        StatementCounter.reset();
+        EncodedJson updated = menuItemService.getAvailableMenuJson();
+        List<MenuItemResponse> category = menuItemService.getMenuItemsByCategory("Category 2");
+        assertEquals(1, StatementCounter.count(), "the query runs again, the rows come from the entity cache");
+        assertNotEquals(menu.etag(false), updated.etag(false));
+        assertTrue(new String(updated.body(false), StandardCharsets.UTF_8).contains("99.0"));
+        assertEquals(99.0, category.stream().filter(m -> m.getId() == 7L).findFirst().orElseThrow().getPrice());
+        assertEquals(99.0, menuItemService.findById(7L).getPrice());
+
+        System.out.printf("[benchmark] second-level cache hits %d, misses %d; query cache hits %d, misses %d%n",
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount());
+
+        BenchmarkTimer.measure("getAvailableMenuJson (encoded)", 20, 500, menuItemService::getAvailableMenuJson);
+        BenchmarkTimer.measure("getAvailableMenuJson (catalog reloaded)", 20, 500, () -> {
+            menuCatalog.reload();
+            menuItemService.getAvailableMenuJson();
+        });
+        BenchmarkTimer.measure("getMenuItemsByCategory (cached)", 20, 500, () -> menuItemService.getMenuItemsByCategory("Category 2"));
+        BenchmarkTimer.measure("getMenuItemsByCategory (query cache evicted)", 20, 500, () -> {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(MenuItemRepository.QUERY_CACHE_REGION);
+            menuItemService.getMenuItemsByCategory("Category 2");
+        });
+    }
+}
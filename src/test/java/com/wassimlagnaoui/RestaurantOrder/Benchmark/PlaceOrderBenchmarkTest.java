@@ -0,0 +1,167 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.OrderItemRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.PlaceOrderRequest;
+import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemNotAvailableException;
+import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemSoldOutException;
+import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderItemMapper;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemStockJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.RevenueRollupJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.Service.ActiveSessionRegistry;
+import com.wassimlagnaoui.RestaurantOrder.Service.KitchenQueueIndex;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuCatalog;
+import com.wassimlagnaoui.RestaurantOrder.Service.MenuStockCounters;
+import com.wassimlagnaoui.RestaurantOrder.Service.OrderService;
+import com.wassimlagnaoui.RestaurantOrder.Service.RevenueRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC statements and throughput of placing large orders, each in its own transaction.
+ * Run with: mvn test -Pbenchmark -Dtest=PlaceOrderBenchmarkTest [-Dbenchmark.linesPerOrder=50]
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+@Import({OrderService.class, MenuCatalog.class, RevenueRollupService.class, RevenueRollupJdbcRepository.class, KitchenQueueIndex.class, ActiveSessionRegistry.class, OrderItemMapper.class,
+        MenuStockCounters.class, MenuItemStockJdbcRepository.class, StatementCounter.Configuration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every order commits on its own, like a real request
+class PlaceOrderBenchmarkTest {
+
+    private static final int ORDERS = 200;
+    private static final int LINES_PER_ORDER = Integer.getInteger("benchmark.linesPerOrder", 50);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    @Autowired
+    private MenuStockCounters menuStockCounters;
+
+    @AfterEach
+    void tearDown() {
+        BenchmarkData.clear(jdbcTemplate);
+    }
+
+    @Test
+    void placeOrder_LargeOrders() {
+        PlaceOrderRequest request = seed();
+
+        // warm up, then count the statements of a single order
+        for (int i = 0; i < 20; i++) {
+            orderService.placeOrder(request);
+        }
+        StatementCounter.reset();
+        orderService.placeOrder(request);
+        System.out.printf("[benchmark] %d lines per order: %d statements%n", LINES_PER_ORDER, StatementCounter.count());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.placeOrder(request);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("[benchmark] placed %d orders of %d lines in %.2fs: %.0f orders/s%n",
+                ORDERS, LINES_PER_ORDER, seconds, ORDERS / seconds);
+
+        assertEquals((ORDERS + 21L) * LINES_PER_ORDER, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item", Long.class));
+    }
+
+    @Test
+    void placeOrder_CountedStock_CostsNoStatements_AndNeverOversells() throws Exception {
+        PlaceOrderRequest request = seed();
+        for (int i = 0; i < 20; i++) {
+            orderService.placeOrder(request);
+        }
+        StatementCounter.reset();
+        orderService.placeOrder(request);
+        long uncounted = StatementCounter.count();
+
+        // every order of the request takes 2 portions of item 1; leave enough for exactly 150 orders
+        int perOrder = request.getItems().stream().filter(item -> item.getMenuItemId() == 1L).mapToInt(OrderItemRequest::getQuantity).sum();
+        for (long id = 1; id <= BenchmarkData.MENU_ITEMS; id++) {
+            menuStockCounters.restock(id, id == 1 ? 150 * perOrder : 1_000_000);
+        }
+        StatementCounter.reset();
+        orderService.placeOrder(request);
+        assertEquals(uncounted, StatementCounter.count(), "taking stock adds no statement to placing an order");
+
+        // four waiters racing for the last portions
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int thread = 0; thread < 4; thread++) {
+            results.add(executor.submit(() -> {
+                int placed = 0;
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        orderService.placeOrder(request);
+                        placed++;
+                    } catch (MenuItemSoldOutException | MenuItemNotAvailableException e) {
+                        // sold out; once the scheduled flush has run, the item is also unavailable
+                    }
+                }
+                return placed;
+            }));
+        }
+        int placed = 0;
+        for (Future<Integer> result : results) {
+            placed += result.get();
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        menuStockCounters.flush();
+        System.out.printf("[benchmark] 4 threads with counted stock: %d orders in %.2fs, %d rejected as sold out%n",
+                placed, seconds, 200 - placed);
+
+        assertEquals(149, placed);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT stock FROM menu_item WHERE id = 1", Integer.class));
+        assertFalse(jdbcTemplate.queryForObject("SELECT available FROM menu_item WHERE id = 1", Boolean.class));
+        assertFalse(menuCatalog.snapshot().find(1L).orElseThrow().isAvailable());
+    }
+
+    private PlaceOrderRequest seed() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO table_session (id, session_start, table_number) VALUES (?, ?, ?)",
+                1_000_000L, Timestamp.valueOf(LocalDateTime.now()), "T1");
+        menuCatalog.reload();
+        menuStockCounters.load();
+        activeSessionRegistry.reload();
+
+        PlaceOrderRequest request = new PlaceOrderRequest();
+        request.setTableSessionId(1_000_000L);
+        List<OrderItemRequest> items = new ArrayList<>();
+        for (int line = 0; line < LINES_PER_ORDER; line++) {
+            items.add(new OrderItemRequest(1 + line % 3, (long) (line % BenchmarkData.MENU_ITEMS) + 1));
+        }
+        request.setItems(items);
+        return request;
+    }
+}
@@ -0,0 +1,104 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.SessionSummary;
+import com.wassimlagnaoui.RestaurantOrder.Service.ActiveSessionRegistry;
+import com.wassimlagnaoui.RestaurantOrder.Service.TableSessionService;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statements and latency of the sessions-by-date summaries, which must not grow with the number of sessions, orders or items.
+ * Run with: mvn test -Pbenchmark -Dtest=SessionsByDateBenchmarkTest [-Dbenchmark.ordersPerDay=400]
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+@Import({TableSessionService.class, ActiveSessionRegistry.class, StatementCounter.Configuration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // no shared persistence context, so every lookup would hit the database
+class SessionsByDateBenchmarkTest {
+
+    private static final int DAYS = 7;
+    private static final int ORDERS_PER_DAY = Integer.getInteger("benchmark.ordersPerDay", 400);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TableSessionService tableSessionService;
+
+    @AfterEach
+    void tearDown() {
+        BenchmarkData.clear(jdbcTemplate);
+    }
+
+    @Test
+    void getAllSessionByDate_UsesOneStatement() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        BenchmarkData.seedOrders(jdbcTemplate, DAYS, ORDERS_PER_DAY);
+        String date = LocalDate.now().minusDays(2).toString();
+
+        StatementCounter.reset();
+        List<SessionSummary> sessions = tableSessionService.getAllSessionByDate(date);
+        long statements = StatementCounter.count();
+        System.out.printf("[benchmark] %d sessions on %s: %d statements%n", sessions.size(), date, statements);
+
+        assertEquals(ORDERS_PER_DAY / BenchmarkData.ORDERS_PER_SESSION, sessions.size());
+        assertEquals(1, statements);
+        for (SessionSummary session : sessions) {
+            assertEquals(BenchmarkData.ORDERS_PER_SESSION, session.getTotalOrders());
+            assertEquals(BenchmarkData.ORDERS_PER_SESSION * BenchmarkData.ITEMS_PER_ORDER, session.getTotalItemOrdered());
+            assertEquals(session.getItems().stream().mapToDouble(item -> item.getTotalPrice()).sum(), session.getTotalAmont(), 0.01);
+        }
+        double orderTotals = jdbcTemplate.queryForObject("SELECT SUM(o.total) FROM orders o JOIN table_session ts ON ts.id = o.table_session_id " +
+                "WHERE ts.session_start >= ? AND ts.session_start < ?", Double.class,
+                LocalDate.parse(date).atStartOfDay(), LocalDate.parse(date).plusDays(1).atStartOfDay());
+        assertEquals(orderTotals, sessions.stream().mapToDouble(SessionSummary::getTotalAmont).sum(), 0.01);
+
+        BenchmarkTimer.measure("getAllSessionByDate", 3, 20, () -> tableSessionService.getAllSessionByDate(date));
+    }
+
+    @Test
+    void getAllSessionByDate_LeavesOutCancelledOrders() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        BenchmarkData.seedOrders(jdbcTemplate, 3, 20);
+        LocalDate day = LocalDate.now().minusDays(2);
+        List<Long> sessionIds = jdbcTemplate.queryForList("SELECT id FROM table_session WHERE session_start >= ? AND session_start < ? ORDER BY id",
+                Long.class, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        long fullyCancelled = sessionIds.get(0);
+        long partlyCancelled = sessionIds.get(1);
+        jdbcTemplate.update("UPDATE orders SET status = ? WHERE table_session_id = ?", OrderStatus.CANCELLED.ordinal(), fullyCancelled);
+        jdbcTemplate.update("UPDATE orders SET status = ? WHERE id = (SELECT MIN(id) FROM orders WHERE table_session_id = ?)",
+                OrderStatus.CANCELLED.ordinal(), partlyCancelled);
+
+        List<SessionSummary> sessions = tableSessionService.getAllSessionByDate(day.toString());
+
+        assertEquals(sessionIds.size(), sessions.size());
+        SessionSummary cancelled = sessions.get(0);
+        assertEquals(fullyCancelled, cancelled.getSessionId());
+        assertEquals(0L, cancelled.getTotalOrders());
+        assertEquals(0L, cancelled.getTotalItemOrdered());
+        assertEquals(0.0, cancelled.getTotalAmont());
+        SessionSummary partly = sessions.get(1);
+        assertEquals(BenchmarkData.ORDERS_PER_SESSION - 1, partly.getTotalOrders());
+        assertEquals((BenchmarkData.ORDERS_PER_SESSION - 1) * BenchmarkData.ITEMS_PER_ORDER, partly.getTotalItemOrdered());
+        double notCancelled = jdbcTemplate.queryForObject("SELECT SUM(oi.line_total) FROM order_item oi JOIN orders o ON o.id = oi.order_id " +
+                "WHERE o.table_session_id = ? AND o.status <> ?", Double.class, partlyCancelled, OrderStatus.CANCELLED.ordinal());
+        assertEquals(notCancelled, partly.getTotalAmont(), 0.01);
+    }
+}
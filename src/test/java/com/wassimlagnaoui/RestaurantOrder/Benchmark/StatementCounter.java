@@ -0,0 +1,71 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements sent to the database, whoever sends them (Hibernate, Spring Data, JdbcTemplate).
+ * A JDBC batch counts as one statement, since it is one round trip.
+ * Add it to a test with {@code @Import(StatementCounter.Configuration.class)}.
+ */
+public final class StatementCounter {
+
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+
+    private StatementCounter() {
+    }
+
+    public static void reset() {
+        STATEMENTS.set(0);
+    }
+
+    public static long count() {
+        return STATEMENTS.get();
+    }
+
+    @TestConfiguration
+    public static class Configuration {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (Statement.class.isAssignableFrom(type) && (name.startsWith("execute"))) {
+                STATEMENTS.incrementAndGet();
+            }
+            try {
+                Object result = method.invoke(target, args);
+                if (result instanceof Connection connection && type != Connection.class) {
+                    return proxy(Connection.class, connection);
+                }
+                if (result instanceof Statement && type == Connection.class) {
+                    return proxy((Class<Statement>) method.getReturnType(), (Statement) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
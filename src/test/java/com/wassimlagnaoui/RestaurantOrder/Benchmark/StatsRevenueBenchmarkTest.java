@@ -0,0 +1,102 @@
+package com.wassimlagnaoui.RestaurantOrder.Benchmark;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.RollupRebuildResponse;
+import com.wassimlagnaoui.RestaurantOrder.Repository.RevenueRollupJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.Service.RevenueRollupService;
+import com.wassimlagnaoui.RestaurantOrder.Service.StatsService;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import com.wassimlagnaoui.RestaurantOrder.model.Order;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency of the revenue stats endpoints and of the rollup rebuild over a year of order history.
+ * Run with: mvn test -Pbenchmark -Dtest=StatsRevenueBenchmarkTest [-Dbenchmark.ordersPerDay=200]
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("benchmark")
+@Import({StatsService.class, RevenueRollupService.class, RevenueRollupJdbcRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the rebuild reads the seeded rows from its own transactions
+class StatsRevenueBenchmarkTest {
+
+    private static final int DAYS = 365;
+    private static final int ORDERS_PER_DAY = Integer.getInteger("benchmark.ordersPerDay", 200);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @AfterEach
+    void tearDown() {
+        BenchmarkData.clear(jdbcTemplate);
+    }
+
+    @Test
+    void revenueEndpoints_OverOneYearOfOrders() {
+        BenchmarkData.seedMenu(jdbcTemplate);
+        long orderItems = BenchmarkData.seedOrders(jdbcTemplate, DAYS, ORDERS_PER_DAY);
+        System.out.printf("[benchmark] seeded %d days, %d orders, %d order items%n", DAYS, DAYS * ORDERS_PER_DAY, orderItems);
+
+        LocalDate from = LocalDate.now().minusDays(DAYS);
+        LocalDate to = LocalDate.now();
+        BenchmarkTimer.measure("rebuild rollups (1 year)", 1, 3, () -> revenueRollupService.rebuild(from, to));
+        RollupRebuildResponse response = revenueRollupService.rebuild(from, to);
+        assertEquals(DAYS, response.getDayRows());
+
+        HashMap<String, Double> byDate = statsService.getTotalRevenueByDate();
+        HashMap<String, Double> byMenuItem = statsService.getTotalRevenueByMenuItem();
+        assertEquals(DAYS, byDate.size());
+        assertEquals(BenchmarkData.MENU_ITEMS, byMenuItem.size());
+        assertEquals(byDate.values().stream().mapToDouble(Double::doubleValue).sum(),
+                byMenuItem.values().stream().mapToDouble(Double::doubleValue).sum(), 0.01);
+
+        // incremental path: a new order for a day that has no rollup row yet, then a second one for the same day
+        LocalDate tomorrow = to.plusDays(1);
+        revenueRollupService.recordOrder(order(tomorrow, 3));
+        revenueRollupService.recordOrder(order(tomorrow, 2));
+        assertEquals(5 * (5.0 + 1), statsService.getTotalRevenueByDate().get(tomorrow.toString()), 0.01);
+
+        BenchmarkTimer.measure("getTotalRevenueByDate", 3, 20, statsService::getTotalRevenueByDate);
+        BenchmarkTimer.measure("getTotalRevenueByMenuItem", 3, 20, statsService::getTotalRevenueByMenuItem);
+    }
+
+    private static Order order(LocalDate day, int quantity) {
+        MenuItem menuItem = new MenuItem();
+        menuItem.setId(1L);
+        menuItem.setPrice(5.0 + 1);
+
+        OrderItem orderItem = new OrderItem();
+        orderItem.setMenuItem(menuItem);
+        orderItem.setQuantity(quantity);
+        orderItem.setUnitPrice(menuItem.getPrice());
+        orderItem.setLineTotal(quantity * menuItem.getPrice());
+
+        Order order = new Order();
+        order.setOrderDate(day.atTime(12, 0));
+        order.setItems(List.of(orderItem));
+        return order;
+    }
+}
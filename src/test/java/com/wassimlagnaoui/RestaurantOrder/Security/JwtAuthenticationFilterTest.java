@@ -0,0 +1,85 @@
+package com.wassimlagnaoui.RestaurantOrder.Security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @BeforeEach
+    void setUp() {
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/kitchen");
+        request.setServletPath("/orders/kitchen");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+
+    @Test
+    void doFilter_ShouldAuthenticateFromTokenClaims() throws Exception {
+        // Arrange
+        when(jwtService.verify("token")).thenReturn(Optional.of(
+            new VerifiedToken("id-1", "admin@example.com", "ROLE_ADMIN", Instant.now().plusSeconds(60))));
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        jwtAuthenticationFilter.doFilter(request("Bearer token"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("admin@example.com", authentication.getPrincipal());
+        assertEquals(List.of("ROLE_ADMIN"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertNotNull(chain.getRequest());
+        verify(jwtService, times(1)).verify("token");
+        assertEquals(1, meterRegistry.get("auth.jwt.verify").tag("outcome", "accepted").timer().count());
+    }
+
+    @Test
+    void doFilter_ShouldLeaveRequestAnonymous_WhenTokenIsRejected() throws Exception {
+        // Arrange
+        when(jwtService.verify("revoked")).thenReturn(Optional.empty());
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        jwtAuthenticationFilter.doFilter(request("Bearer revoked"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+        assertEquals(1, meterRegistry.get("auth.jwt.verify").tag("outcome", "rejected").timer().count());
+    }
+}
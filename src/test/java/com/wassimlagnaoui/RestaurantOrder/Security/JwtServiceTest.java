@@ -0,0 +1,123 @@
+package com.wassimlagnaoui.RestaurantOrder.Security;
+
+import com.wassimlagnaoui.RestaurantOrder.model.Role;
+import com.wassimlagnaoui.RestaurantOrder.model.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-1234";
+
+    private TokenDenyList tokenDenyList;
+    private JwtService jwtService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        tokenDenyList = new TokenDenyList();
+        jwtService = new JwtService(SECRET, 60_000, 100, Duration.ofMinutes(5), tokenDenyList);
+
+        testUser = User.builder()
+                .id(1L)
+                .email("admin@example.com")
+                .password("encodedPassword")
+                .name("Admin")
+                .role(Role.ROLE_ADMIN)
+                .build();
+    }
+
+    @Test
+    void verify_ShouldReturnSignedClaims_ForIssuedToken() {
+        // Arrange
+        String token = jwtService.generateToken(testUser);
+
+        // Act
+        VerifiedToken verified = jwtService.verify(token).orElseThrow();
+
+        // Assert
+        assertEquals("admin@example.com", verified.getUsername());
+        assertEquals("ROLE_ADMIN", verified.getRole());
+        assertNotNull(verified.getTokenId());
+        assertEquals(verified.getTokenId(), jwtService.verify(token).orElseThrow().getTokenId());
+    }
+
+    @Test
+    void verify_ShouldRejectTamperedToken() {
+        // Arrange
+        String token = jwtService.generateToken(testUser);
+        String[] parts = token.split("\\.");
+        String otherPayload = jwtService.generateToken(User.builder().email("other@example.com").role(Role.ROLE_ADMIN).build()).split("\\.")[1];
+
+        // Act & Assert
+        assertTrue(jwtService.verify(parts[0] + "." + otherPayload + "." + parts[2]).isEmpty());
+        assertTrue(jwtService.verify("not-a-token").isEmpty());
+        assertTrue(jwtService.verify("").isEmpty());
+    }
+
+    @Test
+    void verify_ShouldRejectTokenSignedWithOtherKey() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("admin@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-another-secret-another-1234".getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Act & Assert
+        assertTrue(jwtService.verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_ShouldRejectExpiredToken() {
+        // Arrange
+        JwtService shortLived = new JwtService(SECRET, -1_000, 100, Duration.ofMinutes(5), tokenDenyList);
+        String token = shortLived.generateToken(testUser);
+
+        // Act & Assert
+        assertTrue(jwtService.verify(token).isEmpty());
+    }
+
+    @Test
+    void revoke_ShouldRejectToken_EvenWhenAlreadyVerifiedAndCached() {
+        // Arrange
+        String token = jwtService.generateToken(testUser);
+        String otherToken = jwtService.generateToken(testUser);
+        assertTrue(jwtService.verify(token).isPresent());
+
+        // Act
+        boolean revoked = jwtService.revoke(token);
+
+        // Assert
+        assertTrue(revoked);
+        assertTrue(jwtService.verify(token).isEmpty());
+        assertTrue(jwtService.verify(otherToken).isPresent());
+        assertEquals(1, tokenDenyList.size());
+    }
+
+    @Test
+    void revoke_ShouldWorkForTokensIssuedWithoutId() {
+        // Arrange
+        String token = Jwts.builder()
+                .setSubject("admin@example.com")
+                .claim("role", "ROLE_USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+        assertEquals("ROLE_USER", jwtService.verify(token).orElseThrow().getRole());
+
+        // Act
+        jwtService.revoke(token);
+
+        // Assert
+        assertTrue(jwtService.verify(token).isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+package com.wassimlagnaoui.RestaurantOrder.Security;
+
+import com.wassimlagnaoui.RestaurantOrder.Exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordVerifierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordVerifier passwordVerifier;
+
+    @AfterEach
+    void tearDown() {
+        passwordVerifier.shutdown();
+    }
+
+    @Test
+    void matches_ShouldCheckPasswordAgainstHash_AndRecordHashTime() {
+        // Arrange
+        PasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        passwordVerifier = new PasswordVerifier(encoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+        String hash = encoder.encode("secret");
+
+        // Act & Assert
+        assertTrue(passwordVerifier.matches("secret", hash));
+        assertFalse(passwordVerifier.matches("wrong", hash));
+        assertFalse(passwordVerifier.matches("secret", null));
+        assertEquals(3, meterRegistry.get("auth.password.hash").timer().count());
+    }
+
+    @Test
+    void matches_ShouldRejectImmediately_WhenPoolAndQueueAreFull() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BlockingEncoder(started, release);
+        passwordVerifier = new PasswordVerifier(blockingEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordVerifier.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordVerifier.matches("b", "hash"));
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Act & Assert
+        assertThrows(LoginThrottledException.class, () -> passwordVerifier.matches("c", "hash"));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void matches_ShouldThrowThrottled_WhenCheckTakesLongerThanTimeout() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        passwordVerifier = new PasswordVerifier(new BlockingEncoder(new CountDownLatch(1), release),
+                meterRegistry, 1, 1, Duration.ofMillis(50));
+
+        // Act & Assert
+        assertThrows(LoginThrottledException.class, () -> passwordVerifier.matches("a", "hash"));
+        release.countDown();
+    }
+
+    // matches() blocks until released, to hold a pool thread
+    private static final class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        private BlockingEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
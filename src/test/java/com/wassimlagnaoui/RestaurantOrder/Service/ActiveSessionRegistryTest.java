@@ -0,0 +1,196 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Exception.ActiveSessionExistsException;
+import com.wassimlagnaoui.RestaurantOrder.Repository.TableSessionRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.TableSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveSessionRegistryTest {
+
+    @Mock
+    private TableSessionRepository tableSessionRepository;
+
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    @BeforeEach
+    void setUp() {
+        activeSessionRegistry = new ActiveSessionRegistry(tableSessionRepository);
+    }
+
+    private static TableSession session(Long id, String tableNumber, LocalDateTime sessionStart) {
+        TableSession tableSession = new TableSession();
+        tableSession.setId(id);
+        tableSession.setTableNumber(tableNumber);
+        tableSession.setSessionStart(sessionStart);
+        return tableSession;
+    }
+
+    @Test
+    void reload_ShouldIndexActiveSessionsByTableNumberAndId() {
+        // Arrange
+        when(tableSessionRepository.findActiveTableSession()).thenReturn(Arrays.asList(
+            session(2L, "T2", LocalDateTime.of(2025, 8, 19, 13, 0)),
+            session(1L, "T1", LocalDateTime.of(2025, 8, 19, 12, 0))
+        ));
+
+        // Act
+        activeSessionRegistry.reload();
+
+        // Assert
+        assertEquals(1L, activeSessionRegistry.findByTableNumber("T1").orElseThrow().getId());
+        assertEquals("T2", activeSessionRegistry.findById(2L).orElseThrow().getTableNumber());
+        assertEquals(List.of("T1", "T2"), activeSessionRegistry.sessions().stream().map(TableSession::getTableNumber).toList());
+        assertTrue(activeSessionRegistry.findByTableNumber("T3").isEmpty());
+    }
+
+    @Test
+    void reload_ShouldKeepMostRecentSession_WhenTableHasTwoActiveSessions() {
+        // Arrange
+        when(tableSessionRepository.findActiveTableSession()).thenReturn(Arrays.asList(
+            session(5L, "T1", LocalDateTime.of(2025, 8, 19, 14, 0)),
+            session(4L, "T1", LocalDateTime.of(2025, 8, 19, 12, 0))
+        ));
+
+        // Act
+        activeSessionRegistry.reload();
+
+        // Assert
+        assertEquals(5L, activeSessionRegistry.findByTableNumber("T1").orElseThrow().getId());
+        assertTrue(activeSessionRegistry.findById(4L).isEmpty());
+        assertEquals(1, activeSessionRegistry.sessions().size());
+    }
+
+    @Test
+    void findByTableNumber_ShouldReturnCopy_ThatDoesNotChangeRegistry() {
+        // Arrange
+        when(tableSessionRepository.findActiveTableSession()).thenReturn(Arrays.asList(session(1L, "T1", LocalDateTime.now())));
+        activeSessionRegistry.reload();
+
+        // Act
+        activeSessionRegistry.findByTableNumber("T1").orElseThrow().setSessionEnd(LocalDateTime.now());
+
+        // Assert
+        assertNull(activeSessionRegistry.findByTableNumber("T1").orElseThrow().getSessionEnd());
+    }
+
+    @Test
+    void open_ShouldLetOnlyOneConcurrentRequestSeatATable() throws Exception {
+        // Arrange
+        AtomicLong ids = new AtomicLong();
+        when(tableSessionRepository.save(any(TableSession.class))).thenAnswer(invocation -> {
+            TableSession tableSession = invocation.getArgument(0);
+            Thread.sleep(20); // widen the window between the check and the insert
+            tableSession.setId(ids.incrementAndGet());
+            return tableSession;
+        });
+        int requests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act
+        List<Future<TableSession>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return activeSessionRegistry.open("T1");
+            }));
+        }
+        start.countDown();
+
+        int opened = 0;
+        int rejected = 0;
+        for (Future<TableSession> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                opened++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ActiveSessionExistsException.class, e.getCause());
+                rejected++;
+            }
+        }
+        executor.shutdownNow();
+
+        // Assert
+        assertEquals(1, opened);
+        assertEquals(requests - 1, rejected);
+        verify(tableSessionRepository, times(1)).save(any(TableSession.class));
+        assertEquals(1L, activeSessionRegistry.findByTableNumber("T1").orElseThrow().getId());
+        assertTrue(activeSessionRegistry.findById(1L).isPresent());
+    }
+
+    @Test
+    void open_ShouldNotPinVirtualThreads_WhileSaving() throws Exception {
+        // Arrange: every save waits until all of them are in flight, which a virtual thread pinned
+        // to its carrier during the save would prevent once there are more tables than carriers
+        int tables = Runtime.getRuntime().availableProcessors() * 4 + 4;
+        CountDownLatch allSaving = new CountDownLatch(tables);
+        AtomicLong ids = new AtomicLong();
+        when(tableSessionRepository.save(any(TableSession.class))).thenAnswer(invocation -> {
+            allSaving.countDown();
+            if (!allSaving.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("saves did not run concurrently");
+            }
+            TableSession tableSession = invocation.getArgument(0);
+            tableSession.setId(ids.incrementAndGet());
+            return tableSession;
+        });
+
+        // Act
+        List<Future<TableSession>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 1; i <= tables; i++) {
+                String tableNumber = "T" + i;
+                results.add(executor.submit(() -> activeSessionRegistry.open(tableNumber)));
+            }
+        }
+
+        // Assert
+        for (Future<TableSession> result : results) {
+            assertNotNull(result.get().getId());
+        }
+        assertEquals(tables, activeSessionRegistry.size());
+    }
+
+    @Test
+    void open_ShouldLeaveTableFree_WhenSaveFails() {
+        // Arrange
+        when(tableSessionRepository.save(any(TableSession.class))).thenThrow(new IllegalStateException("database down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> activeSessionRegistry.open("T1"));
+        assertTrue(activeSessionRegistry.findByTableNumber("T1").isEmpty());
+    }
+
+    @Test
+    void open_ShouldThrowActiveSessionExists_WhenAnotherInstanceSeatedTheTable() {
+        // Arrange
+        when(tableSessionRepository.save(any(TableSession.class)))
+                .thenThrow(new DataIntegrityViolationException("uq_table_session_active_table"));
+
+        // Act & Assert
+        assertThrows(ActiveSessionExistsException.class, () -> activeSessionRegistry.open("T1"));
+        assertTrue(activeSessionRegistry.findByTableNumber("T1").isEmpty());
+    }
+}
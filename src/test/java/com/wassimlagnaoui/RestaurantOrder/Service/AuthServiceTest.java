@@ -3,24 +3,24 @@ package com.wassimlagnaoui.RestaurantOrder.Service;
 import com.wassimlagnaoui.RestaurantOrder.DTO.AuthResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.AuthRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.RegisterRequestDTO;
+import com.wassimlagnaoui.RestaurantOrder.Exception.LoginThrottledException;
 import com.wassimlagnaoui.RestaurantOrder.Repository.StaffRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.UserRepository;
 import com.wassimlagnaoui.RestaurantOrder.Security.JwtService;
+import com.wassimlagnaoui.RestaurantOrder.Security.PasswordVerifier;
 import com.wassimlagnaoui.RestaurantOrder.model.Role;
 import com.wassimlagnaoui.RestaurantOrder.model.Staff;
 import com.wassimlagnaoui.RestaurantOrder.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import java.util.NoSuchElementException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,9 +31,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
 
-    @Mock
-    private AuthenticationManager authenticationManager;
-
     @Mock
     private JwtService jwtService;
 
@@ -46,7 +43,10 @@ class AuthServiceTest {
     @Mock
     private StaffRepository staffRepository;
 
-    @InjectMocks
+    @Mock
+    private PasswordVerifier passwordVerifier;
+
+    private SimpleMeterRegistry meterRegistry;
     private AuthService authService;
 
     private User testUser;
@@ -56,6 +56,9 @@ class AuthServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        authService = new AuthService(jwtService, userRepository, passwordEncoder, staffRepository, passwordVerifier, meterRegistry);
+
         testUser = User.builder()
                 .id(1L)
                 .email("test@example.com")
@@ -88,7 +91,7 @@ class AuthServiceTest {
         String expectedToken = "jwt.token.here";
 
         when(userRepository.findByEmail(authRequest.getEmail())).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches(authRequest.getPassword(), testUser.getPassword())).thenReturn(true);
+        when(passwordVerifier.matches(authRequest.getPassword(), testUser.getPassword())).thenReturn(true);
         when(jwtService.generateToken(testUser)).thenReturn(expectedToken);
 
         // Act
@@ -98,26 +101,53 @@ class AuthServiceTest {
         assertNotNull(response);
         assertEquals(expectedToken, response.getToken());
 
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository, times(2)).findByEmail(authRequest.getEmail());
+        verify(userRepository, times(1)).findByEmail(authRequest.getEmail());
+        verify(passwordVerifier, times(1)).matches(anyString(), anyString());
+        verifyNoInteractions(passwordEncoder);
         verify(jwtService).generateToken(testUser);
+        assertEquals(1.0, meterRegistry.counter("auth.login", "outcome", "success").count());
     }
 
     @Test
-    void login_ShouldThrowException_WhenUserNotFound() {
+    void login_ShouldThrowBadCredentials_WhenPasswordDoesNotMatch() {
+        // Arrange
+        when(userRepository.findByEmail(authRequest.getEmail())).thenReturn(Optional.of(testUser));
+        when(passwordVerifier.matches(authRequest.getPassword(), testUser.getPassword())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> authService.login(authRequest));
+
+        verifyNoInteractions(jwtService);
+        assertEquals(1.0, meterRegistry.counter("auth.login", "outcome", "bad_credentials").count());
+    }
+
+    @Test
+    void login_ShouldThrowBadCredentials_WhenUserNotFound() {
         // Arrange
         when(userRepository.findByEmail(authRequest.getEmail())).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(NoSuchElementException.class, () -> authService.login(authRequest));
+        assertThrows(BadCredentialsException.class, () -> authService.login(authRequest));
 
-        // When user doesn't exist, the exception is thrown in the password encoder check
-        // before authenticationManager.authenticate() is even called
+        // the password is still checked, against no hash, so an unknown email is not answered faster
+        verify(passwordVerifier).matches(authRequest.getPassword(), null);
         verify(userRepository, times(1)).findByEmail(authRequest.getEmail());
-        verifyNoInteractions(authenticationManager);
         verifyNoInteractions(jwtService);
     }
 
+    @Test
+    void login_ShouldCountThrottledLogin_WhenHashPoolIsFull() {
+        // Arrange
+        when(userRepository.findByEmail(authRequest.getEmail())).thenReturn(Optional.of(testUser));
+        when(passwordVerifier.matches(anyString(), anyString())).thenThrow(new LoginThrottledException());
+
+        // Act & Assert
+        assertThrows(LoginThrottledException.class, () -> authService.login(authRequest));
+
+        verifyNoInteractions(jwtService);
+        assertEquals(1.0, meterRegistry.counter("auth.login", "outcome", "throttled").count());
+    }
+
     @Test
     void register_ShouldReturnAuthResponse_WhenValidRequest() {
         // Arrange
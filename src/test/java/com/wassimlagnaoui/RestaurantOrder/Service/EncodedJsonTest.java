@@ -0,0 +1,55 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedJsonTest {
+
+    private EncodedJson encoded;
+
+    @BeforeEach
+    void setUp() {
+        encoded = EncodedJson.of(new ObjectMapper(), List.of(Map.of("tableName", "T1")), 7L, "tables-7");
+    }
+
+    @Test
+    void of_ShouldKeepJsonAndGzippedBodies() throws IOException {
+        // Act
+        byte[] unzipped;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(encoded.body(true)))) {
+            unzipped = gzip.readAllBytes();
+        }
+
+        // Assert
+        assertEquals("[{\"tableName\":\"T1\"}]", new String(encoded.body(false)));
+        assertArrayEquals(encoded.body(false), unzipped);
+        assertEquals(7L, encoded.getVersion());
+    }
+
+    @Test
+    void etag_ShouldBeQuotedAndDifferPerEncoding() {
+        // Assert
+        assertEquals("\"tables-7\"", encoded.etag(false));
+        assertEquals("\"tables-7-gzip\"", encoded.etag(true));
+    }
+
+    @Test
+    void matches_ShouldAcceptEitherEncodingInAList_AndWeakTags() {
+        // Assert
+        assertTrue(encoded.matches("\"tables-7\""));
+        assertTrue(encoded.matches("\"other\", \"tables-7-gzip\""));
+        assertTrue(encoded.matches("W/\"tables-7\""));
+        assertTrue(encoded.matches("*"));
+        assertFalse(encoded.matches("\"tables-6\""));
+        assertFalse(encoded.matches(null));
+    }
+}
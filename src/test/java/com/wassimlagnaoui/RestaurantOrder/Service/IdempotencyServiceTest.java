@@ -0,0 +1,201 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wassimlagnaoui.RestaurantOrder.DTO.OrderItemRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.PlaceOrderRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.PlaceOrderResponse;
+import com.wassimlagnaoui.RestaurantOrder.Exception.IdempotencyKeyReusedException;
+import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemNotFoundException;
+import com.wassimlagnaoui.RestaurantOrder.Repository.IdempotencyRecordRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.IdempotencyRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "POST /orders";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private IdempotencyService idempotencyService;
+
+    private PlaceOrderRequest request;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, objectMapper, transactionManager,
+                100, Duration.ofMinutes(10), Duration.ofSeconds(5), Duration.ofHours(24));
+
+        request = new PlaceOrderRequest();
+        request.setTableSessionId(1L);
+        request.setItems(Arrays.asList(new OrderItemRequest(2, 1L)));
+    }
+
+    private PlaceOrderResponse placeOrder() {
+        runs.incrementAndGet();
+        PlaceOrderResponse response = new PlaceOrderResponse();
+        response.setOrderId(42L);
+        response.setSessionId(1L);
+        response.setStatus("PLACED");
+        response.setCreatedAt(LocalDateTime.of(2025, 8, 19, 12, 0));
+        return response;
+    }
+
+    @Test
+    void execute_ShouldRunOnce_AndAnswerRetryFromMemory() {
+        // Act
+        PlaceOrderResponse first = idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, this::placeOrder);
+        PlaceOrderResponse retry = idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, this::placeOrder);
+
+        // Assert
+        assertEquals(1, runs.get());
+        assertEquals(42L, retry.getOrderId());
+        assertSame(first, retry);
+
+        verify(idempotencyRecordRepository).findById(SCOPE + ":key-1");
+        verify(idempotencyRecordRepository).insert(eq(SCOPE + ":key-1"), anyString(), contains("\"orderId\":42"), any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void execute_ShouldMakeConcurrentDuplicateWaitForFirstRequest() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        CompletableFuture<PlaceOrderResponse> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return placeOrder();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<PlaceOrderResponse> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, this::placeOrder));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        // Assert
+        assertEquals(42L, first.get(5, TimeUnit.SECONDS).getOrderId());
+        assertEquals(42L, duplicate.get(5, TimeUnit.SECONDS).getOrderId());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void execute_ShouldReturnStoredResponse_AfterRestart() throws Exception {
+        // Arrange: the first attempt was stored with the same request before the cache was lost
+        idempotencyService.execute(SCOPE, "key-0", request, PlaceOrderResponse.class, this::placeOrder);
+        verify(idempotencyRecordRepository).insert(anyString(), anyString(), anyString(), any());
+        String fingerprint = mockingDetails(idempotencyRecordRepository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("insert"))
+                .findFirst().orElseThrow().getArgument(1);
+        when(idempotencyRecordRepository.findById(SCOPE + ":key-1")).thenReturn(Optional.of(new IdempotencyRecord(
+                SCOPE + ":key-1", fingerprint, objectMapper.writeValueAsString(placeOrder()), LocalDateTime.now())));
+        runs.set(0);
+
+        // Act
+        PlaceOrderResponse response = idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, this::placeOrder);
+
+        // Assert
+        assertEquals(0, runs.get());
+        assertEquals(42L, response.getOrderId());
+        assertEquals(LocalDateTime.of(2025, 8, 19, 12, 0), response.getCreatedAt());
+    }
+
+    @Test
+    void execute_ShouldRejectKeyReusedForDifferentRequest() {
+        // Arrange
+        idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, this::placeOrder);
+        PlaceOrderRequest other = new PlaceOrderRequest();
+        other.setTableSessionId(2L);
+        other.setItems(Arrays.asList(new OrderItemRequest(1, 3L)));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute(SCOPE, "key-1", other, PlaceOrderResponse.class, this::placeOrder));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void execute_ShouldRunAgain_WhenFirstAttemptFailed() {
+        // Arrange
+        assertThrows(MenuItemNotFoundException.class, () -> idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, () -> {
+            throw new MenuItemNotFoundException();
+        }));
+
+        // Act
+        PlaceOrderResponse response = idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, this::placeOrder);
+
+        // Assert
+        assertEquals(42L, response.getOrderId());
+        assertEquals(1, runs.get());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void execute_ShouldReturnOtherInstanceResponse_WhenKeyWasStoredConcurrently() throws Exception {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(idempotencyRecordRepository).insert(anyString(), anyString(), anyString(), any());
+        when(idempotencyRecordRepository.findById(SCOPE + ":key-1")).thenAnswer(invocation -> runs.get() == 0
+                ? Optional.empty()
+                : Optional.of(new IdempotencyRecord(SCOPE + ":key-1", fingerprintOf(request), objectMapper.writeValueAsString(placeOrder()), LocalDateTime.now())));
+
+        // Act
+        PlaceOrderResponse response = idempotencyService.execute(SCOPE, "key-1", request, PlaceOrderResponse.class, this::placeOrder);
+
+        // Assert
+        assertEquals(42L, response.getOrderId());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void execute_ShouldRejectBlankKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.execute(SCOPE, " ", request, PlaceOrderResponse.class, this::placeOrder));
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    private String fingerprintOf(Object value) throws Exception {
+        byte[] digest = java.security.MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(value));
+        return java.util.HexFormat.of().formatHex(digest);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderStatusChangedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Repository.OrderItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KitchenQueueIndexTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private KitchenQueueIndex kitchenQueueIndex;
+
+    private final LocalDateTime noon = LocalDateTime.of(2025, 8, 19, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        kitchenQueueIndex = new KitchenQueueIndex(orderItemRepository, transactionManager);
+    }
+
+    private KitchenOrderQueueResponse item(long orderItemId, long orderId, LocalDateTime orderDate) {
+        return new KitchenOrderQueueResponse(orderItemId, orderId, "T1", "Burger", 1, false, orderDate);
+    }
+
+    @Test
+    void rebuild_ShouldLoadUnservedItemsFromOneStreamingQuery() {
+        // Arrange
+        when(orderItemRepository.streamKitchenQueue()).thenReturn(Stream.of(
+            item(1L, 1L, noon),
+            item(2L, 1L, noon)
+        ));
+
+        // Act
+        kitchenQueueIndex.rebuild();
+
+        // Assert
+        assertEquals(2, kitchenQueueIndex.size());
+        assertEquals(1L, kitchenQueueIndex.find(1L).orElseThrow().getOrderId());
+        assertTrue(kitchenQueueIndex.find(3L).isEmpty());
+
+        verify(orderItemRepository).streamKitchenQueue();
+        verifyNoMoreInteractions(orderItemRepository);
+    }
+
+    @Test
+    void oldestOrderDate_ShouldBeTheFirstQueuedItem_AndEmptyWhenIdle() {
+        // Arrange
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(2L, noon.plusMinutes(5), Arrays.asList(item(2L, 2L, noon.plusMinutes(5)))));
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(1L, noon, Arrays.asList(item(1L, 1L, noon))));
+
+        // Act & Assert
+        assertEquals(noon, kitchenQueueIndex.oldestOrderDate().orElseThrow());
+        kitchenQueueIndex.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+        assertEquals(noon.plusMinutes(5), kitchenQueueIndex.oldestOrderDate().orElseThrow());
+        kitchenQueueIndex.onOrderItemServed(new OrderItemServedEvent(2L, 2L));
+        assertTrue(kitchenQueueIndex.oldestOrderDate().isEmpty());
+    }
+
+    @Test
+    void items_ShouldBeOrderedByOrderDate() {
+        // Arrange
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(2L, noon.plusMinutes(5), Arrays.asList(item(5L, 2L, noon.plusMinutes(5)))));
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(1L, noon, Arrays.asList(item(4L, 1L, noon), item(3L, 1L, noon))));
+
+        // Act
+        List<KitchenOrderQueueResponse> items = kitchenQueueIndex.items();
+
+        // Assert
+        assertEquals(3, items.size());
+        assertEquals(3L, items.get(0).getOrderItemId());
+        assertEquals(4L, items.get(1).getOrderItemId());
+        assertEquals(5L, items.get(2).getOrderItemId());
+    }
+
+    @Test
+    void items_ShouldReturnEmptyList_WhenKitchenIsIdle() {
+        // Act
+        List<KitchenOrderQueueResponse> items = kitchenQueueIndex.items();
+
+        // Assert
+        assertNotNull(items);
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    void onOrderItemServed_ShouldRemoveItem() {
+        // Arrange
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(1L, noon, Arrays.asList(item(1L, 1L, noon), item(2L, 1L, noon))));
+
+        // Act
+        kitchenQueueIndex.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+
+        // Assert
+        assertEquals(1, kitchenQueueIndex.size());
+        assertTrue(kitchenQueueIndex.find(1L).isEmpty());
+        assertEquals(2L, kitchenQueueIndex.items().get(0).getOrderItemId());
+    }
+
+    @Test
+    void onOrderItemServed_ShouldDropItem_WhenServeArrivesBeforePlacement() {
+        // Act
+        kitchenQueueIndex.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(1L, noon, Arrays.asList(item(1L, 1L, noon), item(2L, 1L, noon))));
+
+        // Assert
+        assertEquals(1, kitchenQueueIndex.size());
+        assertTrue(kitchenQueueIndex.find(1L).isEmpty());
+    }
+
+    @Test
+    void onOrderStatusChanged_ShouldRemoveItemsOfCancelledOrder() {
+        // Arrange
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(1L, noon, Arrays.asList(item(1L, 1L, noon), item(2L, 1L, noon))));
+        kitchenQueueIndex.onOrderPlaced(new OrderPlacedEvent(2L, noon, Arrays.asList(item(3L, 2L, noon))));
+
+        // Act
+        kitchenQueueIndex.onOrderStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.CANCELLED.name()));
+        kitchenQueueIndex.onOrderStatusChanged(new OrderStatusChangedEvent(2L, OrderStatus.SERVED.name()));
+
+        // Assert
+        assertEquals(1, kitchenQueueIndex.size());
+        assertTrue(kitchenQueueIndex.find(1L).isEmpty());
+        assertTrue(kitchenQueueIndex.find(3L).isPresent());
+    }
+}
@@ -0,0 +1,197 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KitchenStreamServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private final List<Runnable> pendingSends = new ArrayList<>();
+
+    private KitchenOrderQueueResponse queueItem(long orderItemId) {
+        return new KitchenOrderQueueResponse(orderItemId, 1L, "T1", "Burger", 2, false, LocalDateTime.now());
+    }
+
+    private void runPendingSends() {
+        List<Runnable> sends = new ArrayList<>(pendingSends);
+        pendingSends.clear();
+        sends.forEach(Runnable::run);
+    }
+
+    private KitchenStreamService service(Executor executor, int bufferSize) {
+        return new KitchenStreamService(orderService, executor, bufferSize, 60_000L) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotFirst_ThenDeltas() {
+        // Arrange
+        when(orderService.getNotServedItems()).thenReturn(Arrays.asList(queueItem(1L)));
+        KitchenStreamService kitchenStreamService = service(Runnable::run, 16);
+
+        // Act
+        RecordingEmitter emitter = (RecordingEmitter) kitchenStreamService.subscribe();
+        kitchenStreamService.onOrderPlaced(new OrderPlacedEvent(2L, LocalDateTime.now(), Arrays.asList(queueItem(2L), queueItem(3L))));
+        kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+        kitchenStreamService.onOrderStatusChanged(new OrderStatusChangedEvent(2L, "CANCELLED"));
+
+        // Assert
+        assertEquals(5, emitter.sent.size());
+        assertTrue(emitter.sent.get(0).contains("event:" + KitchenStreamService.SNAPSHOT));
+        assertTrue(emitter.sent.get(1).contains("event:" + KitchenStreamService.ITEM_ADDED));
+        assertTrue(emitter.sent.get(2).contains("event:" + KitchenStreamService.ITEM_ADDED));
+        assertTrue(emitter.sent.get(3).contains("event:" + KitchenStreamService.ITEM_SERVED));
+        assertTrue(emitter.sent.get(4).contains("event:" + KitchenStreamService.ORDER_STATUS));
+        assertEquals(1, kitchenStreamService.getClientCount());
+    }
+
+    @Test
+    void subscribe_ShouldSendSnapshotFirst_WhenDeltaArrivesWhileSnapshotIsRead() {
+        // Arrange
+        KitchenStreamService kitchenStreamService = service(pendingSends::add, 16);
+        when(orderService.getNotServedItems()).thenAnswer(invocation -> {
+            kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+            // a sender thread picks up whatever was handed to the pool while the snapshot is still being read
+            runPendingSends();
+            return Arrays.asList(queueItem(1L));
+        });
+
+        // Act
+        RecordingEmitter emitter = (RecordingEmitter) kitchenStreamService.subscribe();
+        runPendingSends();
+
+        // Assert
+        assertEquals(2, emitter.sent.size());
+        assertTrue(emitter.sent.get(0).contains("event:" + KitchenStreamService.SNAPSHOT));
+        assertTrue(emitter.sent.get(1).contains("event:" + KitchenStreamService.ITEM_SERVED));
+    }
+
+    @Test
+    void subscribe_ShouldDisconnectClient_WhenDeltasFillBufferBeforeSnapshot() {
+        // Arrange
+        KitchenStreamService kitchenStreamService = service(pendingSends::add, 1);
+        when(orderService.getNotServedItems()).thenAnswer(invocation -> {
+            kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+            kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(2L, 1L));
+            return Arrays.asList(queueItem(1L));
+        });
+
+        // Act
+        RecordingEmitter emitter = (RecordingEmitter) kitchenStreamService.subscribe();
+
+        // Assert
+        assertEquals(0, kitchenStreamService.getClientCount());
+        assertTrue(emitter.completed);
+        assertTrue(pendingSends.isEmpty());
+        assertTrue(emitter.sent.isEmpty());
+    }
+
+    @Test
+    void subscribe_ShouldSendEmptySnapshot_WhenKitchenIsIdle() {
+        // Arrange
+        when(orderService.getNotServedItems()).thenReturn(new ArrayList<>());
+        KitchenStreamService kitchenStreamService = service(Runnable::run, 16);
+
+        // Act
+        RecordingEmitter emitter = (RecordingEmitter) kitchenStreamService.subscribe();
+
+        // Assert
+        assertEquals(1, emitter.sent.size());
+        assertTrue(emitter.sent.get(0).contains("event:" + KitchenStreamService.SNAPSHOT));
+    }
+
+    @Test
+    void heartbeat_ShouldSendComment() {
+        // Arrange
+        when(orderService.getNotServedItems()).thenReturn(new ArrayList<>());
+        KitchenStreamService kitchenStreamService = service(Runnable::run, 16);
+        RecordingEmitter emitter = (RecordingEmitter) kitchenStreamService.subscribe();
+
+        // Act
+        kitchenStreamService.heartbeat();
+
+        // Assert
+        assertEquals(2, emitter.sent.size());
+        assertTrue(emitter.sent.get(1).startsWith(":heartbeat"));
+    }
+
+    @Test
+    void broadcast_ShouldDisconnectClient_WhenBufferIsFull() {
+        // Arrange
+        when(orderService.getNotServedItems()).thenReturn(new ArrayList<>());
+        KitchenStreamService kitchenStreamService = service(pendingSends::add, 2);
+        RecordingEmitter emitter = (RecordingEmitter) kitchenStreamService.subscribe();
+
+        // Act
+        kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+        kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(2L, 1L));
+        assertEquals(1, kitchenStreamService.getClientCount());
+        kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(3L, 1L));
+
+        // Assert
+        assertEquals(0, kitchenStreamService.getClientCount());
+        assertTrue(emitter.completed);
+        assertEquals(1, pendingSends.size());
+    }
+
+    @Test
+    void broadcast_ShouldDropClient_WhenSendFails() {
+        // Arrange
+        when(orderService.getNotServedItems()).thenReturn(new ArrayList<>());
+        KitchenStreamService kitchenStreamService = service(Runnable::run, 16);
+        RecordingEmitter emitter = (RecordingEmitter) kitchenStreamService.subscribe();
+        emitter.broken = true;
+
+        // Act
+        kitchenStreamService.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+
+        // Assert
+        assertEquals(0, kitchenStreamService.getClientCount());
+        assertTrue(emitter.completed);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private boolean completed;
+        private boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Event.MenuItemsChangedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MenuCatalogTest {
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @InjectMocks
+    private MenuCatalog menuCatalog;
+
+    private MenuItem burger;
+    private MenuItem pizza;
+
+    @BeforeEach
+    void setUp() {
+        burger = new MenuItem();
+        burger.setId(1L);
+        burger.setName("Burger");
+        burger.setPrice(12.99);
+        burger.setAvailable(true);
+
+        pizza = new MenuItem();
+        pizza.setId(2L);
+        pizza.setName("Pizza");
+        pizza.setPrice(15.99);
+        pizza.setAvailable(true);
+    }
+
+    @Test
+    void reload_ShouldLoadAllMenuItemsIntoNewSnapshot() {
+        // Arrange
+        when(menuItemRepository.findAll()).thenReturn(Arrays.asList(burger, pizza));
+
+        // Act
+        menuCatalog.reload();
+        MenuCatalog.Snapshot snapshot = menuCatalog.snapshot();
+
+        // Assert
+        assertEquals(1L, snapshot.getVersion());
+        assertEquals(2, snapshot.size());
+        assertEquals("Burger", snapshot.find(1L).orElseThrow().getName());
+        assertEquals(15.99, snapshot.find(2L).orElseThrow().getPrice());
+        assertTrue(snapshot.find(3L).isEmpty());
+
+        verify(menuItemRepository).findAll();
+    }
+
+    @Test
+    void publish_ShouldCreateNewVersion_WithoutChangingPreviousSnapshot() {
+        // Arrange
+        when(menuItemRepository.findAll()).thenReturn(Arrays.asList(burger));
+        menuCatalog.reload();
+        MenuCatalog.Snapshot before = menuCatalog.snapshot();
+
+        // Act
+        burger.setPrice(14.99);
+        burger.setAvailable(false);
+        menuCatalog.publish(burger);
+        MenuCatalog.Snapshot after = menuCatalog.snapshot();
+
+        // Assert
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(12.99, before.find(1L).orElseThrow().getPrice());
+        assertTrue(before.find(1L).orElseThrow().isAvailable());
+        assertEquals(14.99, after.find(1L).orElseThrow().getPrice());
+        assertFalse(after.find(1L).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void publish_ShouldAddNewMenuItem() {
+        // Act
+        menuCatalog.publish(pizza);
+
+        // Assert
+        assertEquals(1, menuCatalog.snapshot().size());
+        assertEquals("Pizza", menuCatalog.snapshot().find(2L).orElseThrow().getName());
+        verifyNoInteractions(menuItemRepository);
+    }
+
+    @Test
+    void onMenuItemsChanged_ShouldPublishAllItemsAsOneVersion() {
+        // Arrange
+        when(menuItemRepository.findAll()).thenReturn(Arrays.asList(burger));
+        menuCatalog.reload();
+        long before = menuCatalog.snapshot().getVersion();
+        burger.setPrice(13.49);
+
+        // Act
+        menuCatalog.onMenuItemsChanged(new MenuItemsChangedEvent(List.of(burger, pizza)));
+        MenuCatalog.Snapshot after = menuCatalog.snapshot();
+
+        // Assert
+        assertEquals(before + 1, after.getVersion());
+        assertEquals(2, after.size());
+        assertEquals(13.49, after.find(1L).orElseThrow().getPrice());
+        assertEquals("Pizza", after.find(2L).orElseThrow().getName());
+    }
+
+    @Test
+    void applyStock_ShouldKeepVersion_WhenNoItemSellsOutOrComesBack() {
+        // Arrange
+        burger.setStock(10);
+        when(menuItemRepository.findAll()).thenReturn(Arrays.asList(burger));
+        menuCatalog.reload();
+        MenuCatalog.Snapshot before = menuCatalog.snapshot();
+
+        // Act
+        menuCatalog.applyStock(Map.of(1L, 4, 3L, 0));
+
+        // Assert
+        assertSame(before, menuCatalog.snapshot());
+        assertEquals(10, menuCatalog.snapshot().find(1L).orElseThrow().getStock());
+    }
+
+    @Test
+    void applyStock_ShouldOnlyChangeStockAndAvailability_OfCurrentEntries() {
+        // Arrange
+        burger.setStock(2);
+        pizza.setStock(0);
+        pizza.setAvailable(false);
+        when(menuItemRepository.findAll()).thenReturn(Arrays.asList(burger, pizza));
+        menuCatalog.reload();
+        burger.setPrice(13.49);
+        menuCatalog.publish(burger);
+        long before = menuCatalog.snapshot().getVersion();
+
+        // Act
+        menuCatalog.applyStock(Map.of(1L, 0, 2L, 5));
+        MenuCatalog.Snapshot after = menuCatalog.snapshot();
+
+        // Assert
+        assertEquals(before + 1, after.getVersion());
+        assertEquals(13.49, after.find(1L).orElseThrow().getPrice());
+        assertEquals(0, after.find(1L).orElseThrow().getStock());
+        assertFalse(after.find(1L).orElseThrow().isAvailable());
+        assertEquals(5, after.find(2L).orElseThrow().getStock());
+        assertTrue(after.find(2L).orElseThrow().isAvailable());
+        assertEquals("Pizza", after.find(2L).orElseThrow().getName());
+    }
+
+    @Test
+    void publishAll_ShouldKeepVersion_WhenNothingChanged() {
+        // Act
+        menuCatalog.publishAll(List.of());
+
+        // Assert
+        assertEquals(0L, menuCatalog.snapshot().getVersion());
+    }
+}
@@ -1,7 +1,13 @@
 package com.wassimlagnaoui.RestaurantOrder.Service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.MenuItemResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.BulkMenuUpdateRequest;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.MenuItemChange;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.BulkMenuUpdateResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
+import com.wassimlagnaoui.RestaurantOrder.Event.MenuItemsChangedEvent;
 import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemIdNotFoundException;
 import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemNotAvailableException;
 import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
@@ -9,11 +15,16 @@ import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +38,21 @@ class MenuItemServiceTest {
     @Mock
     private MenuItemRepository menuItemRepository;
 
+    @Mock
+    private MenuCatalog menuCatalog;
+
+    @Mock
+    private MenuSearchIndex menuSearchIndex;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MenuStockCounters menuStockCounters;
+
     @InjectMocks
     private MenuItemService menuItemService;
 
@@ -148,6 +174,7 @@ class MenuItemServiceTest {
         assertTrue(response.isAvailable()); // Should be true by default
 
         verify(menuItemRepository).save(any(MenuItem.class));
+        verify(menuCatalog).publish(savedMenuItem);
     }
 
     @Test
@@ -166,6 +193,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository).save(testMenuItem);
+        verify(menuCatalog).publish(testMenuItem);
     }
 
     @Test
@@ -184,6 +212,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository).save(testMenuItem);
+        verify(menuCatalog).publish(testMenuItem);
     }
 
     @Test
@@ -196,45 +225,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository, never()).save(any());
-    }
-
-    @Test
-    void getAvailableMenuItems_ShouldReturnOnlyAvailableItems() {
-        // Arrange
-        MenuItem unavailableItem = new MenuItem();
-        unavailableItem.setId(2L);
-        unavailableItem.setName("Unavailable Item");
-        unavailableItem.setAvailable(false);
-
-        List<MenuItem> allItems = Arrays.asList(testMenuItem, unavailableItem);
-        when(menuItemRepository.findAll()).thenReturn(allItems);
-
-        // Act
-        List<MenuItemResponse> responses = menuItemService.getAvailableMenuItems();
-
-        // Assert
-        assertNotNull(responses);
-        assertEquals(1, responses.size());
-        assertEquals("Cheeseburger", responses.get(0).getName());
-        assertTrue(responses.get(0).isAvailable());
-
-        verify(menuItemRepository).findAll();
-    }
-
-    @Test
-    void getAvailableMenuItems_ShouldReturnEmptyList_WhenNoAvailableItems() {
-        // Arrange
-        testMenuItem.setAvailable(false);
-        when(menuItemRepository.findAll()).thenReturn(Arrays.asList(testMenuItem));
-
-        // Act
-        List<MenuItemResponse> responses = menuItemService.getAvailableMenuItems();
-
-        // Assert
-        assertNotNull(responses);
-        assertTrue(responses.isEmpty());
-
-        verify(menuItemRepository).findAll();
+        verifyNoInteractions(menuCatalog);
     }
 
     @Test
@@ -276,6 +267,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository).save(testMenuItem);
+        verify(menuCatalog).publish(testMenuItem);
     }
 
     @Test
@@ -289,6 +281,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository, never()).save(any());
+        verifyNoInteractions(menuCatalog);
     }
 
     @Test
@@ -307,6 +300,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository).save(testMenuItem);
+        verify(menuCatalog).publish(testMenuItem);
     }
 
     @Test
@@ -320,6 +314,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository, never()).save(any());
+        verifyNoInteractions(menuCatalog);
     }
 
     @Test
@@ -338,6 +333,7 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository).save(testMenuItem);
+        verify(menuCatalog).publish(testMenuItem);
     }
 
     @Test
@@ -351,5 +347,185 @@ class MenuItemServiceTest {
 
         verify(menuItemRepository).findById(1L);
         verify(menuItemRepository, never()).save(any());
+        verifyNoInteractions(menuCatalog);
+    }
+
+    @Test
+    void getAvailableMenuJson_ShouldEncodeAvailableItemsOncePerCatalogVersion() throws Exception {
+        // Arrange
+        MenuItem soldOut = new MenuItem();
+        soldOut.setId(2L);
+        soldOut.setName("Soup of the day");
+        soldOut.setPrice(6.5);
+        soldOut.setAvailable(false);
+        testMenuItem.setStock(7);
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(3L, List.of(testMenuItem, soldOut)));
+
+        // Act
+        EncodedJson first = menuItemService.getAvailableMenuJson();
+        EncodedJson second = menuItemService.getAvailableMenuJson();
+
+        // Assert
+        assertSame(first, second);
+        MenuItemResponse[] body = objectMapper.readValue(first.body(false), MenuItemResponse[].class);
+        assertEquals(1, body.length);
+        assertEquals("Cheeseburger", body[0].getName());
+        assertNull(body[0].getStock());
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        verifyNoInteractions(menuItemRepository);
+    }
+
+    @Test
+    void getAvailableMenuJson_ShouldChangeETag_WhenCatalogVersionChanges() {
+        // Arrange
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(3L, List.of(testMenuItem)));
+        EncodedJson before = menuItemService.getAvailableMenuJson();
+        testMenuItem.setPrice(13.99);
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(4L, List.of(testMenuItem)));
+
+        // Act
+        EncodedJson after = menuItemService.getAvailableMenuJson();
+
+        // Assert
+        assertNotEquals(before.etag(false), after.etag(false));
+        assertFalse(after.matches(before.etag(false)));
+        assertTrue(new String(after.body(false)).contains("13.99"));
+    }
+
+    @Test
+    void getMenuItemPage_ShouldPushFiltersDown_AndReturnCursorAndTotal() {
+        // Arrange
+        MenuItem next = new MenuItem();
+        next.setId(5L);
+        next.setName("Veggie Burger");
+        next.setPrice(11.5);
+        next.setCategory("Main Course");
+        next.setAvailable(true);
+        when(menuItemRepository.findPage(0L, "Main Course", true, 10.0, 20.0, Limit.of(2))).thenReturn(List.of(testMenuItem, next));
+        when(menuItemRepository.countPage("Main Course", true, 10.0, 20.0)).thenReturn(2L);
+
+        // Act
+        KeysetPage<MenuItemResponse> page = menuItemService.getMenuItemPage(null, 1, "Main Course", true, 10.0, 20.0);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertEquals("Cheeseburger", page.getItems().get(0).getName());
+        assertEquals(1L, page.getNextCursor());
+        assertEquals(2L, page.getTotal());
+        verify(menuItemRepository, never()).findAll();
+    }
+
+    @Test
+    void getMenuItemPage_ShouldRejectInvertedPriceRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> menuItemService.getMenuItemPage(null, 10, null, null, 20.0, 10.0));
+
+        verifyNoInteractions(menuItemRepository);
+    }
+
+    @Test
+    void searchMenuItems_ShouldMapRankedItemsFromIndex() {
+        // Arrange
+        when(menuSearchIndex.search("chese", 5, true)).thenReturn(List.of(testMenuItem));
+
+        // Act
+        List<MenuItemResponse> responses = menuItemService.searchMenuItems("chese", 5, true);
+
+        // Assert
+        assertEquals(1, responses.size());
+        assertEquals("Cheeseburger", responses.get(0).getName());
+        verifyNoInteractions(menuItemRepository);
+    }
+
+    @Test
+    void bulkUpdate_ShouldApplyAllChanges_AndPublishOneCatalogEvent() {
+        // Arrange
+        MenuItem salad = MenuItem.builder().id(2L).name("Caesar Salad").description("Romaine")
+                .price(9.5).imageUrl("salad.jpg").category("Starters").available(true).build();
+        when(menuItemRepository.findAllById(any())).thenReturn(List.of(testMenuItem, salad));
+        when(menuItemRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<MenuItem> menuItems = invocation.getArgument(0);
+            menuItems.forEach(menuItem -> menuItem.setId(3L));
+            return menuItems;
+        });
+        BulkMenuUpdateRequest request = new BulkMenuUpdateRequest(List.of(menuItemRequest), List.of(
+                new MenuItemChange(1L, null, null, 13.99, null, null, null),
+                new MenuItemChange(2L, null, null, null, null, null, false)));
+
+        // Act
+        BulkMenuUpdateResponse response = menuItemService.bulkUpdate(request);
+
+        // Assert
+        assertEquals(1, response.getCreated().size());
+        assertEquals(3L, response.getCreated().get(0).getId());
+        assertEquals(2, response.getUpdated().size());
+        assertEquals(13.99, testMenuItem.getPrice());
+        assertEquals("Cheeseburger", testMenuItem.getName());
+        assertFalse(salad.isAvailable());
+        assertEquals(9.5, salad.getPrice());
+
+        ArgumentCaptor<MenuItemsChangedEvent> event = ArgumentCaptor.forClass(MenuItemsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(3, event.getValue().getMenuItems().size());
+        verify(menuItemRepository, times(1)).findAllById(any());
+        verify(menuItemRepository, never()).findById(any());
+        verify(menuItemRepository, never()).save(any());
+        verifyNoInteractions(menuCatalog);
+    }
+
+    @Test
+    void bulkUpdate_ShouldThrowException_WhenMenuItemNotFound() {
+        // Arrange
+        when(menuItemRepository.findAllById(any())).thenReturn(List.of(testMenuItem));
+        BulkMenuUpdateRequest request = new BulkMenuUpdateRequest(List.of(), List.of(
+                new MenuItemChange(1L, null, null, 13.99, null, null, null),
+                new MenuItemChange(99L, null, null, 1.0, null, null, null)));
+
+        // Act & Assert
+        assertThrows(MenuItemIdNotFoundException.class, () -> menuItemService.bulkUpdate(request));
+        verify(menuItemRepository, never()).saveAll(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void bulkUpdate_ShouldRejectEmptyOversizedOrDuplicateBatches() {
+        // Arrange
+        List<MenuItemRequest> tooMany = Collections.nCopies(MenuItemService.MAX_BULK_CHANGES + 1, menuItemRequest);
+        MenuItemChange change = new MenuItemChange(1L, null, null, 13.99, null, null, null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> menuItemService.bulkUpdate(new BulkMenuUpdateRequest(List.of(), List.of())));
+        assertThrows(IllegalArgumentException.class, () -> menuItemService.bulkUpdate(new BulkMenuUpdateRequest(tooMany, List.of())));
+        assertThrows(IllegalArgumentException.class, () -> menuItemService.bulkUpdate(new BulkMenuUpdateRequest(List.of(), List.of(change, change))));
+        verifyNoInteractions(menuItemRepository, eventPublisher);
+    }
+
+    @Test
+    void updateStock_ShouldRestockThroughCounters_AndReturnCatalogEntry() {
+        // Arrange
+        // the catalog keeps its version when the item neither sold out nor comes back
+        MenuItem catalogEntry = testMenuItem.toBuilder().stock(3).build();
+        when(menuItemRepository.findById(1L)).thenReturn(Optional.of(testMenuItem));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(2L, List.of(catalogEntry)));
+
+        // Act
+        MenuItemResponse response = menuItemService.updateStock(1L, 12);
+
+        // Assert
+        assertEquals(12, response.getStock());
+        assertEquals("Cheeseburger", response.getName());
+        verify(menuStockCounters).restock(1L, 12);
+        verify(menuItemRepository, never()).save(any());
+    }
+
+    @Test
+    void updateStock_ShouldThrowException_WhenMenuItemNotFound() {
+        // Arrange
+        when(menuItemRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(MenuItemIdNotFoundException.class, () -> menuItemService.updateStock(99L, 5));
+        verifyNoInteractions(menuStockCounters);
     }
 }
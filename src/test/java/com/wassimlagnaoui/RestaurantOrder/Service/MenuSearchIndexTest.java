@@ -0,0 +1,126 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MenuSearchIndexTest {
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    private MenuCatalog menuCatalog;
+
+    private MenuSearchIndex menuSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        menuCatalog = new MenuCatalog(menuItemRepository);
+        menuSearchIndex = new MenuSearchIndex(menuCatalog);
+
+        when(menuItemRepository.findAll()).thenReturn(List.of(
+                menuItem(1L, "Cheeseburger", "Mains", "Beef patty with cheddar", true),
+                menuItem(2L, "Margherita Pizza", "Mains", "Tomato, mozzarella and basil", true),
+                menuItem(3L, "Caesar Salad", "Starters", "Romaine with parmesan and croûtons", true),
+                menuItem(4L, "Crème Brûlée", "Desserts", "Vanilla custard", true),
+                menuItem(5L, "Burger of the Day", "Mains", "Ask your server", false)
+        ));
+        menuCatalog.reload();
+    }
+
+    @Test
+    void search_ShouldMatchWordPrefixesAsTheyAreTyped() {
+        // Act & Assert
+        assertEquals(List.of("Margherita Pizza"), names(menuSearchIndex.search("piz", 10, true)));
+        assertEquals(List.of("Caesar Salad"), names(menuSearchIndex.search("s", 10, true)).subList(0, 1));
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        // Act & Assert
+        assertEquals("Cheeseburger", names(menuSearchIndex.search("chesburger", 10, true)).get(0));
+        assertEquals("Margherita Pizza", names(menuSearchIndex.search("margarita ", 10, true)).get(0));
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAndAccents() {
+        // Act & Assert
+        assertEquals("Crème Brûlée", names(menuSearchIndex.search("CREME brulee", 10, true)).get(0));
+        assertEquals("Caesar Salad", names(menuSearchIndex.search("croutons", 10, true)).get(0));
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Arrange
+        menuCatalog.publish(menuItem(6L, "Veggie Wrap", "Mains", "Tastes like a cheeseburger", true));
+
+        // Act
+        List<String> results = names(menuSearchIndex.search("cheeseburger", 10, true));
+
+        // Assert
+        assertEquals(List.of("Cheeseburger", "Veggie Wrap"), results);
+    }
+
+    @Test
+    void search_ShouldLeaveOutUnavailableItems_UnlessAsked() {
+        // Act & Assert
+        assertEquals(List.of("Cheeseburger"), names(menuSearchIndex.search("burger", 10, true)));
+        assertEquals(2, menuSearchIndex.search("burger", 10, false).size());
+    }
+
+    @Test
+    void search_ShouldFollowCatalogWrites() {
+        // Arrange
+        assertEquals(1, menuSearchIndex.search("cheeseburger", 10, true).size());
+
+        // Act
+        menuCatalog.publish(menuItem(1L, "Bacon Double", "Mains", "Beef patty with bacon", true));
+
+        // Assert
+        assertTrue(menuSearchIndex.search("cheeseburger", 10, true).isEmpty());
+        assertEquals(List.of("Bacon Double"), names(menuSearchIndex.search("bacon", 10, true)));
+        // unchanged items are still found
+        assertEquals(List.of("Margherita Pizza"), names(menuSearchIndex.search("pizza", 10, true)));
+        verify(menuItemRepository, times(1)).findAll();
+    }
+
+    @Test
+    void search_ShouldReturnNothing_ForQueriesWithoutLettersOrDigits() {
+        // Act & Assert
+        assertTrue(menuSearchIndex.search("  -- ", 10, true).isEmpty());
+        assertTrue(menuSearchIndex.search("xylophone", 10, true).isEmpty());
+    }
+
+    @Test
+    void search_ShouldApplyLimit_AndRejectLimitsOutOfRange() {
+        // Act & Assert
+        assertEquals(1, menuSearchIndex.search("mains", 1, true).size());
+        assertThrows(IllegalArgumentException.class, () -> menuSearchIndex.search("pizza", 0, true));
+        assertThrows(IllegalArgumentException.class, () -> menuSearchIndex.search("pizza", MenuSearchIndex.MAX_LIMIT + 1, true));
+    }
+
+    private static MenuItem menuItem(Long id, String name, String category, String description, boolean available) {
+        return MenuItem.builder()
+                .id(id)
+                .name(name)
+                .category(category)
+                .description(description)
+                .price(10.0)
+                .available(available)
+                .build();
+    }
+
+    private static List<String> names(List<MenuItem> menuItems) {
+        return menuItems.stream().map(MenuItem::getName).toList();
+    }
+}
@@ -0,0 +1,255 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.Event.StockReservedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemSoldOutException;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemStockJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MenuStockCountersTest {
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @Mock
+    private MenuItemStockJdbcRepository menuItemStockJdbcRepository;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private org.hibernate.Cache hibernateCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MenuCatalog menuCatalog;
+
+    private MenuStockCounters menuStockCounters;
+
+    @BeforeEach
+    void setUp() {
+        menuCatalog = new MenuCatalog(menuItemRepository);
+        when(menuItemRepository.findAll()).thenReturn(List.of(
+                menuItem(1L, "Burger", 10),
+                menuItem(2L, "Soup of the Day", 1),
+                menuItem(3L, "Fries", null)
+        ));
+        menuCatalog.reload();
+
+        menuStockCounters = new MenuStockCounters(menuCatalog, menuItemStockJdbcRepository, entityManagerFactory,
+                transactionManager);
+        menuStockCounters.load();
+    }
+
+    @Test
+    void reserve_ShouldTakeCountedItems_AndSkipUncountedOnes() {
+        // Act
+        Map<Long, Integer> reserved = menuStockCounters.reserve(Map.of(1L, 3, 3L, 50));
+
+        // Assert
+        assertEquals(Map.of(1L, 3), reserved);
+        assertEquals(OptionalInt.of(7), menuStockCounters.remaining(1L));
+        assertEquals(OptionalInt.empty(), menuStockCounters.remaining(3L));
+    }
+
+    @Test
+    void reserve_ShouldTakeNothing_WhenOneLineIsSoldOut() {
+        // Act & Assert
+        MenuItemSoldOutException exception = assertThrows(MenuItemSoldOutException.class,
+                () -> menuStockCounters.reserve(Map.of(1L, 2, 2L, 2)));
+
+        assertTrue(exception.getMessage().contains("2"));
+        assertEquals(OptionalInt.of(10), menuStockCounters.remaining(1L));
+        assertEquals(OptionalInt.of(1), menuStockCounters.remaining(2L));
+    }
+
+    @Test
+    void reserve_ShouldNeverOversell_UnderConcurrentOrders() throws Exception {
+        // Arrange
+        stubCaches();
+        menuStockCounters.restock(1L, 500);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        for (int thread = 0; thread < 8; thread++) {
+            results.add(executor.submit(() -> {
+                int sold = 0;
+                for (int order = 0; order < 100; order++) {
+                    try {
+                        menuStockCounters.reserve(Map.of(1L, 1));
+                        sold++;
+                    } catch (MenuItemSoldOutException e) {
+                        // the last portions went to another table
+                    }
+                }
+                return sold;
+            }));
+        }
+        int sold = 0;
+        for (Future<Integer> result : results) {
+            sold += result.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(500, sold);
+        assertEquals(OptionalInt.of(0), menuStockCounters.remaining(1L));
+    }
+
+    @Test
+    void onStockReservedRolledBack_ShouldGiveStockBack() {
+        // Arrange
+        Map<Long, Integer> reserved = menuStockCounters.reserve(Map.of(1L, 4));
+
+        // Act
+        menuStockCounters.onStockReservedRolledBack(new StockReservedEvent(reserved));
+
+        // Assert
+        assertEquals(OptionalInt.of(10), menuStockCounters.remaining(1L));
+    }
+
+    @Test
+    void flush_ShouldWriteChangedItemsInOneBatch_AndMarkSoldOutItemsUnavailable() {
+        // Arrange
+        stubCaches();
+        long version = menuCatalog.snapshot().getVersion();
+        menuStockCounters.reserve(Map.of(1L, 3));
+        menuStockCounters.reserve(Map.of(1L, 1, 2L, 1));
+
+        // Act
+        menuStockCounters.flush();
+        menuStockCounters.flush();
+
+        // Assert
+        Map<Long, Integer> expected = new HashMap<>();
+        expected.put(1L, 6);
+        expected.put(2L, 0);
+        verify(menuItemStockJdbcRepository, times(1)).updateStock(expected);
+
+        MenuCatalog.Snapshot snapshot = menuCatalog.snapshot();
+        assertEquals(version + 1, snapshot.getVersion());
+        assertEquals(6, snapshot.find(1L).orElseThrow().getStock());
+        assertTrue(snapshot.find(1L).orElseThrow().isAvailable());
+        assertEquals(0, snapshot.find(2L).orElseThrow().getStock());
+        assertFalse(snapshot.find(2L).orElseThrow().isAvailable());
+        verify(cache).evict(MenuItem.class, 1L);
+        verify(cache).evict(MenuItem.class, 2L);
+        verify(hibernateCache, times(1)).evictQueryRegion(MenuItemRepository.QUERY_CACHE_REGION);
+    }
+
+    @Test
+    void flush_ShouldKeepCatalogVersion_WhenNoItemSellsOut() {
+        // Arrange
+        stubCaches();
+        MenuCatalog.Snapshot before = menuCatalog.snapshot();
+        menuStockCounters.reserve(Map.of(1L, 3));
+
+        // Act
+        menuStockCounters.flush();
+
+        // Assert
+        verify(menuItemStockJdbcRepository).updateStock(Map.of(1L, 7));
+        assertSame(before, menuCatalog.snapshot());
+        assertEquals(OptionalInt.of(7), menuStockCounters.remaining(1L));
+        verify(hibernateCache).evictQueryRegion(MenuItemRepository.QUERY_CACHE_REGION);
+    }
+
+    @Test
+    void flush_ShouldKeepPriceEditedSinceCountersWereRead() {
+        // Arrange
+        stubCaches();
+        menuStockCounters.reserve(Map.of(2L, 1));
+        menuCatalog.publish(menuItem(2L, "Soup of the Day", 1).toBuilder().price(7.5).build());
+
+        // Act
+        menuStockCounters.flush();
+
+        // Assert
+        MenuItem soup = menuCatalog.snapshot().find(2L).orElseThrow();
+        assertEquals(7.5, soup.getPrice());
+        assertEquals(0, soup.getStock());
+        assertFalse(soup.isAvailable());
+    }
+
+    @Test
+    void flush_ShouldRetryOnNextFlush_WhenWriteFails() {
+        // Arrange
+        long version = menuCatalog.snapshot().getVersion();
+        menuStockCounters.reserve(Map.of(2L, 1));
+        doThrow(new DataAccessResourceFailureException("database down"))
+                .doNothing()
+                .when(menuItemStockJdbcRepository).updateStock(any());
+        stubCaches();
+
+        // Act
+        menuStockCounters.flush();
+        assertTrue(menuCatalog.snapshot().find(2L).orElseThrow().isAvailable());
+        menuStockCounters.flush();
+
+        // Assert
+        verify(menuItemStockJdbcRepository, times(2)).updateStock(Map.of(2L, 0));
+        assertEquals(version + 1, menuCatalog.snapshot().getVersion());
+        assertFalse(menuCatalog.snapshot().find(2L).orElseThrow().isAvailable());
+        verify(hibernateCache, times(1)).evictQueryRegion(MenuItemRepository.QUERY_CACHE_REGION);
+    }
+
+    @Test
+    void restock_ShouldStopCounting_WhenStockIsNull() {
+        // Arrange
+        stubCaches();
+        Map<Long, Integer> expected = new HashMap<>();
+        expected.put(2L, null);
+
+        // Act
+        menuStockCounters.restock(2L, null);
+
+        // Assert
+        assertEquals(OptionalInt.empty(), menuStockCounters.remaining(2L));
+        assertEquals(Map.of(), menuStockCounters.reserve(Map.of(2L, 100)));
+        verify(menuItemStockJdbcRepository).updateStock(expected);
+        assertThrows(IllegalArgumentException.class, () -> menuStockCounters.restock(1L, -1));
+    }
+
+    private void stubCaches() {
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(cache.unwrap(org.hibernate.Cache.class)).thenReturn(hibernateCache);
+    }
+
+    private static MenuItem menuItem(Long id, String name, Integer stock) {
+        return MenuItem.builder()
+                .id(id)
+                .name(name)
+                .price(10.0)
+                .available(true)
+                .stock(stock)
+                .build();
+    }
+}
@@ -5,7 +5,13 @@ import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.PlaceOrderRequest;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.OrderResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.PlaceOrderResponse;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderStatusChangedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.StockReservedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemNotAvailableException;
 import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemNotFoundException;
+import com.wassimlagnaoui.RestaurantOrder.Exception.MenuItemSoldOutException;
 import com.wassimlagnaoui.RestaurantOrder.Exception.NoActiveTableSessionFoundException;
 import com.wassimlagnaoui.RestaurantOrder.Exception.OrderNotFoundException;
 import com.wassimlagnaoui.RestaurantOrder.Mapper.OrderItemMapper;
@@ -17,17 +23,21 @@ import com.wassimlagnaoui.RestaurantOrder.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -49,6 +59,24 @@ class OrderServiceTest {
     @Mock
     private OrderItemMapper orderItemMapper;
 
+    @Mock
+    private MenuCatalog menuCatalog;
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private KitchenQueueIndex kitchenQueueIndex;
+
+    @Mock
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    @Mock
+    private MenuStockCounters menuStockCounters;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -76,7 +104,7 @@ class OrderServiceTest {
         testOrder = new Order();
         testOrder.setId(1L);
         testOrder.setTableSession(testTableSession);
-        testOrder.setStatus(OrderStatus.PLACED.name());
+        testOrder.setStatus(OrderStatus.PLACED);
         testOrder.setOrderDate(LocalDateTime.now());
         testOrder.setTotal(25.98);
 
@@ -85,6 +113,8 @@ class OrderServiceTest {
         testOrderItem.setOrder(testOrder);
         testOrderItem.setMenuItem(testMenuItem);
         testOrderItem.setQuantity(2);
+        testOrderItem.setUnitPrice(12.99);
+        testOrderItem.setLineTotal(25.98);
         testOrderItem.setServed(false);
 
         testOrder.setItems(Arrays.asList(testOrderItem));
@@ -103,8 +133,8 @@ class OrderServiceTest {
     @Test
     void placeOrder_ShouldReturnPlaceOrderResponse_WhenValidRequest() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionById(1L)).thenReturn(Optional.of(testTableSession));
-        when(menuItemRepository.findById(1L)).thenReturn(Optional.of(testMenuItem));
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of(testMenuItem)));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(1L); // Set the ID to simulate database save
@@ -123,42 +153,73 @@ class OrderServiceTest {
         assertEquals(1, response.getItems().size());
         assertEquals(25.98, response.getItems().get(0).getTotalPrice());
 
-        verify(tableSessionRepository).findActiveTableSessionById(1L);
-        verify(menuItemRepository).findById(1L);
+        verify(activeSessionRegistry).findById(1L);
+        verify(menuCatalog).snapshot();
+        verifyNoInteractions(menuItemRepository);
         verify(orderRepository).save(any(Order.class));
+        verify(tableSessionRepository).addToTotals(1L, 1, 1, 25.98);
+        verify(revenueRollupService).recordOrder(any(Order.class));
+    }
+
+    @Test
+    void placeOrder_ShouldPublishOrderPlacedEvent_WithKitchenQueueItems() {
+        // Arrange
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of(testMenuItem)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+        ArgumentCaptor<OrderPlacedEvent> captor = ArgumentCaptor.forClass(OrderPlacedEvent.class);
+
+        // Act
+        orderService.placeOrder(placeOrderRequest);
+
+        // Assert
+        verify(eventPublisher).publishEvent(captor.capture());
+        OrderPlacedEvent event = captor.getValue();
+        assertEquals(7L, event.getOrderId());
+        assertNotNull(event.getOrderDate());
+        assertEquals(1, event.getItems().size());
+        assertEquals(7L, event.getItems().get(0).getOrderId());
+        assertEquals("Burger", event.getItems().get(0).getItemName());
+        assertEquals("T1", event.getItems().get(0).getTableNumber());
+        assertEquals(2, event.getItems().get(0).getQuantity());
     }
 
     @Test
     void placeOrder_ShouldThrowException_WhenTableSessionNotFound() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionById(1L)).thenReturn(Optional.empty());
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(NoActiveTableSessionFoundException.class, () -> orderService.placeOrder(placeOrderRequest));
 
-        verify(tableSessionRepository).findActiveTableSessionById(1L);
-        verifyNoInteractions(menuItemRepository);
+        verify(activeSessionRegistry).findById(1L);
+        verifyNoInteractions(menuCatalog);
         verifyNoInteractions(orderRepository);
     }
 
     @Test
     void placeOrder_ShouldThrowException_WhenMenuItemNotFound() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionById(1L)).thenReturn(Optional.of(testTableSession));
-        when(menuItemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of()));
 
         // Act & Assert
         assertThrows(MenuItemNotFoundException.class, () -> orderService.placeOrder(placeOrderRequest));
 
-        verify(tableSessionRepository).findActiveTableSessionById(1L);
-        verify(menuItemRepository).findById(1L);
+        verify(activeSessionRegistry).findById(1L);
+        verify(menuCatalog).snapshot();
         verifyNoInteractions(orderRepository);
+        verifyNoInteractions(revenueRollupService);
     }
 
     @Test
     void getOrderById_ShouldReturnOrderResponse_WhenOrderExists() {
         // Arrange
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(testOrder));
 
         // Act
         OrderResponse response = orderService.getOrderById(1L);
@@ -170,25 +231,69 @@ class OrderServiceTest {
         assertEquals(1L, response.getSessionId());
         assertNotNull(response.getOrderItems());
 
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findWithItemsById(1L);
     }
 
     @Test
     void getOrderById_ShouldThrowException_WhenOrderNotFound() {
         // Arrange
-        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(OrderNotFoundException.class, () -> orderService.getOrderById(1L));
 
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findWithItemsById(1L);
+    }
+
+    @Test
+    void cancelOrder_ShouldMarkOrderCancelledAndUpdateRollups() {
+        // Arrange
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        OrderResponse response = orderService.cancelOrder(1L);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(OrderStatus.CANCELLED, testOrder.getStatus());
+
+        verify(orderRepository).save(testOrder);
+        verify(tableSessionRepository).addToTotals(1L, -1, -1, -25.98);
+        verify(revenueRollupService).recordCancellation(testOrder);
+        verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(1L, OrderStatus.CANCELLED.name()));
+    }
+
+    @Test
+    void cancelOrder_ShouldNotUpdateRollupsTwice_WhenAlreadyCancelled() {
+        // Arrange
+        testOrder.setStatus(OrderStatus.CANCELLED);
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        orderService.cancelOrder(1L);
+
+        // Assert
+        verify(orderRepository, never()).save(any());
+        verify(tableSessionRepository, never()).addToTotals(anyLong(), anyLong(), anyLong(), anyDouble());
+        verifyNoInteractions(revenueRollupService);
+    }
+
+    @Test
+    void cancelOrder_ShouldThrowException_WhenOrderNotFound() {
+        // Arrange
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(OrderNotFoundException.class, () -> orderService.cancelOrder(1L));
+
+        verifyNoInteractions(revenueRollupService);
     }
 
     @Test
     void getNotServedItems_ShouldReturnKitchenQueue_WhenUnservedItemsExist() {
         // Arrange
-        List<OrderItem> unservedItems = Arrays.asList(testOrderItem);
-        when(orderItemRepository.findUnservedOrderItem()).thenReturn(unservedItems);
+        KitchenOrderQueueResponse queued = OrderItemMapper.toKitchenQueueResponse(testOrderItem);
+        when(kitchenQueueIndex.items()).thenReturn(Arrays.asList(queued));
 
         // Act
         List<KitchenOrderQueueResponse> response = orderService.getNotServedItems();
@@ -203,20 +308,25 @@ class OrderServiceTest {
         assertEquals(testMenuItem.getName(), queueItem.getItemName());
         assertEquals(testTableSession.getTableNumber(), queueItem.getTableNumber());
         assertEquals(testOrderItem.getQuantity(), queueItem.getQuantity());
+        assertEquals(testOrder.getOrderDate(), queueItem.getOrderDate());
 
-        verify(orderItemRepository).findUnservedOrderItem();
+        verify(kitchenQueueIndex).items();
+        verifyNoInteractions(orderItemRepository);
     }
 
     @Test
-    void getNotServedItems_ShouldThrowException_WhenNoUnservedItems() {
+    void getNotServedItems_ShouldReturnEmptyList_WhenNoUnservedItems() {
         // Arrange
-        when(orderItemRepository.findUnservedOrderItem()).thenReturn(Arrays.asList());
+        when(kitchenQueueIndex.items()).thenReturn(Arrays.asList());
 
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> orderService.getNotServedItems());
-        assertEquals("No pending orders in the Kitchen", exception.getMessage());
+        // Act
+        List<KitchenOrderQueueResponse> response = orderService.getNotServedItems();
+
+        // Assert
+        assertNotNull(response);
+        assertTrue(response.isEmpty());
 
-        verify(orderItemRepository).findUnservedOrderItem();
+        verifyNoInteractions(orderItemRepository);
     }
 
     @Test
@@ -236,6 +346,7 @@ class OrderServiceTest {
 
         verify(orderItemRepository).findById(1L);
         verify(orderItemRepository).save(testOrderItem);
+        verify(eventPublisher).publishEvent(new OrderItemServedEvent(1L, 1L));
     }
 
     @Test
@@ -258,6 +369,7 @@ class OrderServiceTest {
         expensiveItem.setId(2L);
         expensiveItem.setName("Steak");
         expensiveItem.setPrice(25.00);
+        expensiveItem.setAvailable(true);
 
         OrderItemRequest expensiveItemRequest = new OrderItemRequest();
         expensiveItemRequest.setMenuItemId(2L);
@@ -267,8 +379,8 @@ class OrderServiceTest {
         requestWithExpensiveItem.setTableSessionId(1L);
         requestWithExpensiveItem.setItems(Arrays.asList(expensiveItemRequest));
 
-        when(tableSessionRepository.findActiveTableSessionById(1L)).thenReturn(Optional.of(testTableSession));
-        when(menuItemRepository.findById(2L)).thenReturn(Optional.of(expensiveItem));
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of(expensiveItem)));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(1L);
@@ -283,4 +395,77 @@ class OrderServiceTest {
 
         verify(orderRepository).save(argThat(order -> order.getTotal().equals(75.00)));
     }
+
+    @Test
+    void placeOrder_ShouldSnapshotUnitPriceAndLineTotalOnOrderItems() {
+        // Arrange
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of(testMenuItem)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        orderService.placeOrder(placeOrderRequest);
+
+        // Assert
+        verify(orderRepository).save(argThat(order -> order.getItems().get(0).getUnitPrice().equals(12.99)
+                && order.getItems().get(0).getLineTotal().equals(2 * 12.99)));
+    }
+
+    @Test
+    void getOrderById_ShouldKeepPlacedPrices_WhenMenuPriceChangesLater() {
+        // Arrange
+        testMenuItem.setPrice(99.99);
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act
+        OrderResponse response = orderService.getOrderById(1L);
+
+        // Assert
+        assertEquals(12.99, response.getOrderItems().get(0).getUnitPrice());
+        assertEquals(25.98, response.getOrderItems().get(0).getTotalPrice());
+    }
+
+    @Test
+    void placeOrder_ShouldTakeStock_AndPublishReservation() {
+        // Arrange
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of(testMenuItem)));
+        when(menuStockCounters.reserve(Map.of(1L, 2))).thenReturn(Map.of(1L, 2));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        orderService.placeOrder(placeOrderRequest);
+
+        // Assert
+        verify(menuStockCounters).reserve(Map.of(1L, 2));
+        verify(eventPublisher).publishEvent(new StockReservedEvent(Map.of(1L, 2)));
+        verify(orderRepository).save(any(Order.class));
+    }
+
+    @Test
+    void placeOrder_ShouldRejectWholeOrder_WhenALineIsSoldOut() {
+        // Arrange
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of(testMenuItem)));
+        when(menuStockCounters.reserve(any())).thenThrow(new MenuItemSoldOutException(1L));
+
+        // Act & Assert
+        assertThrows(MenuItemSoldOutException.class, () -> orderService.placeOrder(placeOrderRequest));
+
+        verifyNoInteractions(orderRepository, revenueRollupService, eventPublisher);
+        verify(tableSessionRepository, never()).addToTotals(any(), anyLong(), anyLong(), anyDouble());
+    }
+
+    @Test
+    void placeOrder_ShouldRejectUnavailableMenuItem() {
+        // Arrange
+        testMenuItem.setAvailable(false);
+        when(activeSessionRegistry.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(menuCatalog.snapshot()).thenReturn(MenuCatalog.Snapshot.of(1L, List.of(testMenuItem)));
+
+        // Act & Assert
+        assertThrows(MenuItemNotAvailableException.class, () -> orderService.placeOrder(placeOrderRequest));
+
+        verifyNoInteractions(menuStockCounters, orderRepository);
+    }
 }
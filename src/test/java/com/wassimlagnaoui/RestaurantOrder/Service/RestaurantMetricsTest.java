@@ -0,0 +1,76 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KitchenOrderQueueResponse;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderItemServedEvent;
+import com.wassimlagnaoui.RestaurantOrder.Event.OrderPlacedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantMetricsTest {
+
+    @Mock
+    private KitchenQueueIndex kitchenQueueIndex;
+
+    @Mock
+    private ActiveSessionRegistry activeSessionRegistry;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RestaurantMetrics restaurantMetrics;
+
+    @BeforeEach
+    void setUp() {
+        restaurantMetrics = new RestaurantMetrics(meterRegistry, kitchenQueueIndex, activeSessionRegistry);
+    }
+
+    @Test
+    void gauges_ShouldReadKitchenQueueAndSessionRegistry() {
+        // Arrange
+        when(kitchenQueueIndex.size()).thenReturn(7);
+        when(kitchenQueueIndex.oldestOrderDate()).thenReturn(Optional.of(LocalDateTime.now().minusSeconds(90)));
+        when(activeSessionRegistry.size()).thenReturn(4);
+
+        // Act & Assert
+        assertEquals(7, meterRegistry.get("kitchen.queue.depth").gauge().value());
+        assertEquals(4, meterRegistry.get("sessions.active").gauge().value());
+        assertEquals(90, meterRegistry.get("kitchen.queue.oldest.age").timeGauge().value(), 5);
+    }
+
+    @Test
+    void oldestAge_ShouldBeZero_WhenKitchenIsIdle() {
+        // Arrange
+        when(kitchenQueueIndex.oldestOrderDate()).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertEquals(0, meterRegistry.get("kitchen.queue.oldest.age").timeGauge().value());
+    }
+
+    @Test
+    void counters_ShouldCountPlacedOrdersAndItems_AndServedItems() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        KitchenOrderQueueResponse burger = new KitchenOrderQueueResponse(1L, 1L, "T1", "Burger", 2, false, now);
+        KitchenOrderQueueResponse fries = new KitchenOrderQueueResponse(2L, 1L, "T1", "Fries", 1, false, now);
+
+        // Act
+        restaurantMetrics.onOrderPlaced(new OrderPlacedEvent(1L, now, Arrays.asList(burger, fries)));
+        restaurantMetrics.onOrderItemServed(new OrderItemServedEvent(1L, 1L));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("orders.placed").counter().count());
+        assertEquals(2, meterRegistry.get("orders.items.placed").counter().count());
+        assertEquals(1, meterRegistry.get("orders.items.served").counter().count());
+    }
+}
@@ -0,0 +1,142 @@
+package com.wassimlagnaoui.RestaurantOrder.Service;
+
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.RollupRebuildResponse;
+import com.wassimlagnaoui.RestaurantOrder.Repository.DailyRevenueRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemDailyRevenueRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.RevenueRollupJdbcRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.DailyRevenue;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
+import com.wassimlagnaoui.RestaurantOrder.model.MenuItemDailyRevenue;
+import com.wassimlagnaoui.RestaurantOrder.model.Order;
+import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueRollupServiceTest {
+
+    @Mock
+    private DailyRevenueRepository dailyRevenueRepository;
+
+    @Mock
+    private MenuItemDailyRevenueRepository menuItemDailyRevenueRepository;
+
+    @Mock
+    private RevenueRollupJdbcRepository revenueRollupJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RevenueRollupService revenueRollupService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        revenueRollupService = new RevenueRollupService(dailyRevenueRepository, menuItemDailyRevenueRepository, revenueRollupJdbcRepository, transactionManager);
+
+        MenuItem burger = new MenuItem();
+        burger.setId(2L);
+        burger.setPrice(10.0);
+
+        MenuItem soda = new MenuItem();
+        soda.setId(1L);
+        soda.setPrice(2.5);
+
+        order = new Order();
+        order.setId(1L);
+        order.setOrderDate(LocalDateTime.of(2025, 8, 19, 12, 0));
+
+        OrderItem burgers = new OrderItem();
+        burgers.setMenuItem(burger);
+        burgers.setQuantity(2);
+        burgers.setUnitPrice(burger.getPrice());
+        burgers.setLineTotal(2 * burger.getPrice());
+
+        OrderItem sodas = new OrderItem();
+        sodas.setMenuItem(soda);
+        sodas.setQuantity(2);
+        sodas.setUnitPrice(soda.getPrice());
+        sodas.setLineTotal(2 * soda.getPrice());
+
+        OrderItem moreBurgers = new OrderItem();
+        moreBurgers.setMenuItem(burger);
+        moreBurgers.setQuantity(1);
+        moreBurgers.setUnitPrice(burger.getPrice());
+        moreBurgers.setLineTotal(burger.getPrice());
+
+        order.setItems(Arrays.asList(burgers, sodas, moreBurgers));
+    }
+
+    @Test
+    void recordOrder_ShouldIncrementDayAndMenuItemRollups_InMenuItemIdOrder() {
+        // Act
+        revenueRollupService.recordOrder(order);
+
+        // Assert
+        LocalDate day = LocalDate.of(2025, 8, 19);
+        verify(revenueRollupJdbcRepository).increment(
+            new DailyRevenue(day, 35.0, 5L, 1L),
+            Arrays.asList(
+                new MenuItemDailyRevenue(day, 1L, 5.0, 2L, 1L),
+                new MenuItemDailyRevenue(day, 2L, 30.0, 3L, 1L)
+            ));
+        verifyNoInteractions(dailyRevenueRepository, menuItemDailyRevenueRepository);
+    }
+
+    @Test
+    void recordCancellation_ShouldDecrementRollups() {
+        // Act
+        revenueRollupService.recordCancellation(order);
+
+        // Assert
+        LocalDate day = LocalDate.of(2025, 8, 19);
+        verify(revenueRollupJdbcRepository).increment(
+            new DailyRevenue(day, -35.0, -5L, -1L),
+            Arrays.asList(
+                new MenuItemDailyRevenue(day, 1L, -5.0, -2L, -1L),
+                new MenuItemDailyRevenue(day, 2L, -30.0, -3L, -1L)
+            ));
+    }
+
+    @Test
+    void rebuild_ShouldSplitRangeIntoChunks() {
+        // Arrange
+        when(dailyRevenueRepository.rebuildRange(any(), any())).thenReturn(10);
+        when(menuItemDailyRevenueRepository.rebuildRange(any(), any())).thenReturn(100);
+
+        // Act: 70 days with the default 31-day chunks
+        RollupRebuildResponse response = revenueRollupService.rebuild(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 11));
+
+        // Assert
+        assertEquals(3, response.getChunks());
+        assertEquals(30, response.getDayRows());
+        assertEquals(300, response.getMenuItemRows());
+
+        verify(dailyRevenueRepository).deleteRange(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1));
+        verify(dailyRevenueRepository).deleteRange(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 4));
+        verify(dailyRevenueRepository).deleteRange(LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 12));
+        verify(menuItemDailyRevenueRepository).rebuildRange(eq(LocalDate.of(2025, 3, 4).atStartOfDay()), eq(LocalDate.of(2025, 3, 12).atStartOfDay()));
+    }
+
+    @Test
+    void rebuild_ShouldRejectInvertedRange() {
+        assertThrows(IllegalArgumentException.class,
+            () -> revenueRollupService.rebuild(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+
+        verifyNoInteractions(dailyRevenueRepository, menuItemDailyRevenueRepository, revenueRollupJdbcRepository);
+    }
+}
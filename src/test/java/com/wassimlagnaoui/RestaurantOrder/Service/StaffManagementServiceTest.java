@@ -1,6 +1,7 @@
 package com.wassimlagnaoui.RestaurantOrder.Service;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.AddStaffDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.StaffInfoDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.staffAddedResponse;
 import com.wassimlagnaoui.RestaurantOrder.Repository.StaffRepository;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.util.Arrays;
 import java.util.List;
@@ -280,6 +282,48 @@ class StaffManagementServiceTest {
     }
 
     // Helper method to create staff objects for testing
+    @Test
+    void getStaffPage_ShouldReturnCursorOfLastStaff_WhenMoreStaffFollow() {
+        // Arrange
+        Staff first = createStaff(4L, "Jane", "Roe", "jane@restaurant.com", 1004L, "CHEF");
+        Staff second = createStaff(7L, "Sam", "Poe", "sam@restaurant.com", 1007L, "WAITER");
+        Staff extra = createStaff(9L, "Max", "Low", "max@restaurant.com", 1009L, "MANAGER");
+        when(staffRepository.findByIdGreaterThanOrderByIdAsc(3L, Limit.of(3))).thenReturn(List.of(first, second, extra));
+        when(staffRepository.count()).thenReturn(12L);
+
+        // Act
+        KeysetPage<StaffInfoDTO> page = staffManagementService.getStaffPage(3L, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals(1007L, page.getItems().get(1).getEmployeeId());
+        assertEquals(7L, page.getNextCursor());
+        assertEquals(12L, page.getTotal());
+        verify(staffRepository, never()).findAll();
+    }
+
+    @Test
+    void getStaffPage_ShouldHaveNoCursor_OnLastPage() {
+        // Arrange
+        when(staffRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))).thenReturn(List.of(savedStaff));
+        when(staffRepository.count()).thenReturn(1L);
+
+        // Act
+        KeysetPage<StaffInfoDTO> page = staffManagementService.getStaffPage(null, KeysetPage.DEFAULT_SIZE);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getStaffPage_ShouldRejectOversizedPages() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> staffManagementService.getStaffPage(null, KeysetPage.MAX_SIZE + 1));
+
+        verifyNoInteractions(staffRepository);
+    }
+
     private Staff createStaff(Long id, String firstName, String lastName, String email, Long employeeId, String role) {
         Staff staff = new Staff();
         staff.setId(id);
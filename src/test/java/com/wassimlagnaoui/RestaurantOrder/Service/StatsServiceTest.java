@@ -1,24 +1,33 @@
 package com.wassimlagnaoui.RestaurantOrder.Service;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.MostOrderedItemDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.RevenueByMenuItemDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.TableSessionAverageRevenueByDate;
+import com.wassimlagnaoui.RestaurantOrder.Repository.DailyRevenueRepository;
+import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemDailyRevenueRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.MenuItemRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.OrderItemRepository;
 import com.wassimlagnaoui.RestaurantOrder.Repository.TableSessionRepository;
+import com.wassimlagnaoui.RestaurantOrder.model.DailyRevenue;
 import com.wassimlagnaoui.RestaurantOrder.model.MenuItem;
 import com.wassimlagnaoui.RestaurantOrder.model.Order;
 import com.wassimlagnaoui.RestaurantOrder.model.OrderItem;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +44,12 @@ class StatsServiceTest {
     @Mock
     private MenuItemRepository menuItemRepository;
 
+    @Mock
+    private DailyRevenueRepository dailyRevenueRepository;
+
+    @Mock
+    private MenuItemDailyRevenueRepository menuItemDailyRevenueRepository;
+
     @InjectMocks
     private StatsService statsService;
 
@@ -129,11 +144,10 @@ class StatsServiceTest {
     @Test
     void getTotalRevenueByDate_ShouldReturnRevenueMapByDate() {
         // Arrange
-        List<String> dates = Arrays.asList("2025-08-19", "2025-08-20");
-        List<OrderItem> allOrderItems = Arrays.asList(orderItem1, orderItem2, orderItem3);
-
-        when(tableSessionRepository.findAllDates()).thenReturn(dates);
-        when(orderItemRepository.findAll()).thenReturn(allOrderItems);
+        when(dailyRevenueRepository.findAllOrderByDate()).thenReturn(Arrays.asList(
+            new DailyRevenue(LocalDate.of(2025, 8, 19), 41.97, 3L, 1L),
+            new DailyRevenue(LocalDate.of(2025, 8, 20), 38.97, 3L, 1L)
+        ));
 
         // Act
         HashMap<String, Double> result = statsService.getTotalRevenueByDate();
@@ -141,21 +155,18 @@ class StatsServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
-
-        // 2025-08-19: (2 * 12.99) + (1 * 15.99) = 25.98 + 15.99 = 41.97
         assertEquals(41.97, result.get("2025-08-19"), 0.01);
-
-        // 2025-08-20: (3 * 12.99) = 38.97
         assertEquals(38.97, result.get("2025-08-20"), 0.01);
 
-        verify(tableSessionRepository).findAllDates();
-        verify(orderItemRepository, times(2)).findAll();
+        verify(dailyRevenueRepository).findAllOrderByDate();
+        verifyNoInteractions(orderItemRepository);
+        verifyNoInteractions(tableSessionRepository);
     }
 
     @Test
     void getTotalRevenueByDate_ShouldReturnEmptyMap_WhenNoDatesFound() {
         // Arrange
-        when(tableSessionRepository.findAllDates()).thenReturn(Arrays.asList());
+        when(dailyRevenueRepository.findAllOrderByDate()).thenReturn(Arrays.asList());
 
         // Act
         HashMap<String, Double> result = statsService.getTotalRevenueByDate();
@@ -164,18 +175,16 @@ class StatsServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
 
-        verify(tableSessionRepository).findAllDates();
-        verifyNoInteractions(orderItemRepository);
+        verify(dailyRevenueRepository).findAllOrderByDate();
     }
 
     @Test
     void getTotalRevenueByMenuItem_ShouldReturnRevenueMapByMenuItem() {
         // Arrange
-        List<MenuItem> menuItems = Arrays.asList(burger, pizza);
-        List<OrderItem> allOrderItems = Arrays.asList(orderItem1, orderItem2, orderItem3);
-
-        when(menuItemRepository.findAll()).thenReturn(menuItems);
-        when(orderItemRepository.findAll()).thenReturn(allOrderItems);
+        when(menuItemDailyRevenueRepository.streamRevenueByMenuItem()).thenReturn(Stream.of(
+            new RevenueByMenuItemDTO(1L, "Burger", 64.95),
+            new RevenueByMenuItemDTO(2L, "Pizza", 15.99)
+        ));
 
         // Act
         HashMap<String, Double> result = statsService.getTotalRevenueByMenuItem();
@@ -183,21 +192,18 @@ class StatsServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
-
-        // Burger: (2 * 12.99) + (3 * 12.99) = 25.98 + 38.97 = 64.95
         assertEquals(64.95, result.get("Burger"), 0.01);
-
-        // Pizza: (1 * 15.99) = 15.99
         assertEquals(15.99, result.get("Pizza"), 0.01);
 
-        verify(menuItemRepository).findAll();
-        verify(orderItemRepository, times(2)).findAll();
+        verify(menuItemDailyRevenueRepository).streamRevenueByMenuItem();
+        verifyNoInteractions(orderItemRepository);
+        verifyNoInteractions(menuItemRepository);
     }
 
     @Test
     void getTotalRevenueByMenuItem_ShouldReturnEmptyMap_WhenNoMenuItemsFound() {
         // Arrange
-        when(menuItemRepository.findAll()).thenReturn(Arrays.asList());
+        when(menuItemDailyRevenueRepository.streamRevenueByMenuItem()).thenReturn(Stream.empty());
 
         // Act
         HashMap<String, Double> result = statsService.getTotalRevenueByMenuItem();
@@ -206,22 +212,16 @@ class StatsServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
 
-        verify(menuItemRepository).findAll();
-        verifyNoInteractions(orderItemRepository);
+        verify(menuItemDailyRevenueRepository).streamRevenueByMenuItem();
     }
 
     @Test
     void getTotalRevenueByMenuItem_ShouldHandleZeroRevenue_WhenItemNotOrdered() {
         // Arrange
-        MenuItem saladItem = new MenuItem();
-        saladItem.setName("Salad");
-        saladItem.setPrice(8.99);
-
-        List<MenuItem> menuItems = Arrays.asList(burger, saladItem);
-        List<OrderItem> allOrderItems = Arrays.asList(orderItem1); // Only burger ordered
-
-        when(menuItemRepository.findAll()).thenReturn(menuItems);
-        when(orderItemRepository.findAll()).thenReturn(allOrderItems);
+        when(menuItemDailyRevenueRepository.streamRevenueByMenuItem()).thenReturn(Stream.of(
+            new RevenueByMenuItemDTO(1L, "Burger", 25.98),
+            new RevenueByMenuItemDTO(3L, "Salad", 0.0) // Not ordered
+        ));
 
         // Act
         HashMap<String, Double> result = statsService.getTotalRevenueByMenuItem();
@@ -229,11 +229,24 @@ class StatsServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
-        assertEquals(25.98, result.get("Burger"), 0.01); // 2 * 12.99
-        assertEquals(0.0, result.get("Salad"), 0.01); // Not ordered
+        assertEquals(25.98, result.get("Burger"), 0.01);
+        assertEquals(0.0, result.get("Salad"), 0.01);
+    }
 
-        verify(menuItemRepository).findAll();
-        verify(orderItemRepository, times(2)).findAll();
+    @Test
+    void getTotalRevenueByMenuItem_ShouldMergeItemsWithSameName() {
+        // Arrange
+        when(menuItemDailyRevenueRepository.streamRevenueByMenuItem()).thenReturn(Stream.of(
+            new RevenueByMenuItemDTO(1L, "Burger", 25.98),
+            new RevenueByMenuItemDTO(4L, "Burger", 10.00)
+        ));
+
+        // Act
+        HashMap<String, Double> result = statsService.getTotalRevenueByMenuItem();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(35.98, result.get("Burger"), 0.01);
     }
 
     @Test
@@ -279,20 +292,11 @@ class StatsServiceTest {
     }
 
     @Test
-    void getTotalRevenueByDate_ShouldCalculateCorrectRevenue_WithMultipleOrderItems() {
+    void getTotalRevenueByDate_ShouldKeyRowsByIsoDate() {
         // Arrange
-        List<String> dates = Arrays.asList("2025-08-19");
-
-        // Create additional order items for the same date
-        OrderItem additionalOrderItem = new OrderItem();
-        additionalOrderItem.setMenuItem(pizza);
-        additionalOrderItem.setQuantity(2);
-        additionalOrderItem.setOrder(order1); // Same date as order1
-
-        List<OrderItem> allOrderItems = Arrays.asList(orderItem1, orderItem2, additionalOrderItem);
-
-        when(tableSessionRepository.findAllDates()).thenReturn(dates);
-        when(orderItemRepository.findAll()).thenReturn(allOrderItems);
+        when(dailyRevenueRepository.findAllOrderByDate()).thenReturn(Arrays.asList(
+            new DailyRevenue(LocalDate.of(2025, 1, 5), 73.95, 5L, 2L)
+        ));
 
         // Act
         HashMap<String, Double> result = statsService.getTotalRevenueByDate();
@@ -300,8 +304,26 @@ class StatsServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
+        assertEquals(73.95, result.get("2025-01-05"), 0.01);
+    }
+
+    @Test
+    void statsMethods_ShouldBeTimedPerMethod() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(statsService);
+        proxyFactory.addAspect(new TimedAspect(meterRegistry));
+        StatsService timedStatsService = proxyFactory.getProxy();
+        when(dailyRevenueRepository.findAllOrderByDate()).thenReturn(List.of());
+        when(orderItemRepository.findMostOrderedItems()).thenReturn(List.of());
+
+        // Act
+        timedStatsService.getTotalRevenueByDate();
+        timedStatsService.getTotalRevenueByDate();
+        timedStatsService.getMostOrderedItems();
 
-        // Expected: (2 * 12.99) + (1 * 15.99) + (2 * 15.99) = 25.98 + 15.99 + 31.98 = 73.95
-        assertEquals(73.95, result.get("2025-08-19"), 0.01);
+        // Assert
+        assertEquals(2, meterRegistry.get("stats.query").tag("method", "getTotalRevenueByDate").timer().count());
+        assertEquals(1, meterRegistry.get("stats.query").tag("method", "getMostOrderedItems").timer().count());
     }
 }
@@ -1,8 +1,10 @@
 package com.wassimlagnaoui.RestaurantOrder.Service;
 
 import com.wassimlagnaoui.RestaurantOrder.DTO.ItemSummaryDTO;
+import com.wassimlagnaoui.RestaurantOrder.DTO.SessionItemRow;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Requests.StartSessionDTO;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.EndSessionResponse;
+import com.wassimlagnaoui.RestaurantOrder.DTO.Response.KeysetPage;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.SessionSummary;
 import com.wassimlagnaoui.RestaurantOrder.DTO.Response.StartSessionResponse;
 import com.wassimlagnaoui.RestaurantOrder.DTO.TableSessionResponse;
@@ -15,7 +17,6 @@ import com.wassimlagnaoui.RestaurantOrder.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -26,6 +27,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,7 +36,8 @@ class TableSessionServiceTest {
     @Mock
     private TableSessionRepository tableSessionRepository;
 
-    @InjectMocks
+    private ActiveSessionRegistry activeSessionRegistry;
+
     private TableSessionService tableSessionService;
 
     private TableSession testTableSession;
@@ -45,6 +48,9 @@ class TableSessionServiceTest {
 
     @BeforeEach
     void setUp() {
+        activeSessionRegistry = new ActiveSessionRegistry(tableSessionRepository);
+        tableSessionService = new TableSessionService(tableSessionRepository, activeSessionRegistry);
+
         // Setup test table session
         testTableSession = new TableSession();
         testTableSession.setId(1L);
@@ -67,13 +73,15 @@ class TableSessionServiceTest {
         testOrder.setId(1L);
         testOrder.setTableSession(testTableSession);
         testOrder.setOrderDate(LocalDateTime.now());
-        testOrder.setStatus(OrderStatus.PLACED.name());
+        testOrder.setStatus(OrderStatus.PLACED);
 
         // Setup order item
         testOrderItem = new OrderItem();
         testOrderItem.setId(1L);
         testOrderItem.setMenuItem(testMenuItem);
         testOrderItem.setQuantity(2);
+        testOrderItem.setUnitPrice(12.99);
+        testOrderItem.setLineTotal(25.98);
         testOrderItem.setOrder(testOrder);
         testOrderItem.setServed(false);
 
@@ -90,7 +98,6 @@ class TableSessionServiceTest {
         savedSession.setTableNumber("T1");
         savedSession.setSessionStart(LocalDateTime.now());
 
-        when(tableSessionRepository.findActiveTableSessionByTableNumber("T1")).thenReturn(Optional.empty());
         when(tableSessionRepository.save(any(TableSession.class))).thenAnswer(invocation -> {
             TableSession session = invocation.getArgument(0);
             session.setId(1L); // Set the ID to simulate database save
@@ -106,15 +113,15 @@ class TableSessionServiceTest {
         assertEquals("T1", response.getTableNumber());
 
         assertNotNull(response.getStartTime());
+        assertEquals(1L, activeSessionRegistry.findByTableNumber("T1").orElseThrow().getId());
 
-        verify(tableSessionRepository).findActiveTableSessionByTableNumber("T1");
         verify(tableSessionRepository).save(any(TableSession.class));
     }
 
     @Test
     void startSession_ShouldThrowException_WhenActiveSessionExists() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionByTableNumber("T1")).thenReturn(Optional.of(testTableSession));
+        seat(testTableSession);
 
         // Act & Assert
         ActiveSessionExistsException exception = assertThrows(ActiveSessionExistsException.class,
@@ -122,7 +129,6 @@ class TableSessionServiceTest {
 
         assertTrue(exception.getMessage().contains("There is already an active session for this table: T1"));
 
-        verify(tableSessionRepository).findActiveTableSessionByTableNumber("T1");
         verify(tableSessionRepository, never()).save(any());
     }
 
@@ -162,8 +168,7 @@ class TableSessionServiceTest {
         session2.setTableNumber("T2");
         session2.setSessionStart(LocalDateTime.now());
 
-        List<TableSession> activeSessions = Arrays.asList(testTableSession, session2);
-        when(tableSessionRepository.findActiveTableSession()).thenReturn(activeSessions);
+        seat(session2, testTableSession);
 
         // Act
         List<TableSessionResponse> responses = tableSessionService.getActiveTableSessions();
@@ -174,13 +179,40 @@ class TableSessionServiceTest {
         assertEquals("T1", responses.get(0).getTableNumber());
         assertEquals("T2", responses.get(1).getTableNumber());
 
-        verify(tableSessionRepository).findActiveTableSession();
+        verify(tableSessionRepository, times(1)).findActiveTableSession();
+    }
+
+    @Test
+    void getActiveTableSessionPage_ShouldPageRegistryInIdOrder() {
+        // Arrange
+        TableSession session2 = new TableSession();
+        session2.setId(2L);
+        session2.setTableNumber("T2");
+        session2.setSessionStart(LocalDateTime.of(2025, 8, 19, 11, 0));
+        TableSession session3 = new TableSession();
+        session3.setId(3L);
+        session3.setTableNumber("T3");
+        session3.setSessionStart(LocalDateTime.of(2025, 8, 19, 13, 0));
+        seat(session3, session2, testTableSession);
+
+        // Act
+        KeysetPage<TableSessionResponse> first = tableSessionService.getActiveTableSessionPage(null, 2);
+        KeysetPage<TableSessionResponse> last = tableSessionService.getActiveTableSessionPage(first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), first.getItems().stream().map(TableSessionResponse::getId).toList());
+        assertEquals(2L, first.getNextCursor());
+        assertEquals(3L, first.getTotal());
+        assertEquals(List.of(3L), last.getItems().stream().map(TableSessionResponse::getId).toList());
+        assertNull(last.getNextCursor());
+        // one load on startup, nothing per page
+        verify(tableSessionRepository, times(1)).findActiveTableSession();
     }
 
     @Test
     void getActiveTableSessions_ShouldThrowException_WhenNoActiveSessionsFound() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSession()).thenReturn(Arrays.asList());
+        seat();
 
         // Act & Assert
         NoActiveSessionsFoundExceptions exception = assertThrows(NoActiveSessionsFoundExceptions.class,
@@ -194,8 +226,8 @@ class TableSessionServiceTest {
     @Test
     void endSession_ShouldReturnEndSessionResponse_WhenActiveSessionExists() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionByTableNumber("T1")).thenReturn(Optional.of(testTableSession));
-        when(tableSessionRepository.save(any(TableSession.class))).thenReturn(testTableSession);
+        seat(testTableSession);
+        when(tableSessionRepository.endSession(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
         // Act
         EndSessionResponse response = tableSessionService.endSession("T1");
@@ -206,28 +238,28 @@ class TableSessionServiceTest {
         assertEquals("T1", response.getTableNumber());
         assertEquals(testTableSession.getSessionStart(), response.getStartTime());
         assertNotNull(response.getEndTime());
-        assertNotNull(testTableSession.getSessionEnd());
+        assertTrue(activeSessionRegistry.findByTableNumber("T1").isEmpty());
+        assertTrue(activeSessionRegistry.findById(1L).isEmpty());
 
-        verify(tableSessionRepository).findActiveTableSessionByTableNumber("T1");
-        verify(tableSessionRepository).save(testTableSession);
+        verify(tableSessionRepository).endSession(eq(1L), any(LocalDateTime.class));
+        verify(tableSessionRepository, never()).save(any());
     }
 
     @Test
     void endSession_ShouldThrowException_WhenNoActiveSessionFound() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionByTableNumber("T1")).thenReturn(Optional.empty());
+        seat();
 
         // Act & Assert
         assertThrows(NoActiveTableSessionFoundException.class, () -> tableSessionService.endSession("T1"));
 
-        verify(tableSessionRepository).findActiveTableSessionByTableNumber("T1");
-        verify(tableSessionRepository, never()).save(any());
+        verify(tableSessionRepository, never()).endSession(any(), any());
     }
 
     @Test
     void getItemSummaryForSession_ShouldReturnItemSummaryList_WhenSessionExists() {
         // Arrange
-        when(tableSessionRepository.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(tableSessionRepository.findWithOrdersById(1L)).thenReturn(Optional.of(testTableSession));
 
         // Act
         List<ItemSummaryDTO> result = tableSessionService.getItemSummaryForSession(1L);
@@ -244,24 +276,51 @@ class TableSessionServiceTest {
         assertFalse(itemSummary.getServed());
         assertEquals(25.98, itemSummary.getTotalPrice(), 0.01); // 2 * 12.99
 
-        verify(tableSessionRepository).findById(1L);
+        verify(tableSessionRepository).findWithOrdersById(1L);
+    }
+
+    @Test
+    void getItemSummaryForSession_ShouldLeaveOutCancelledOrders() {
+        // Arrange
+        Order cancelledOrder = new Order();
+        cancelledOrder.setId(2L);
+        cancelledOrder.setTableSession(testTableSession);
+        cancelledOrder.setStatus(OrderStatus.CANCELLED);
+        OrderItem cancelledItem = new OrderItem();
+        cancelledItem.setId(2L);
+        cancelledItem.setMenuItem(testMenuItem);
+        cancelledItem.setQuantity(1);
+        cancelledItem.setLineTotal(12.99);
+        cancelledItem.setOrder(cancelledOrder);
+        cancelledItem.setServed(false);
+        cancelledOrder.setItems(Arrays.asList(cancelledItem));
+        testTableSession.setOrders(Arrays.asList(testOrder, cancelledOrder));
+        when(tableSessionRepository.findWithOrdersById(1L)).thenReturn(Optional.of(testTableSession));
+
+        // Act
+        List<ItemSummaryDTO> result = tableSessionService.getItemSummaryForSession(1L);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getOrderId());
+        assertEquals(25.98, result.get(0).getTotalPrice(), 0.01);
     }
 
     @Test
     void getItemSummaryForSession_ShouldThrowException_WhenSessionNotFound() {
         // Arrange
-        when(tableSessionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(tableSessionRepository.findWithOrdersById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(TableSessionNotFound.class, () -> tableSessionService.getItemSummaryForSession(1L));
 
-        verify(tableSessionRepository).findById(1L);
+        verify(tableSessionRepository).findWithOrdersById(1L);
     }
 
     @Test
     void getAllOrderedItemNames_ShouldReturnItemNames_WhenSessionExists() {
         // Arrange
-        when(tableSessionRepository.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(tableSessionRepository.findWithOrdersById(1L)).thenReturn(Optional.of(testTableSession));
 
         // Act
         List<String> result = tableSessionService.getAllOrderedItemNames(1L);
@@ -271,24 +330,24 @@ class TableSessionServiceTest {
         assertEquals(1, result.size());
         assertEquals("Burger", result.get(0));
 
-        verify(tableSessionRepository).findById(1L);
+        verify(tableSessionRepository).findWithOrdersById(1L);
     }
 
     @Test
     void getAllOrderedItemNames_ShouldThrowException_WhenSessionNotFound() {
         // Arrange
-        when(tableSessionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(tableSessionRepository.findWithOrdersById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(TableSessionNotFound.class, () -> tableSessionService.getAllOrderedItemNames(1L));
 
-        verify(tableSessionRepository).findById(1L);
+        verify(tableSessionRepository).findWithOrdersById(1L);
     }
 
     @Test
     void findActiveSessionByTableNumber_ShouldReturnTableSessionResponse_WhenActiveSessionExists() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionByTableNumber("T1")).thenReturn(Optional.of(testTableSession));
+        seat(testTableSession);
 
         // Act
         TableSessionResponse response = tableSessionService.findActiveSessionByTableNumber("T1");
@@ -299,26 +358,29 @@ class TableSessionServiceTest {
         assertEquals("T1", response.getTableNumber());
         assertEquals(testTableSession.getSessionStart(), response.getSessionStartTime());
 
-        verify(tableSessionRepository).findActiveTableSessionByTableNumber("T1");
+        verify(tableSessionRepository, times(1)).findActiveTableSession();
     }
 
     @Test
     void findActiveSessionByTableNumber_ShouldThrowException_WhenNoActiveSessionFound() {
         // Arrange
-        when(tableSessionRepository.findActiveTableSessionByTableNumber("T1")).thenReturn(Optional.empty());
+        seat();
 
         // Act & Assert
         assertThrows(NoActiveTableSessionFoundException.class,
             () -> tableSessionService.findActiveSessionByTableNumber("T1"));
-
-        verify(tableSessionRepository).findActiveTableSessionByTableNumber("T1");
     }
 
     @Test
     void getSessionSummaryForCheckout_ShouldReturnSessionSummary_WhenSessionExists() {
         // Arrange
-        // Mock findById to be called multiple times (once for main method, once for getItemSummaryForSession)
+        testTableSession.setOrderCount(1);
+        testTableSession.setItemCount(1);
+        testTableSession.setTotalAmount(25.98);
         when(tableSessionRepository.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(tableSessionRepository.findCheckoutItems(1L)).thenReturn(List.of(
+            new ItemSummaryDTO(1L, 1L, "Burger", 2, false, 25.98)
+        ));
 
         // Act
         SessionSummary result = tableSessionService.getSessionSummaryForCheckout(1L);
@@ -332,9 +394,12 @@ class TableSessionServiceTest {
         assertEquals(25.98, result.getTotalAmont(), 0.01); // 2 * 12.99
         assertNotNull(result.getItems());
         assertEquals(1, result.getItems().size());
+        assertEquals("Burger", result.getItems().get(0).getItemName());
 
-        // The method calls findById twice: once in getSessionSummaryForCheckout and once in getItemSummaryForSession
-        verify(tableSessionRepository, times(2)).findById(1L);
+        // the session row and one projection, without loading the orders
+        verify(tableSessionRepository).findById(1L);
+        verify(tableSessionRepository).findCheckoutItems(1L);
+        verify(tableSessionRepository, never()).findWithOrdersById(anyLong());
     }
 
     @Test
@@ -347,15 +412,17 @@ class TableSessionServiceTest {
             () -> tableSessionService.getSessionSummaryForCheckout(1L));
 
         verify(tableSessionRepository).findById(1L);
+        verify(tableSessionRepository, never()).findCheckoutItems(anyLong());
     }
 
     @Test
     void getAllSessionByDate_ShouldReturnSessionSummaryList_WhenSessionsExist() {
         // Arrange
         String testDate = "2025-08-19";
-        when(tableSessionRepository.findSessionsByDate(testDate)).thenReturn(Arrays.asList(testTableSession));
-        // Mock findById for the internal call to getItemSummaryForSession
-        when(tableSessionRepository.findById(1L)).thenReturn(Optional.of(testTableSession));
+        LocalDateTime from = LocalDateTime.of(2025, 8, 19, 0, 0);
+        when(tableSessionRepository.findSessionItemRows(from, from.plusDays(1))).thenReturn(Arrays.asList(
+            new SessionItemRow(1L, "T1", 1L, 1L, "Burger", 2, false, 25.98)
+        ));
 
         // Act
         List<SessionSummary> result = tableSessionService.getAllSessionByDate(testDate);
@@ -370,55 +437,108 @@ class TableSessionServiceTest {
         assertEquals(1L, sessionSummary.getTotalOrders());
         assertEquals(1L, sessionSummary.getTotalItemOrdered());
         assertEquals(25.98, sessionSummary.getTotalAmont(), 0.01);
+        assertEquals("Burger", sessionSummary.getItems().get(0).getItemName());
 
-        verify(tableSessionRepository).findSessionsByDate(testDate);
-        // Verify findById is called for getItemSummaryForSession
-        verify(tableSessionRepository).findById(1L);
+        verify(tableSessionRepository).findSessionItemRows(from, from.plusDays(1));
+        verify(tableSessionRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getAllSessionByDate_ShouldGroupRowsBySessionAndOrder() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2025, 8, 19, 0, 0);
+        when(tableSessionRepository.findSessionItemRows(from, from.plusDays(1))).thenReturn(Arrays.asList(
+            new SessionItemRow(1L, "T1", 1L, 1L, "Burger", 2, true, 25.98),
+            new SessionItemRow(1L, "T1", 1L, 2L, "Pizza", 1, false, 15.99),
+            new SessionItemRow(1L, "T1", 2L, 3L, "Burger", 1, false, 12.99),
+            new SessionItemRow(2L, "T2", 3L, null, null, null, null, null),
+            new SessionItemRow(3L, "T3", null, null, null, null, null, null)
+        ));
+
+        // Act
+        List<SessionSummary> result = tableSessionService.getAllSessionByDate("2025-08-19");
+
+        // Assert
+        assertEquals(3, result.size());
+
+        assertEquals(2L, result.get(0).getTotalOrders());
+        assertEquals(3L, result.get(0).getTotalItemOrdered());
+        assertEquals(54.96, result.get(0).getTotalAmont(), 0.01);
+        assertEquals(2L, result.get(0).getItems().get(2).getOrderId());
+
+        assertEquals(1L, result.get(1).getTotalOrders());
+        assertEquals(0L, result.get(1).getTotalItemOrdered());
+        assertTrue(result.get(1).getItems().isEmpty());
+
+        assertEquals("T3", result.get(2).getTableNumber());
+        assertEquals(0L, result.get(2).getTotalOrders());
+        assertEquals(0.0, result.get(2).getTotalAmont());
+    }
+
+    @Test
+    void getAllSessionByDate_ShouldCountMissingLineTotalAsZero() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2025, 8, 19, 0, 0);
+        when(tableSessionRepository.findSessionItemRows(from, from.plusDays(1))).thenReturn(Arrays.asList(
+            new SessionItemRow(1L, "T1", 1L, 1L, "Burger", 2, true, 25.98),
+            new SessionItemRow(1L, "T1", 1L, 2L, "Daily special", 1, false, null)
+        ));
+
+        // Act
+        List<SessionSummary> result = tableSessionService.getAllSessionByDate("2025-08-19");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(2L, result.get(0).getTotalItemOrdered());
+        assertEquals(25.98, result.get(0).getTotalAmont(), 0.01);
+        assertNull(result.get(0).getItems().get(1).getTotalPrice());
     }
 
     @Test
     void getAllSessionByDate_ShouldThrowException_WhenNoSessionsFoundForDate() {
         // Arrange
         String testDate = "2025-08-19";
-        when(tableSessionRepository.findSessionsByDate(testDate)).thenReturn(Arrays.asList());
+        LocalDateTime from = LocalDateTime.of(2025, 8, 19, 0, 0);
+        when(tableSessionRepository.findSessionItemRows(from, from.plusDays(1))).thenReturn(Arrays.asList());
 
         // Act & Assert
         assertThrows(TableSessionNotFound.class,
             () -> tableSessionService.getAllSessionByDate(testDate));
 
-        verify(tableSessionRepository).findSessionsByDate(testDate);
+        verify(tableSessionRepository).findSessionItemRows(from, from.plusDays(1));
     }
 
     @Test
-    void getSessionSummaryForCheckout_ShouldCalculateCorrectTotals_WithMultipleOrdersAndItems() {
-        // Arrange
-        // Create second order item
-        OrderItem orderItem2 = new OrderItem();
-        orderItem2.setId(2L);
-        orderItem2.setMenuItem(testMenuItem);
-        orderItem2.setQuantity(1);
-        orderItem2.setOrder(testOrder);
-        orderItem2.setServed(true);
-
-        // Create second order
-        Order order2 = new Order();
-        order2.setId(2L);
-        order2.setTableSession(testTableSession);
-        order2.setItems(Arrays.asList(orderItem2));
-
-        // Update test data
-        testOrder.setItems(Arrays.asList(testOrderItem));
-        testTableSession.setOrders(Arrays.asList(testOrder, order2));
+    void getAllSessionByDate_ShouldThrowIllegalArgument_WhenDateIsInvalid() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> tableSessionService.getAllSessionByDate("19/08/2025"));
+
+        verifyNoInteractions(tableSessionRepository);
+    }
 
+    @Test
+    void getSessionSummaryForCheckout_ShouldReturnRunningTotals_WithoutAddingUpItems() {
+        // Arrange
+        // a long banquet session: the totals come from the session, not from its item lines
+        testTableSession.setOrderCount(40);
+        testTableSession.setItemCount(300);
+        testTableSession.setTotalAmount(3897.0);
         when(tableSessionRepository.findById(1L)).thenReturn(Optional.of(testTableSession));
+        when(tableSessionRepository.findCheckoutItems(1L)).thenReturn(List.of());
 
         // Act
         SessionSummary result = tableSessionService.getSessionSummaryForCheckout(1L);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2L, result.getTotalOrders()); // 2 orders
-        assertEquals(2L, result.getTotalItemOrdered()); // 2 order items total
-        assertEquals(38.97, result.getTotalAmont(), 0.01); // (2 * 12.99) + (1 * 12.99) = 38.97
+        assertEquals(40L, result.getTotalOrders());
+        assertEquals(300L, result.getTotalItemOrdered());
+        assertEquals(3897.0, result.getTotalAmont(), 0.01);
+    }
+
+    // loads the given sessions into the registry, as on startup
+    private void seat(TableSession... sessions) {
+        when(tableSessionRepository.findActiveTableSession()).thenReturn(Arrays.asList(sessions));
+        activeSessionRegistry.reload();
     }
 }